@@ -0,0 +1,87 @@
+import java.util.SplittableRandom;
+
+/**
+ * Sorteia posições de 1 a n segundo a distribuição de Zipf: a posição k é sorteada com probabilidade
+ * proporcional a 1/k^s. Usa o método de rejeição-inversão de Hörmann e Derflinger, que não guarda tabela
+ * nenhuma: a memória é constante e cada sorteio custa O(1), mesmo para centenas de milhões de posições.
+ */
+public class AmostradorZipf {
+
+    private final int quantidade;
+    private final double expoente;
+    private final double integralPrimeiro;
+    private final double integralTotal;
+    private final double limiteAceitacao;
+
+    /**
+     * @param quantidade Quantidade de posições (n, pelo menos 1)
+     * @param expoente Expoente s da distribuição (maior que 0). Quanto maior, mais concentrados os sorteios nas
+     *                 primeiras posições
+     */
+    public AmostradorZipf(int quantidade, double expoente) {
+        if (quantidade < 1 || !(expoente > 0))
+            throw new IllegalArgumentException("Parâmetros inválidos para a distribuição de Zipf");
+        this.quantidade = quantidade;
+        this.expoente = expoente;
+        this.integralPrimeiro = integralH(1.5) - 1;
+        this.integralTotal = integralH(quantidade + 0.5);
+        this.limiteAceitacao = 2 - inversaIntegralH(integralH(2.5) - h(2));
+    }
+
+    /**
+     * Sorteia uma posição.
+     * @param sorteio Gerador de números aleatórios
+     * @return Posição entre 1 e a quantidade informada no construtor
+     */
+    public int amostrar(SplittableRandom sorteio) {
+        while (true) {
+            double u = integralTotal + sorteio.nextDouble() * (integralPrimeiro - integralTotal);
+            double x = inversaIntegralH(u);
+            int k = (int) (x + 0.5);
+            if (k < 1)
+                k = 1;
+            else if (k > quantidade)
+                k = quantidade;
+            if (k - x <= limiteAceitacao || u >= integralH(k + 0.5) - h(k))
+                return k;
+        }
+    }
+
+    /** @return Quantidade de posições */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** h(x) = 1/x^s */
+    private double h(double x) {
+        return Math.exp(-expoente * Math.log(x));
+    }
+
+    /** Integral de h: (x^(1-s) - 1)/(1-s), ou log(x) quando s = 1 */
+    private double integralH(double x) {
+        double logX = Math.log(x);
+        return expm1SobreX((1 - expoente) * logX) * logX;
+    }
+
+    /** Inversa de {@link #integralH(double)} */
+    private double inversaIntegralH(double x) {
+        double t = x * (1 - expoente);
+        if (t < -1)
+            t = -1;
+        return Math.exp(log1pSobreX(t) * x);
+    }
+
+    /** log(1+x)/x, estável perto de zero */
+    private static double log1pSobreX(double x) {
+        if (Math.abs(x) > 1e-8)
+            return Math.log1p(x) / x;
+        return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /** (e^x - 1)/x, estável perto de zero */
+    private static double expm1SobreX(double x) {
+        if (Math.abs(x) > 1e-8)
+            return Math.expm1(x) / x;
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
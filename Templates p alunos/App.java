@@ -1,36 +1,35 @@
 import java.nio.charset.Charset;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Function;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class App {
 
-	/** Quantidade máxima de produtos que podem ser armazenados no vetor */
-    static final int MAX_NOVOS_PRODUTOS = 10;
-
     /** Nome do arquivo de dados. O arquivo deve estar localizado na raiz do projeto */
     static String nomeArquivoDados;
     
     /** Scanner para leitura de dados do teclado */
     static Scanner teclado;
 
-    /** Vetor de produtos cadastrados */
-    static Produto[] produtosCadastrados;
+    /** Repositório de produtos cadastrados, indexado pela descrição */
+    static RepositorioProdutos produtosCadastrados = new RepositorioProdutos();
 
-    /** Quantidade de produtos cadastrados atualmente no vetor */
-    static int quantosProdutos = 0;
+    /** Diário das inclusões de produtos ainda não salvas no arquivo de dados */
+    static DiarioProdutos diario;
 
-    /** Quantidade máxima de pedidos que podem ser armazenados no vetor */
-    static final int MAX_PEDIDOS = 10;
-    
-    /** Vetor de pedidos cadastrados */
-    static Pedido[] pedidosCadastrados;
-    
-    /** Quantidade de pedidos cadastrados atualmente no vetor */
-    static int quantPedidos = 0;
+    /** Repositório de pedidos cadastrados */
+    static RepositorioPedidos pedidosCadastrados = new RepositorioPedidos();
+
+    /** Capacidade do cache de produtos do modo servidor sob demanda (-Dcomercio.cache.produtos=quantidade) */
+    static final int CAPACIDADE_CACHE_PRODUTOS = Integer.getInteger("comercio.cache.produtos", 10_000);
     
     /** Gera um efeito de pausa na CLI. Espera por um enter para continuar */
     static void pausa() {
@@ -51,74 +50,111 @@ public class App {
         cabecalho();
         System.out.println("1 - Cadastrar novo produto");
         System.out.println("2 - Imprimir dados dos pedidos, por data");
+        System.out.println("3 - Imprimir dados dos pedidos de um período");
+        System.out.println("4 - Fechamento de todos os pedidos");
+        System.out.println("5 - Ligar/desligar métricas de desempenho");
+        System.out.println("6 - Relatório de métricas de desempenho");
         System.out.println("0 - Sair");
         System.out.print("Digite sua opção: ");
         return Integer.parseInt(teclado.nextLine());
     }
     
     /**
-     * Lê os dados de um arquivo-texto e retorna um vetor de produtos. Arquivo-texto no formato
+     * Lê os dados de um arquivo-texto e retorna um repositório de produtos. Arquivo-texto no formato
      * N  (quantidade de produtos) <br/>
      * tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade] <br/>
-     * Deve haver uma linha para cada um dos produtos. Retorna um vetor vazio em caso de problemas com o arquivo.
+     * Deve haver uma linha para cada um dos produtos. O repositório é pré-dimensionado a partir de N e não
+     * tem limite de tamanho. Arquivos grandes são carregados em paralelo.
+     * Retorna null em caso de problemas com o arquivo.
      * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
-     * @return Um vetor com os produtos carregados, ou vazio em caso de problemas de leitura.
+     * @return Um repositório com os produtos carregados, ou null em caso de problemas de leitura.
      */
-    static Produto[] lerProdutos(String nomeArquivoDados) {
+    static RepositorioProdutos lerProdutos(String nomeArquivoDados) {
+    	
+    	long inicio = Metricas.LER_PRODUTOS.iniciar();
+    	if (new File(nomeArquivoDados).length() >= CarregadorParalelo.LIMITE_PARALELO) {
+    		RepositorioProdutos carregados = lerProdutosEmParalelo(nomeArquivoDados);
+    		Metricas.LER_PRODUTOS.registrar(inicio);
+    		return carregados;
+    	}
     	
-    	Scanner arquivo = null;
-    	int numProdutos, i;
-    	String linha;
+    	FonteRegistros arquivo = null;
+    	int numProdutos;
+    	RegistroCsv linha;
     	Produto produto;
-    	Produto[] produtosCadastrados = new Produto[MAX_NOVOS_PRODUTOS];
+    	RepositorioProdutos produtosCadastrados;
     	
     	try {
-    		arquivo = new Scanner(new File(nomeArquivoDados), Charset.forName("UTF-8"));
+    		arquivo = FonteRegistros.abrir(nomeArquivoDados);
     		
-    		numProdutos = Integer.parseInt(arquivo.nextLine());
-    		for (i = 0; (i < numProdutos && i < MAX_NOVOS_PRODUTOS); i++) {
-    			linha = arquivo.nextLine();
-    			produto = Produto.criarDoTexto(linha);
-    			produtosCadastrados[i] = produto;
+    		numProdutos = arquivo.proximo().inteiro(0);
+    		produtosCadastrados = new RepositorioProdutos(numProdutos);
+    		for (int i = 0; i < numProdutos && (linha = arquivo.proximo()) != null; i++) {
+    			produto = Produto.criarDoRegistro(linha);
+    			produtosCadastrados.adicionar(produto);
     		}
-    		quantosProdutos = i;
+    		produtosCadastrados.marcarComoGravados();
     		
     	} catch (IOException excecaoArquivo) {
     		produtosCadastrados = null;
     	} finally {
             if (arquivo != null)
     		arquivo.close();
+            Metricas.LER_PRODUTOS.registrar(inicio);
     	}
     	
     	return produtosCadastrados;
     }
     
     /**
-     * Salva os dados dos produtos cadastrados no arquivo csv informado. Sobrescreve todo o conteúdo do arquivo.
+     * Carrega o arquivo de produtos em paralelo (ver {@link CarregadorParalelo}), preservando a ordem do arquivo.
+     * Com as métricas ligadas, imprime o tempo e a quantidade de linhas de cada bloco.
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @return Um repositório com os produtos carregados, ou null em caso de problemas de leitura.
+     */
+    static RepositorioProdutos lerProdutosEmParalelo(String nomeArquivoDados) {
+    	try {
+    		CarregadorParalelo.Carga<Produto> carga = CarregadorParalelo.carregar(nomeArquivoDados, Produto::criarDoRegistro);
+    		relatarCarga(nomeArquivoDados, carga);
+    		RepositorioProdutos produtosCarregados = new RepositorioProdutos(carga.quantidadeDeclarada());
+    		for (Produto produto : carga.itens()) {
+    			produtosCarregados.adicionar(produto);
+    		}
+    		produtosCarregados.marcarComoGravados();
+    		return produtosCarregados;
+    	} catch (IOException excecaoArquivo) {
+    		return null;
+    	}
+    }
+    
+    /**
+     * Salva os dados dos produtos cadastrados no arquivo csv informado. Se o arquivo já contém os produtos carregados,
+     * apenas os produtos novos são anexados a ele; caso contrário, todo o conteúdo é regravado em um arquivo temporário
+     * que substitui o original ao final (ver {@link GravadorProdutos}). Depois de salvo, o diário de inclusões é descartado.
      * @param nomeArquivo Nome do arquivo a ser gravado.
      */
     public static void salvarProdutos(String nomeArquivo) {
     
-    	FileWriter arquivo = null;
-    	
+    	long inicio = Metricas.SALVAR_PRODUTOS.iniciar();
     	try {
-    		arquivo = new FileWriter((nomeArquivo), Charset.forName("UTF-8"));
-    		
-    		arquivo.append(quantosProdutos + "\n");
-    		
-    		for (int i = 0; i < quantosProdutos; i++) {
-    			arquivo.append(produtosCadastrados[i].gerarDadosTexto() + "\n");
-    		}
-    		arquivo.close();
+    		if (diario != null)
+    			diario.aguardarCompactacao();
+    		GravadorProdutos.salvar(produtosCadastrados, Paths.get(nomeArquivo));
+    		if (diario != null)
+    			diario.descartar();
     		System.out.println("Arquivo " + nomeArquivo + " salvo com sucesso.");
     	} catch (IOException excecao) {
     		System.out.println("Problemas no arquivo " + nomeArquivo + ". Tente novamente");
+    	} finally {
+    		Metricas.SALVAR_PRODUTOS.registrar(inicio);
     	}
     }
     
     /**
      * Rotina para cadastro de um novo produto: pergunta ao usuário o tipo do produto, lê os dados correspondentes,
-     * cria o objeto adequado de acordo com o tipo, inclui o produto no vetor.
+     * cria o objeto adequado de acordo com o tipo, inclui o produto no repositório e o registra no diário.
+     * Produtos já cadastrados (mesma descrição) não são incluídos novamente, mesmo que cadastrados ao mesmo tempo
+     * em outro terminal.
      */
     static void cadastrarProduto() {
     	
@@ -145,83 +181,319 @@ public class App {
         margemLucro = Double.parseDouble(teclado.nextLine());
         if (tipo == 2) {
         	System.out.print("Data de validade no formato dd/mm/yyyy: ");
-        	DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        	dataDeValidade = LocalDate.parse(teclado.nextLine(), formatoData); 	
+        	dataDeValidade = LocalDate.parse(teclado.nextLine(), ConversorCampos.FORMATO_DATA); 	
         	produto = new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataDeValidade);
         } else {
         	produto = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
         }
         
-        produtosCadastrados[quantosProdutos++] = produto;
-        System.out.println(descricao + " cadastrado com sucesso. Total de " + quantosProdutos + " produtos cadastrados no sistema.");
+        if (!produtosCadastrados.adicionarSeAusente(produto)) {
+            System.out.println("Já existe um produto cadastrado com a descrição " + descricao + ".");
+            return;
+        }
+        registrarNoDiario(produto);
+        System.out.println(descricao + " cadastrado com sucesso. Total de " + produtosCadastrados.quantidade() + " produtos cadastrados no sistema.");
     }  
 
     /**
-     * Lê os dados de um arquivo-texto e retorna um vetor de pedidos. Arquivo-texto no formato
+     * Registra um produto recém-cadastrado no diário, compactando-o em segundo plano quando ficar grande.
+     * Em caso de falha o produto continua cadastrado e será gravado ao salvar os produtos.
+     * @param produto Produto cadastrado
+     */
+    static void registrarNoDiario(Produto produto) {
+        if (diario == null)
+            return;
+        try {
+            diario.registrar(produto);
+            diario.compactarSeNecessario(produtosCadastrados);
+        } catch (IOException excecao) {
+            System.out.println("Não foi possível registrar " + produto.descricao + " no diário: " + excecao.getMessage());
+        }
+    }
+
+    /**
+     * Abre o diário do arquivo de produtos e reaplica as inclusões registradas e ainda não salvas.
+     * @param nomeArquivoDados Nome do arquivo de produtos
+     * @return O diário aberto, ou null caso não seja possível abri-lo ou reaplicá-lo (nesse caso o diário fica
+     *         intacto em disco, pois não será descartado ao salvar)
+     */
+    static DiarioProdutos abrirDiario(String nomeArquivoDados) {
+        try {
+            DiarioProdutos diarioAberto = new DiarioProdutos(Paths.get(nomeArquivoDados));
+            int recuperados;
+            try {
+                recuperados = diarioAberto.reaplicar(produtosCadastrados);
+            } catch (IOException excecao) {
+                diarioAberto.close();
+                throw excecao;
+            }
+            if (recuperados > 0)
+                System.out.println(recuperados + " produtos recuperados do diário.");
+            if (diarioAberto.linhasIgnoradas() > 0)
+                System.out.println(diarioAberto.linhasIgnoradas() + " linhas incompletas descartadas do diário.");
+            return diarioAberto;
+        } catch (IOException excecao) {
+            System.out.println("Diário de produtos indisponível: " + excecao.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lê os dados de um arquivo-texto e retorna um repositório de pedidos. Arquivo-texto no formato
      * N  (quantidade de pedidos) <br/>
      * dataDoPedido;formaDePagamento;descrições dos produtos do pedido <br/>
-     * Deve haver uma linha para cada um dos pedidos. Retorna um vetor vazio em caso de problemas com o arquivo.
+     * Deve haver uma linha para cada um dos pedidos. O repositório é pré-dimensionado a partir de N e não
+     * tem limite de tamanho. Arquivos grandes são carregados em paralelo.
+     * Retorna null em caso de problemas com o arquivo.
      * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
-     * @return Um vetor com os pedidos carregados, ou vazio em caso de problemas de leitura.
+     * @return Um repositório com os pedidos carregados, ou null em caso de problemas de leitura.
      */
-    static Pedido[] lerPedidos(String nomeArquivoDados) {
-        Scanner arquivo = null;
-        int numPedidos, i;
-        String linha;
+    static RepositorioPedidos lerPedidos(String nomeArquivoDados) {
+        long inicio = Metricas.LER_PEDIDOS.iniciar();
+        if (new File(nomeArquivoDados).length() >= CarregadorParalelo.LIMITE_PARALELO) {
+            RepositorioPedidos carregados = lerPedidosEmParalelo(nomeArquivoDados);
+            Metricas.LER_PEDIDOS.registrar(inicio);
+            return carregados;
+        }
+        
+        FonteRegistros arquivo = null;
+        int numPedidos;
+        RegistroCsv linha;
         Pedido pedido;
-        Pedido[] pedidosCadastrados = new Pedido[MAX_PEDIDOS];
+        RepositorioPedidos pedidosCadastrados;
         
         try {
-            arquivo = new Scanner(new File(nomeArquivoDados), Charset.forName("UTF-8"));
+            arquivo = FonteRegistros.abrir(nomeArquivoDados);
             
-            numPedidos = Integer.parseInt(arquivo.nextLine());
-            for (i = 0; (i < numPedidos && i < MAX_PEDIDOS); i++) {
-                linha = arquivo.nextLine();
-                pedido = Pedido.criarDoTexto(linha);
-                pedidosCadastrados[i] = pedido;
+            numPedidos = arquivo.proximo().inteiro(0);
+            pedidosCadastrados = new RepositorioPedidos(numPedidos);
+            for (int i = 0; i < numPedidos && (linha = arquivo.proximo()) != null; i++) {
+                pedido = Pedido.criarDoRegistro(linha);
+                pedidosCadastrados.adicionar(pedido);
             }
-            quantPedidos = i;
             
         } catch (IOException excecaoArquivo) {
             pedidosCadastrados = null;
         } finally {
             if (arquivo != null)
                 arquivo.close();
+            Metricas.LER_PEDIDOS.registrar(inicio);
         }
         
         return pedidosCadastrados;
     }
     
-    /** Localiza pedidos no vetor de pedidos cadastrados, a partir da data do pedido informada pelo usuário,
+    /**
+     * Carrega o arquivo de pedidos em paralelo (ver {@link CarregadorParalelo}), preservando a ordem do arquivo.
+     * Os produtos devem ter sido carregados antes, pois cada pedido é resolvido contra o cadastro. Com as métricas
+     * ligadas, imprime o tempo e a quantidade de linhas de cada bloco.
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @return Um repositório com os pedidos carregados, ou null em caso de problemas de leitura.
+     */
+    static RepositorioPedidos lerPedidosEmParalelo(String nomeArquivoDados) {
+        try {
+            CarregadorParalelo.Carga<Pedido> carga = CarregadorParalelo.carregar(nomeArquivoDados, Pedido::criarDoRegistro);
+            relatarCarga(nomeArquivoDados, carga);
+            RepositorioPedidos pedidosCarregados = new RepositorioPedidos(carga.quantidadeDeclarada());
+            for (Pedido pedido : carga.itens()) {
+                pedidosCarregados.adicionar(pedido);
+            }
+            return pedidosCarregados;
+        } catch (IOException excecaoArquivo) {
+            return null;
+        }
+    }
+    
+    /**
+     * Imprime o relatório por bloco de uma carga em paralelo (ver {@link CarregadorParalelo.Carga#toString()}), se as
+     * métricas estiverem ligadas.
+     * @param nomeArquivoDados Nome do arquivo carregado
+     * @param carga Resultado da carga
+     */
+    private static void relatarCarga(String nomeArquivoDados, CarregadorParalelo.Carga<?> carga) {
+        if (Metricas.ativas())
+            System.out.print("Carga em paralelo de " + nomeArquivoDados + " (" + carga.quantidadeBlocos() + " blocos):\n" + carga);
+    }
+
+    /**
+     * Carrega produtos e pedidos. Se o snapshot binário (ver {@link SnapshotBinario}) for mais recente que os arquivos
+     * de texto, os dados são carregados dele; caso contrário, são lidos dos arquivos de texto e o snapshot é regravado
+     * para acelerar a próxima carga.
+     * @param nomeArquivoProdutos Nome do arquivo de produtos
+     * @param nomeArquivoPedidos Nome do arquivo de pedidos
+     */
+    static void carregarDados(String nomeArquivoProdutos, String nomeArquivoPedidos) {
+        Path arquivoProdutos = Paths.get(nomeArquivoProdutos);
+        Path snapshot = SnapshotBinario.caminhoPara(arquivoProdutos);
+        try {
+            if (SnapshotBinario.atualizado(snapshot, arquivoProdutos, Paths.get(nomeArquivoPedidos))) {
+                SnapshotBinario.Conteudo conteudo = SnapshotBinario.ler(snapshot);
+                produtosCadastrados = conteudo.produtos();
+                pedidosCadastrados = conteudo.pedidos();
+                return;
+            }
+        } catch (IOException excecao) {
+            System.out.println("Snapshot " + snapshot + " inválido; carregando os arquivos de texto.");
+        }
+        produtosCadastrados = lerProdutos(nomeArquivoProdutos);
+        pedidosCadastrados = lerPedidos(nomeArquivoPedidos);
+        if (produtosCadastrados != null && pedidosCadastrados != null) {
+            try {
+                SnapshotBinario.gravar(produtosCadastrados, pedidosCadastrados, snapshot);
+            } catch (IOException excecao) {
+                System.out.println("Não foi possível gravar o snapshot " + snapshot + ": " + excecao.getMessage());
+            }
+        }
+    }
+
+    /** Localiza pedidos no índice por data dos pedidos cadastrados, a partir da data do pedido informada pelo usuário,
      *  e imprime seus dados.
      *  Em caso de não encontrar nenhum pedido, imprime uma mensagem padrão */
     static void localizarPedidosPorData() {
         LocalDate data;
         System.out.print("Digite a data do pedido (dd/mm/yyyy): ");
-        DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        data = LocalDate.parse(teclado.nextLine(), formatoData);
-        for (int i = 0; i < quantPedidos; i++) {
-            if (pedidosCadastrados[i].getDataPedido().equals(data)) {
-                System.out.println(pedidosCadastrados[i].toString());
-            }
+        data = LocalDate.parse(teclado.nextLine(), ConversorCampos.FORMATO_DATA);
+        imprimirPedidos(pedidosCadastrados.porData().doDia(data));
+    }
+
+    /** Localiza os pedidos de um período (data inicial e final informadas pelo usuário, inclusive) e imprime seus dados,
+     *  em ordem de data. Em caso de não encontrar nenhum pedido, imprime uma mensagem padrão */
+    static void localizarPedidosPorPeriodo() {
+        LocalDate inicio, fim;
+        System.out.print("Digite a data inicial (dd/mm/yyyy): ");
+        inicio = LocalDate.parse(teclado.nextLine(), ConversorCampos.FORMATO_DATA);
+        System.out.print("Digite a data final (dd/mm/yyyy): ");
+        fim = LocalDate.parse(teclado.nextLine(), ConversorCampos.FORMATO_DATA);
+        imprimirPedidos(pedidosCadastrados.porData().entre(inicio, fim));
+    }
+
+    /** Calcula o fechamento de todos os pedidos cadastrados (ver {@link FechamentoPedidos}) e imprime os totais gerais,
+     *  por forma de pagamento, por dia e os produtos de maior receita */
+    static void imprimirFechamento() {
+        FechamentoPedidos.Fechamento fechamento = FechamentoPedidos.calcular(produtosCadastrados, pedidosCadastrados);
+        System.out.println(fechamento);
+        System.out.println("Receita por dia:");
+        for (Map.Entry<LocalDate, Double> dia : fechamento.receitaPorDia().entrySet()) {
+            System.out.println(String.format("  %s: R$ %.2f", dia.getKey().format(ConversorCampos.FORMATO_DATA), dia.getValue()));
+        }
+        System.out.println("Produtos de maior receita:");
+        for (Produto produto : fechamento.maisVendidos(10)) {
+            System.out.println(String.format("  %s: %d unidades, R$ %.2f", produto.descricao,
+                    fechamento.quantidadeVendida(produto), fechamento.receitaDoProduto(produto)));
         }
     }
 
-    static Produto localizarProdutoPorNome(String nome) {
-        for (int i = 0; i < produtosCadastrados.length; i++) {
-            if (produtosCadastrados[i] != null && produtosCadastrados[i].toString().contains(nome)) {
-                return produtosCadastrados[i];
-            }
+    /** Liga ou desliga as métricas de desempenho (ver {@link Metricas}) e informa o novo estado */
+    static void alternarMetricas() {
+        Metricas.ativar(!Metricas.ativas());
+        System.out.println("Métricas " + (Metricas.ativas() ? "ligadas." : "desligadas."));
+    }
+
+    /** Imprime os dados dos pedidos informados, ou uma mensagem padrão caso não haja nenhum */
+    static void imprimirPedidos(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) {
+            System.out.println("Nenhum pedido encontrado.");
+            return;
+        }
+        SaidaTexto saida = new SaidaTexto(System.out);
+        for (Pedido pedido : pedidos) {
+            pedido.anexarTexto(saida.linha());
+            saida.fimDaLinha();
         }
-        return null;
+        saida.descarregar();
+    }
+
+    /**
+     * Localiza um produto cadastrado a partir de sua descrição exata, sem diferenciar maiúsculas e minúsculas.
+     * A busca é feita no catálogo indexado, em tempo constante.
+     * @param nome Descrição do produto
+     * @return O produto com a descrição informada, ou null caso não exista
+     */
+    static Produto localizarProdutoPorNome(String nome) {
+        long inicio = Metricas.LOCALIZAR_PRODUTO.iniciar();
+        Produto produto = produtosCadastrados.localizar(nome);
+        Metricas.LOCALIZAR_PRODUTO.registrar(inicio);
+        return produto;
     }
     
+    /**
+     * Modo servidor: atende pedidos pela rede (ver {@link ServidorPedidos}), com os preços do catálogo carregado,
+     * até o processo ser encerrado.
+     * @param endereco Endereço local de escuta (ver {@link ServidorPedidos})
+     * @param porta Porta TCP do servidor
+     */
+    static void executarServidor(InetAddress endereco, int porta) {
+        executarServidor(endereco, porta, App::localizarProdutoPorNome, produtosCadastrados.quantidade());
+    }
+
+    /**
+     * Modo servidor com o arquivo de produtos aberto sob demanda (ver {@link ArquivoSobDemanda}): o servidor começa a
+     * atender sem carregar o catálogo, e cada produto é convertido quando aparece pela primeira vez em um pedido.
+     * As descrições dos pedidos passam antes por um {@link CacheResolucao}, que atende os produtos mais vendidos sem
+     * consultar o índice do arquivo.
+     * @param nomeArquivoProdutos Nome do arquivo de produtos
+     * @param endereco Endereço local de escuta (ver {@link ServidorPedidos})
+     * @param porta Porta TCP do servidor
+     */
+    static void executarServidorSobDemanda(String nomeArquivoProdutos, InetAddress endereco, int porta) {
+        ArquivoSobDemanda<Produto> produtos;
+        try {
+            produtos = ArquivoSobDemanda.produtos(nomeArquivoProdutos);
+        } catch (IOException excecao) {
+            System.out.println("Não foi possível abrir o arquivo de produtos: " + excecao.getMessage());
+            return;
+        }
+        CacheResolucao cache = new CacheResolucao(produtos::localizar, CAPACIDADE_CACHE_PRODUTOS);
+        executarServidor(endereco, porta, cache, produtos.quantidade());
+        System.out.println("Cache de produtos: " + cache);
+    }
+
+    private static void executarServidor(InetAddress endereco, int porta, Function<String, Produto> localizador, int quantidadeProdutos) {
+        try (ServidorPedidos servidor = new ServidorPedidos(endereco, porta, localizador)) {
+            servidor.iniciar();
+            System.out.println("Recebendo pedidos em " + endereco.getHostAddress() + ", porta " + servidor.porta()
+                    + " (" + quantidadeProdutos + " produtos).");
+            servidor.aguardar();
+        } catch (IOException excecao) {
+            System.out.println("Não foi possível abrir a porta " + porta + ": " + excecao.getMessage());
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+	/**
+	 * Executa o menu da aplicação. Com o argumento "--servidor [porta]", carrega os dados e atende pedidos pela rede
+	 * em vez de abrir o menu; acrescentando "--sob-demanda", o arquivo de produtos é aberto sem ser carregado e cada
+	 * produto é convertido no primeiro pedido que o usa. O servidor só aceita conexões do próprio computador, a menos
+	 * que outro endereço de escuta seja informado com "--endereco endereço" (ex.: "--endereco 0.0.0.0").
+	 */
 	public static void main(String[] args) {
 		teclado = new Scanner(System.in, Charset.forName("UTF-8"));
         nomeArquivoDados = "Templates p alunos/dadosProdutos.csv";
-        produtosCadastrados = lerProdutos(nomeArquivoDados);
         String nomeArquivoPedidos = "Templates p alunos/dadosPedidos.csv";
-        pedidosCadastrados = lerPedidos(nomeArquivoPedidos);
+        Metricas.registrarJmx();
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            int porta = args.length > 1 && !args[1].startsWith("--") ? Integer.parseInt(args[1]) : ServidorPedidos.PORTA_PADRAO;
+            InetAddress endereco = InetAddress.getLoopbackAddress();
+            int opcaoEndereco = List.of(args).indexOf("--endereco");
+            if (opcaoEndereco >= 0) {
+                try {
+                    endereco = InetAddress.getByName(args[opcaoEndereco + 1]);
+                } catch (UnknownHostException | ArrayIndexOutOfBoundsException excecao) {
+                    System.out.println("Endereço de escuta inválido: informe \"--endereco endereço\".");
+                    return;
+                }
+            }
+            if (List.of(args).contains("--sob-demanda")) {
+                executarServidorSobDemanda(nomeArquivoDados, endereco, porta);
+            } else {
+                carregarDados(nomeArquivoDados, nomeArquivoPedidos);
+                executarServidor(endereco, porta);
+            }
+            return;
+        }
+        carregarDados(nomeArquivoDados, nomeArquivoPedidos);
+        diario = abrirDiario(nomeArquivoDados);
         
         int opcao = -1;
       
@@ -230,11 +502,22 @@ public class App {
             switch (opcao) {
                 case 1 -> cadastrarProduto();
                 case 2 -> localizarPedidosPorData();
+                case 3 -> localizarPedidosPorPeriodo();
+                case 4 -> imprimirFechamento();
+                case 5 -> alternarMetricas();
+                case 6 -> System.out.print(Metricas.relatorio());
             }
             pausa();
         }while(opcao != 0);       
 
         salvarProdutos(nomeArquivoDados);
+        if (diario != null) {
+            try {
+                diario.close();
+            } catch (IOException excecao) {
+                System.out.println("Problemas ao fechar o diário de produtos: " + excecao.getMessage());
+            }
+        }
         teclado.close();    
     }
 }
\ No newline at end of file
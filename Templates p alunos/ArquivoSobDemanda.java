@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Arquivo de dados (produtos ou pedidos, no formato de App.lerProdutos e App.lerPedidos) carregado sob demanda.
+ * A abertura apenas mapeia o arquivo em memória e localiza o início de cada linha; cada item é convertido (com
+ * {@link Produto#criarDoRegistro(RegistroCsv)}, {@link Pedido#criarDoRegistro(RegistroCsv, Function)} ou outro
+ * conversor) na primeira vez em que é acessado, e guardado para os acessos seguintes. Uma sessão que consulta poucos
+ * itens de um arquivo grande não paga a conversão dos demais.
+ * <p>
+ * A localização por descrição ({@link #localizar(String)}) usa um índice com o hash da descrição normalizada de cada
+ * linha, montado na primeira busca diretamente sobre os bytes do arquivo, sem converter os itens; apenas as linhas
+ * candidatas são comparadas e o item encontrado é convertido. Com descrições repetidas, vale a primeira linha, como
+ * no catálogo.
+ * <p>
+ * Os acessos podem ser feitos por várias threads: uma linha convertida ao mesmo tempo por duas threads resulta em um
+ * único item guardado, devolvido a ambas. O arquivo não deve ser alterado enquanto estiver aberto.
+ * @param <T> Tipo dos itens do arquivo
+ */
+public class ArquivoSobDemanda<T> implements Iterable<T> {
+
+    /** Janelas mapeadas do arquivo, cada uma iniciada no começo de uma linha */
+    private final MappedByteBuffer[] janelas;
+
+    /** Visão de cada janela como CharSequence */
+    private final VisaoBytes[] visoes;
+
+    /** Posição, no arquivo, do início de cada janela */
+    private final long[] iniciosJanelas;
+
+    /** Posição, no arquivo, do início de cada linha de dados (sem o cabeçalho) */
+    private final long[] iniciosLinhas;
+
+    /** Quantidade de itens: a do cabeçalho, limitada às linhas existentes */
+    private final int quantidade;
+
+    /** Conversão de uma linha no item */
+    private final Function<RegistroCsv, T> conversor;
+
+    /** Campo com a descrição usada na localização, ou -1 se o arquivo não permite localização */
+    private final int campoChave;
+
+    /** Itens já convertidos */
+    private final AtomicReferenceArray<T> itens;
+    private final AtomicInteger convertidos = new AtomicInteger();
+
+    /** Índice de localização: cada posição guarda linha + 1 (0 = vazia). Montado na primeira busca */
+    private volatile int[] indice;
+
+    /** Hash da descrição normalizada de cada linha, calculado junto com o índice */
+    private int[] hashes;
+
+    /**
+     * Abre um arquivo de produtos sob demanda. Os produtos são localizados pela descrição.
+     * @param nomeArquivo Nome do arquivo de produtos
+     * @return O arquivo aberto
+     * @throws IOException caso o arquivo não possa ser aberto ou mapeado
+     */
+    public static ArquivoSobDemanda<Produto> produtos(String nomeArquivo) throws IOException {
+        return new ArquivoSobDemanda<>(Paths.get(nomeArquivo), Produto::criarDoRegistro, 1, LeitorMapeado.JANELA_PADRAO);
+    }
+
+    /**
+     * Abre um arquivo de pedidos sob demanda. Os produtos de cada pedido são localizados quando o pedido é convertido.
+     * @param nomeArquivo Nome do arquivo de pedidos
+     * @param localizador Função que localiza um produto a partir de sua descrição (ex.: localizar de um arquivo de
+     * produtos sob demanda)
+     * @return O arquivo aberto
+     * @throws IOException caso o arquivo não possa ser aberto ou mapeado
+     */
+    public static ArquivoSobDemanda<Pedido> pedidos(String nomeArquivo, Function<String, Produto> localizador)
+            throws IOException {
+        return new ArquivoSobDemanda<>(Paths.get(nomeArquivo), registro -> Pedido.criarDoRegistro(registro, localizador),
+                -1, LeitorMapeado.JANELA_PADRAO);
+    }
+
+    /**
+     * Mapeia o arquivo e localiza as linhas.
+     * @param arquivo Caminho do arquivo
+     * @param conversor Conversão de uma linha no item
+     * @param campoChave Campo com a descrição usada na localização, ou -1
+     * @param tamanhoJanela Tamanho da janela de mapeamento, em bytes. Cresce caso uma linha não caiba nela
+     * @throws IOException caso o arquivo não possa ser aberto ou mapeado
+     */
+    ArquivoSobDemanda(Path arquivo, Function<RegistroCsv, T> conversor, int campoChave, int tamanhoJanela)
+            throws IOException {
+        this.conversor = conversor;
+        this.campoChave = campoChave;
+        MappedByteBuffer[] mapeadas = new MappedByteBuffer[1];
+        long[] inicios = new long[1];
+        int quantidadeJanelas = 0;
+        long[] linhas = new long[1024];
+        int quantidadeLinhas = 0;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            long posicao = 0;
+            while (posicao < tamanhoArquivo) {
+                long tamanho = Math.min(tamanhoJanela, tamanhoArquivo - posicao);
+                MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho);
+                boolean ultima = posicao + tamanho >= tamanhoArquivo;
+                int limite = janela.limit();
+                int inicioLinha = 0;
+                int linhasAntes = quantidadeLinhas;
+                for (int i = 0; i < limite; i++) {
+                    if (janela.get(i) == '\n') {
+                        if (quantidadeLinhas == linhas.length)
+                            linhas = Arrays.copyOf(linhas, linhas.length * 2);
+                        linhas[quantidadeLinhas++] = posicao + inicioLinha;
+                        inicioLinha = i + 1;
+                    }
+                }
+                if (ultima && inicioLinha < limite) {
+                    if (quantidadeLinhas == linhas.length)
+                        linhas = Arrays.copyOf(linhas, linhas.length + 1);
+                    linhas[quantidadeLinhas++] = posicao + inicioLinha;
+                    inicioLinha = limite;
+                }
+                if (!ultima && inicioLinha == 0) {
+                    // a linha não cabe na janela: mapeia de novo com uma janela maior
+                    quantidadeLinhas = linhasAntes;
+                    tamanhoJanela = (int) Math.min(Integer.MAX_VALUE - 8, (long) tamanhoJanela * 2);
+                    continue;
+                }
+                if (quantidadeJanelas == mapeadas.length) {
+                    mapeadas = Arrays.copyOf(mapeadas, quantidadeJanelas * 2);
+                    inicios = Arrays.copyOf(inicios, quantidadeJanelas * 2);
+                }
+                mapeadas[quantidadeJanelas] = janela;
+                inicios[quantidadeJanelas++] = posicao;
+                posicao += inicioLinha;
+            }
+        }
+        janelas = Arrays.copyOf(mapeadas, quantidadeJanelas);
+        iniciosJanelas = Arrays.copyOf(inicios, quantidadeJanelas);
+        visoes = new VisaoBytes[quantidadeJanelas];
+        for (int i = 0; i < quantidadeJanelas; i++) {
+            visoes[i] = new VisaoBytes(janelas[i]);
+        }
+        if (quantidadeLinhas == 0) {
+            iniciosLinhas = new long[0];
+            quantidade = 0;
+        } else {
+            int declarada = registro(linhas[0]).inteiro(0);
+            quantidade = Math.max(0, Math.min(declarada, quantidadeLinhas - 1));
+            iniciosLinhas = Arrays.copyOfRange(linhas, 1, 1 + quantidade);
+        }
+        itens = new AtomicReferenceArray<>(quantidade);
+    }
+
+    /** Registro com os campos da linha iniciada na posição informada do arquivo */
+    private RegistroCsv registro(long inicioLinha) {
+        return separar(new RegistroCsv(), inicioLinha);
+    }
+
+    /** Preenche o registro com os campos da linha iniciada na posição informada do arquivo */
+    private RegistroCsv separar(RegistroCsv registro, long inicioLinha) {
+        int janela = Arrays.binarySearch(iniciosJanelas, inicioLinha);
+        if (janela < 0)
+            janela = -janela - 2;
+        MappedByteBuffer bytes = janelas[janela];
+        int inicio = (int) (inicioLinha - iniciosJanelas[janela]);
+        int fim = inicio;
+        while (fim < bytes.limit() && bytes.get(fim) != '\n')
+            fim++;
+        if (fim > inicio && bytes.get(fim - 1) == '\r')
+            fim--;
+        registro.separar(visoes[janela], inicio, fim);
+        return registro;
+    }
+
+    /**
+     * Retorna o item na posição informada, convertendo-o no primeiro acesso.
+     * @param posicao Posição do item, de 0 a quantidade()-1 (ordem do arquivo)
+     * @return O item na posição
+     * @throws IndexOutOfBoundsException caso a posição seja inválida
+     */
+    public T get(int posicao) {
+        if (posicao < 0 || posicao >= quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        T item = itens.get(posicao);
+        if (item != null)
+            return item;
+        T convertido = conversor.apply(registro(iniciosLinhas[posicao]));
+        if (itens.compareAndSet(posicao, null, convertido)) {
+            convertidos.incrementAndGet();
+            return convertido;
+        }
+        return itens.get(posicao);
+    }
+
+    /**
+     * Localiza um item pela descrição exata, sem diferenciar maiúsculas e minúsculas (mesmo critério de
+     * Produto.equals). A primeira busca monta o índice das descrições.
+     * @param descricao Descrição procurada
+     * @return O item da primeira linha com a descrição, ou null se não houver
+     * @throws UnsupportedOperationException caso o arquivo não tenha campo de descrição para localização
+     */
+    public T localizar(String descricao) {
+        if (campoChave < 0)
+            throw new UnsupportedOperationException("Arquivo sem campo de descrição para localização");
+        int[] tabela = indice;
+        if (tabela == null)
+            tabela = montarIndice();
+        String chave = Produto.normalizarDescricao(descricao);
+        int hash = chave.hashCode();
+        int mascara = tabela.length - 1;
+        for (int posicao = espalhar(hash) & mascara; ; posicao = (posicao + 1) & mascara) {
+            int ocupante = tabela[posicao];
+            if (ocupante == 0)
+                return null;
+            int linha = ocupante - 1;
+            if (hashes[linha] == hash
+                    && Produto.normalizarDescricao(registro(iniciosLinhas[linha]).texto(campoChave)).equals(chave))
+                return get(linha);
+        }
+    }
+
+    /** Monta o índice das descrições, uma única vez */
+    private synchronized int[] montarIndice() {
+        if (indice != null)
+            return indice;
+        int capacidade = Integer.highestOneBit(Math.max(2, quantidade) * 2 - 1) * 2;
+        int[] tabela = new int[capacidade];
+        int[] hashesLinhas = new int[quantidade];
+        int mascara = capacidade - 1;
+        RegistroCsv registro = new RegistroCsv();
+        for (int linha = 0; linha < quantidade; linha++) {
+            separar(registro, iniciosLinhas[linha]);
+            if (registro.quantidadeCampos() <= campoChave)
+                continue;
+            int hash = registro.hashDescricao(campoChave);
+            hashesLinhas[linha] = hash;
+            int posicao = espalhar(hash) & mascara;
+            while (tabela[posicao] != 0)
+                posicao = (posicao + 1) & mascara;
+            tabela[posicao] = linha + 1;
+        }
+        hashes = hashesLinhas;
+        indice = tabela; // publicado depois dos hashes
+        return tabela;
+    }
+
+    /** Mistura os bits altos do hash nos baixos, usados para escolher a posição */
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /** @return Quantidade de itens do arquivo */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** @return Quantidade de itens já convertidos */
+    public int convertidos() {
+        return convertidos.get();
+    }
+
+    /** Percorre os itens na ordem do arquivo, convertendo os que ainda não foram acessados */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int atual = 0;
+
+            @Override
+            public boolean hasNext() {
+                return atual < quantidade;
+            }
+
+            @Override
+            public T next() {
+                if (atual >= quantidade)
+                    throw new NoSuchElementException();
+                return get(atual++);
+            }
+        };
+    }
+}
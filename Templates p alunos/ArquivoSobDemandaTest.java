@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArquivoSobDemandaTest {
+
+    @TempDir
+    Path pasta;
+
+    static final String[] PRODUTOS = {
+        "1;Lapis;1.30;0.50",
+        "2;Chips de Banana;3.50;0.25;15/09/2099",
+        "1;Caderno com uma descrição bem mais longa que a janela de mapeamento usada no teste;12.00;0.40",
+        "1;Açúcar Refinado;4.20;0.30",
+        "1;LAPIS;9.99;0.10",
+        "1;Guardanapos;2.20;0.25",
+        "1;Chá Verde™ Σοφία;3.00;0.20",
+    };
+
+    Path gravar(String nome, String conteudo) throws IOException {
+        Path arquivo = pasta.resolve(nome);
+        Files.write(arquivo, conteudo.getBytes(StandardCharsets.UTF_8));
+        return arquivo;
+    }
+
+    ArquivoSobDemanda<Produto> abrirProdutos() throws IOException {
+        String conteudo = PRODUTOS.length + "\r\n" + String.join("\r\n", PRODUTOS);
+        return new ArquivoSobDemanda<>(gravar("produtos.csv", conteudo), Produto::criarDoRegistro, 1, 64);
+    }
+
+    @Test
+    public void converteApenasOsItensAcessados() throws IOException {
+        ArquivoSobDemanda<Produto> produtos = abrirProdutos();
+        assertEquals(PRODUTOS.length, produtos.quantidade());
+        assertEquals(0, produtos.convertidos());
+
+        Produto caderno = produtos.get(2);
+        assertEquals(Produto.criarDoTexto(PRODUTOS[2]).toString(), caderno.toString());
+        assertSame(caderno, produtos.get(2));
+        assertEquals(1, produtos.convertidos());
+
+        int i = 0;
+        for (Produto produto : produtos) {
+            assertEquals(Produto.criarDoTexto(PRODUTOS[i++]).toString(), produto.toString());
+        }
+        assertEquals(PRODUTOS.length, produtos.convertidos());
+    }
+
+    @Test
+    public void localizaPelaDescricaoSemConverterOsDemais() throws IOException {
+        ArquivoSobDemanda<Produto> produtos = abrirProdutos();
+        Produto acucar = produtos.localizar("açúcar refinado");
+        assertEquals("Açúcar Refinado", acucar.descricao);
+        assertSame(acucar, produtos.get(3));
+        assertEquals(1, produtos.convertidos());
+
+        assertSame(produtos.get(0), produtos.localizar("lapis"));
+        assertEquals(1.30, produtos.localizar("Lapis").precoCusto, 1e-9);
+        assertNull(produtos.localizar("Borracha"));
+        assertEquals("Chá Verde™ Σοφία", produtos.localizar("CHÁ VERDE™ ΣΟΦΊΑ").descricao);
+        assertEquals(3, produtos.convertidos());
+    }
+
+    @Test
+    public void pedidosResolvemProdutosDoArquivoSobDemanda() throws IOException {
+        ArquivoSobDemanda<Produto> produtos = abrirProdutos();
+        Path arquivoPedidos = gravar("pedidos.csv", "3\n22/08/2025;1;Guardanapos;lapis\n24/08/2025;2;Borracha\n"
+                + "25/08/2025;2;CHIPS DE BANANA\n");
+        ArquivoSobDemanda<Pedido> pedidos = ArquivoSobDemanda.pedidos(arquivoPedidos.toString(), produtos::localizar);
+        assertEquals(3, pedidos.quantidade());
+
+        Pedido primeiro = pedidos.get(0);
+        assertEquals(2, primeiro.getQuantProdutos());
+        assertSame(produtos.get(5), primeiro.getProduto(0));
+        assertSame(produtos.get(0), primeiro.getProduto(1));
+        assertEquals(0, pedidos.get(1).getQuantProdutos());
+        assertEquals(2, pedidos.convertidos());
+        assertEquals(2, produtos.convertidos());
+    }
+
+    @Test
+    public void cabecalhoLimitaAQuantidadeDeItens() throws IOException {
+        Path arquivo = gravar("parcial.csv", "2\n1;Lapis;1.30;0.50\n1;Caneta;2.00;0.50\n1;Borracha;1.00;0.50\n\n");
+        ArquivoSobDemanda<Produto> produtos = ArquivoSobDemanda.produtos(arquivo.toString());
+        assertEquals(2, produtos.quantidade());
+        assertNull(produtos.localizar("Borracha"));
+        assertEquals(0, ArquivoSobDemanda.produtos(gravar("vazio.csv", "").toString()).quantidade());
+    }
+}
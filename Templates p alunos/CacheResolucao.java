@@ -0,0 +1,334 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Cache de tamanho limitado para a localização de produtos pela descrição, colocado na frente de qualquer localizador
+ * (ex.: {@link CatalogoForaDoHeap#localizar(String)} ou {@link ArquivoSobDemanda#localizar(String)}, que convertem o
+ * produto a cada consulta). Os arquivos de pedidos são muito concentrados em poucos produtos, de modo que quase todas
+ * as consultas são atendidas pelo cache e o localizador de origem só é chamado para os demais.
+ * <p>
+ * Duas políticas de substituição:
+ * <ul>
+ * <li>{@link Politica#LRU}: descarta o item usado há mais tempo;</li>
+ * <li>{@link Politica#W_TINY_LFU}: os itens novos entram em uma janela LRU pequena (1% da capacidade); ao sair da
+ * janela, um item só entra na área principal (LRU segmentada: período de experiência e protegidos) se a sua frequência
+ * estimada for maior que a do item que descartaria. As frequências são estimadas por um esboço count-min de contadores
+ * de 4 bits, reduzidos à metade periodicamente, de modo que itens consultados uma única vez (ou que deixaram de ser
+ * vendidos) não expulsam os mais vendidos.</li>
+ * </ul>
+ * As consultas sem resultado também são guardadas (cache negativo): enquanto a entrada estiver no cache, a descrição
+ * continua sem produto, mesmo que ele passe a existir na origem. Se a origem puder ganhar produtos, quem os inclui deve
+ * chamar {@link #invalidar(String)} (ou {@link #limpar()}). A chave é a descrição como recebida: variações de
+ * maiúsculas e minúsculas ocupam entradas próprias, mas levam ao mesmo produto.
+ * <p>
+ * O cache pode ser usado por várias threads. As consultas e atualizações são serializadas por um bloqueio curto; a
+ * chamada ao localizador de origem, nas faltas, é feita fora dele.
+ */
+public class CacheResolucao implements Function<String, Produto> {
+
+    /** Política de substituição do cache */
+    public enum Politica { LRU, W_TINY_LFU }
+
+    /** Segmentos onde uma entrada pode estar */
+    private static final int JANELA = 0, EXPERIENCIA = 1, PROTEGIDO = 2;
+
+    /** Fração da capacidade usada pela janela do W-TinyLFU, e da área principal usada pelos protegidos */
+    private static final double FRACAO_JANELA = 0.01, FRACAO_PROTEGIDO = 0.8;
+
+    /** Resultado guardado para descrições sem produto */
+    private static final Object AUSENTE = new Object();
+
+    /** Entrada do cache, em uma lista duplamente encadeada do seu segmento (cabeça = usada mais recentemente) */
+    private static final class Entrada {
+        final String chave;
+        final Object valor;
+        int segmento;
+        Entrada anterior, proxima;
+
+        Entrada(String chave, Object valor) {
+            this.chave = chave;
+            this.valor = valor;
+        }
+    }
+
+    /** Lista de um segmento, com sentinela */
+    private static final class Lista {
+        final Entrada sentinela = new Entrada(null, null);
+        int tamanho;
+
+        Lista() {
+            sentinela.anterior = sentinela.proxima = sentinela;
+        }
+
+        void incluirNoInicio(Entrada entrada) {
+            entrada.proxima = sentinela.proxima;
+            entrada.anterior = sentinela;
+            sentinela.proxima.anterior = entrada;
+            sentinela.proxima = entrada;
+            tamanho++;
+        }
+
+        void remover(Entrada entrada) {
+            entrada.anterior.proxima = entrada.proxima;
+            entrada.proxima.anterior = entrada.anterior;
+            entrada.anterior = entrada.proxima = null;
+            tamanho--;
+        }
+
+        /** @return A entrada usada há mais tempo, ou null se a lista estiver vazia */
+        Entrada ultima() {
+            return tamanho == 0 ? null : sentinela.anterior;
+        }
+    }
+
+    /**
+     * Esboço count-min das frequências: cada long guarda 16 contadores de 4 bits, e cada chave incrementa um contador
+     * em quatro posições. A estimativa é o menor dos quatro. Depois de 10 amostras por posição do cache, todos os
+     * contadores são reduzidos à metade.
+     */
+    private static final class Frequencias {
+        private static final long[] SEMENTES = { 0x97CB3127L, 0xB492B66FL, 0x9AE16A3BL, 0xCBF29CE4L };
+        private static final long METADE = 0x7777_7777_7777_7777L;
+
+        private final long[] contadores;
+        private final int mascara;
+        private final int limiteAmostras;
+        private int amostras;
+
+        Frequencias(int capacidade) {
+            int tamanho = Integer.highestOneBit(Math.max(2, capacidade) * 2 - 1);
+            contadores = new long[tamanho];
+            mascara = tamanho - 1;
+            limiteAmostras = 10 * Math.max(1, capacidade);
+        }
+
+        int estimar(int hash) {
+            int menor = 15;
+            for (long semente : SEMENTES) {
+                long h = espalhar(hash, semente);
+                int deslocamento = (int) (h & 15) << 2;
+                menor = Math.min(menor, (int) (contadores[(int) (h >>> 32) & mascara] >>> deslocamento) & 15);
+            }
+            return menor;
+        }
+
+        void incrementar(int hash) {
+            boolean incrementou = false;
+            for (long semente : SEMENTES) {
+                long h = espalhar(hash, semente);
+                int indice = (int) (h >>> 32) & mascara;
+                int deslocamento = (int) (h & 15) << 2;
+                if (((contadores[indice] >>> deslocamento) & 15) < 15) {
+                    contadores[indice] += 1L << deslocamento;
+                    incrementou = true;
+                }
+            }
+            if (incrementou && ++amostras >= limiteAmostras) {
+                for (int i = 0; i < contadores.length; i++) {
+                    contadores[i] = (contadores[i] >>> 1) & METADE;
+                }
+                amostras /= 2;
+            }
+        }
+
+        private static long espalhar(int hash, long semente) {
+            long h = (hash + semente) * semente;
+            return h ^ (h >>> 29);
+        }
+    }
+
+    private final Function<String, Produto> origem;
+    private final Politica politica;
+    private final int capacidade;
+    private final int capacidadeJanela, capacidadeProtegido;
+
+    private final HashMap<String, Entrada> entradas;
+    private final Lista[] segmentos = { new Lista(), new Lista(), new Lista() };
+    private final Frequencias frequencias;
+
+    private long acertos, faltas, despejos;
+
+    /**
+     * Cria um cache W-TinyLFU na frente do localizador informado.
+     * @param origem Localizador de produtos consultado nas faltas; deve ser seguro para uso concorrente se o cache for
+     * @param capacidade Quantidade máxima de descrições guardadas
+     */
+    public CacheResolucao(Function<String, Produto> origem, int capacidade) {
+        this(origem, capacidade, Politica.W_TINY_LFU);
+    }
+
+    /**
+     * Cria um cache na frente do localizador informado.
+     * @param origem Localizador de produtos consultado nas faltas; deve ser seguro para uso concorrente se o cache for
+     * @param capacidade Quantidade máxima de descrições guardadas (1 ou mais)
+     * @param politica Política de substituição
+     * @throws IllegalArgumentException caso a capacidade seja menor que 1
+     */
+    public CacheResolucao(Function<String, Produto> origem, int capacidade, Politica politica) {
+        if (capacidade < 1)
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        this.origem = origem;
+        this.politica = politica;
+        this.capacidade = capacidade;
+        if (politica == Politica.LRU) {
+            capacidadeJanela = capacidade;
+            capacidadeProtegido = 0;
+            frequencias = null;
+        } else {
+            capacidadeJanela = Math.max(1, (int) (capacidade * FRACAO_JANELA));
+            capacidadeProtegido = (int) ((capacidade - capacidadeJanela) * FRACAO_PROTEGIDO);
+            frequencias = new Frequencias(capacidade);
+        }
+        entradas = new HashMap<>(Math.max(16, (int) (capacidade / 0.75f) + 1));
+    }
+
+    /**
+     * Localiza um produto pela descrição, consultando o localizador de origem apenas se a descrição não estiver no
+     * cache.
+     * @param descricao Descrição do produto
+     * @return O produto, ou null se o localizador de origem não o encontrar
+     */
+    @Override
+    public Produto apply(String descricao) {
+        synchronized (this) {
+            if (frequencias != null)
+                frequencias.incrementar(descricao.hashCode());
+            Entrada entrada = entradas.get(descricao);
+            if (entrada != null) {
+                acertos++;
+                acessar(entrada);
+                return valor(entrada);
+            }
+            faltas++;
+        }
+        Produto produto = origem.apply(descricao);
+        synchronized (this) {
+            Entrada existente = entradas.get(descricao);
+            if (existente != null)
+                return valor(existente);
+            incluir(new Entrada(descricao, produto == null ? AUSENTE : produto));
+        }
+        return produto;
+    }
+
+    private static Produto valor(Entrada entrada) {
+        return entrada.valor == AUSENTE ? null : (Produto) entrada.valor;
+    }
+
+    /** Atualiza a posição de uma entrada consultada */
+    private void acessar(Entrada entrada) {
+        segmentos[entrada.segmento].remover(entrada);
+        if (entrada.segmento == EXPERIENCIA) {
+            entrada.segmento = PROTEGIDO;
+            if (segmentos[PROTEGIDO].tamanho >= capacidadeProtegido) {
+                Entrada rebaixada = segmentos[PROTEGIDO].ultima();
+                if (rebaixada != null) {
+                    segmentos[PROTEGIDO].remover(rebaixada);
+                    rebaixada.segmento = EXPERIENCIA;
+                    segmentos[EXPERIENCIA].incluirNoInicio(rebaixada);
+                }
+            }
+        }
+        segmentos[entrada.segmento].incluirNoInicio(entrada);
+    }
+
+    /** Inclui uma entrada nova na janela e, se ela passar do limite, decide qual entrada sai do cache */
+    private void incluir(Entrada entrada) {
+        entradas.put(entrada.chave, entrada);
+        entrada.segmento = JANELA;
+        segmentos[JANELA].incluirNoInicio(entrada);
+        if (segmentos[JANELA].tamanho <= capacidadeJanela)
+            return;
+        Entrada candidata = segmentos[JANELA].ultima();
+        segmentos[JANELA].remover(candidata);
+        if (politica == Politica.LRU) {
+            descartar(candidata);
+            return;
+        }
+        if (segmentos[EXPERIENCIA].tamanho + segmentos[PROTEGIDO].tamanho < capacidade - capacidadeJanela) {
+            candidata.segmento = EXPERIENCIA;
+            segmentos[EXPERIENCIA].incluirNoInicio(candidata);
+            return;
+        }
+        Entrada vitima = segmentos[EXPERIENCIA].ultima();
+        if (vitima == null)
+            vitima = segmentos[PROTEGIDO].ultima();
+        if (vitima != null && frequencias.estimar(candidata.chave.hashCode()) > frequencias.estimar(vitima.chave.hashCode())) {
+            segmentos[vitima.segmento].remover(vitima);
+            descartar(vitima);
+            candidata.segmento = EXPERIENCIA;
+            segmentos[EXPERIENCIA].incluirNoInicio(candidata);
+        } else {
+            descartar(candidata);
+        }
+    }
+
+    private void descartar(Entrada entrada) {
+        entradas.remove(entrada.chave);
+        despejos++;
+    }
+
+    /**
+     * Remove do cache as entradas de uma descrição, em qualquer variação de maiúsculas e minúsculas, para que a próxima
+     * consulta vá ao localizador de origem (ex.: depois de incluir na origem um produto antes ausente). Percorre todas
+     * as entradas, portanto deve ser usado apenas quando a origem muda.
+     * @param descricao Descrição do produto
+     * @return true se alguma entrada foi removida
+     */
+    public synchronized boolean invalidar(String descricao) {
+        String chave = Produto.normalizarDescricao(descricao);
+        boolean removida = false;
+        for (Iterator<Entrada> iterador = entradas.values().iterator(); iterador.hasNext(); ) {
+            Entrada entrada = iterador.next();
+            if (entrada.chave.length() == chave.length() && Produto.normalizarDescricao(entrada.chave).equals(chave)) {
+                segmentos[entrada.segmento].remover(entrada);
+                iterador.remove();
+                removida = true;
+            }
+        }
+        return removida;
+    }
+
+    /** Esvazia o cache, mantendo as estatísticas e as frequências */
+    public synchronized void limpar() {
+        entradas.clear();
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = new Lista();
+        }
+    }
+
+    /** @return Consultas atendidas pelo cache */
+    public synchronized long acertos() {
+        return acertos;
+    }
+
+    /** @return Consultas que foram ao localizador de origem */
+    public synchronized long faltas() {
+        return faltas;
+    }
+
+    /** @return Entradas descartadas (ou não admitidas) para respeitar a capacidade */
+    public synchronized long despejos() {
+        return despejos;
+    }
+
+    /** @return Quantidade de descrições guardadas */
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    /** @return Fração das consultas atendidas pelo cache (0 se ainda não houve consultas) */
+    public synchronized double taxaDeAcertos() {
+        long consultas = acertos + faltas;
+        return consultas == 0 ? 0 : (double) acertos / consultas;
+    }
+
+    /** @return Resumo da política e das estatísticas, ex.: "W_TINY_LFU(1000): 9500 acertos, 500 faltas (95,0%), ..." */
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.getDefault(), "%s(%d): %d acertos, %d faltas (%.1f%%), %d despejos, %d guardados",
+                politica, capacidade, acertos, faltas, 100 * taxaDeAcertos(), despejos, entradas.size());
+    }
+}
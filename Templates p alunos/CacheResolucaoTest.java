@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+public class CacheResolucaoTest {
+
+    static final int PRODUTOS = 5_000;
+
+    final CatalogoProdutos catalogo = new CatalogoProdutos(PRODUTOS);
+    final AtomicInteger consultasOrigem = new AtomicInteger();
+    final Function<String, Produto> origem = descricao -> {
+        consultasOrigem.incrementAndGet();
+        return catalogo.localizar(descricao);
+    };
+
+    {
+        for (int i = 0; i < PRODUTOS; i++) {
+            catalogo.adicionar(new ProdutoNaoPerecivel("Cache " + i, 1 + i % 50, 0.2));
+        }
+    }
+
+    @Test
+    public void guardaProdutosEAusencias() {
+        CacheResolucao cache = new CacheResolucao(origem, 10);
+        Produto produto = cache.apply("Cache 1");
+        assertSame(catalogo.localizar("cache 1"), produto);
+        assertSame(produto, cache.apply("Cache 1"));
+        assertNull(cache.apply("Inexistente"));
+        assertNull(cache.apply("Inexistente"));
+        assertEquals(2, consultasOrigem.get());
+        assertEquals(2, cache.acertos());
+        assertEquals(2, cache.faltas());
+        assertEquals(0.5, cache.taxaDeAcertos(), 1e-9);
+    }
+
+    @Test
+    public void invalidarDescartaAusenciaGuardada() {
+        CacheResolucao cache = new CacheResolucao(origem, 10);
+        assertNull(cache.apply("Cache Novo"));
+        assertNull(cache.apply("CACHE NOVO"));
+        Produto novo = new ProdutoNaoPerecivel("Cache Novo", 5, 0.2);
+        catalogo.adicionar(novo);
+        assertNull(cache.apply("Cache Novo"));
+        assertTrue(cache.invalidar("cache novo"));
+        assertSame(novo, cache.apply("Cache Novo"));
+        assertSame(novo, cache.apply("CACHE NOVO"));
+        assertEquals(4, consultasOrigem.get());
+        assertFalse(cache.invalidar("Nunca Consultado"));
+    }
+
+    @Test
+    public void lruDescartaOUsadoHaMaisTempo() {
+        CacheResolucao cache = new CacheResolucao(origem, 2, CacheResolucao.Politica.LRU);
+        cache.apply("Cache 1");
+        cache.apply("Cache 2");
+        cache.apply("Cache 1");
+        cache.apply("Cache 3");
+        assertEquals(1, cache.despejos());
+        assertEquals(2, cache.tamanho());
+        consultasOrigem.set(0);
+        cache.apply("Cache 1");
+        cache.apply("Cache 3");
+        assertEquals(0, consultasOrigem.get());
+        cache.apply("Cache 2");
+        assertEquals(1, consultasOrigem.get());
+    }
+
+    /** Consultas concentradas (Zipf) misturadas a uma varredura de produtos consultados uma única vez */
+    double taxaDeAcertos(CacheResolucao.Politica politica) {
+        CacheResolucao cache = new CacheResolucao(origem, 200, politica);
+        AmostradorZipf zipf = new AmostradorZipf(PRODUTOS, 1.0);
+        SplittableRandom sorteio = new SplittableRandom(25);
+        int varredura = 0;
+        for (int i = 0; i < 200_000; i++) {
+            int produto = sorteio.nextInt(3) == 0 ? varredura++ % PRODUTOS : zipf.amostrar(sorteio) - 1;
+            assertEquals("cache " + produto, cache.apply("Cache " + produto).getChave());
+            assertTrue(cache.tamanho() <= 200);
+        }
+        return cache.taxaDeAcertos();
+    }
+
+    @Test
+    public void wTinyLfuResisteAVarreduras() {
+        double lru = taxaDeAcertos(CacheResolucao.Politica.LRU);
+        double tinyLfu = taxaDeAcertos(CacheResolucao.Politica.W_TINY_LFU);
+        assertTrue(tinyLfu > lru + 0.05, "W-TinyLFU " + tinyLfu + ", LRU " + lru);
+    }
+
+    @Test
+    public void usoConcorrente() throws Exception {
+        CacheResolucao cache = new CacheResolucao(origem, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int semente = t;
+                tarefas.add(executor.submit(() -> {
+                    AmostradorZipf zipf = new AmostradorZipf(PRODUTOS, 1.1);
+                    SplittableRandom sorteio = new SplittableRandom(semente);
+                    for (int i = 0; i < 50_000; i++) {
+                        int produto = zipf.amostrar(sorteio) - 1;
+                        assertSame(catalogo.localizar("cache " + produto), cache.apply("Cache " + produto));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(200_000, cache.acertos() + cache.faltas());
+        assertTrue(cache.tamanho() <= 100);
+        assertTrue(cache.taxaDeAcertos() > 0.5, cache.toString());
+    }
+}
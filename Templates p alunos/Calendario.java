@@ -0,0 +1,81 @@
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Fonte da data atual usada nos cálculos de preço e validade. O relógio pode ser substituído (por exemplo, por
+ * Clock.fixed em testes ou simulações). O dia atual é guardado junto com os instantes de início e fim desse dia,
+ * de modo que consultas repetidas custam apenas uma leitura de milissegundos do relógio, sem resolver fuso
+ * horário nem criar objetos, até a virada do dia.
+ */
+public class Calendario {
+
+    /** Dia em cache: o dia (epoch-day) e o intervalo [inicio, fim) de instantes, em milissegundos, que o compõem */
+    private static final class Dia {
+        final Clock relogio;
+        final long epochDay;
+        final long inicio;
+        final long fim;
+
+        Dia(Clock relogio, long epochDay, long inicio, long fim) {
+            this.relogio = relogio;
+            this.epochDay = epochDay;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    /** Relógio em uso */
+    private static volatile Clock relogio = Clock.systemDefaultZone();
+
+    /** Último dia calculado */
+    private static volatile Dia cache;
+
+    private Calendario() { }
+
+    /**
+     * Substitui o relógio usado para obter a data atual.
+     * @param novoRelogio Relógio a ser usado (ex.: Clock.systemDefaultZone() para voltar ao padrão)
+     */
+    public static void usarRelogio(Clock novoRelogio) {
+        relogio = novoRelogio;
+        cache = null;
+    }
+
+    /** @return Relógio em uso */
+    public static Clock relogio() {
+        return relogio;
+    }
+
+    /**
+     * Dia atual, segundo o relógio em uso, como epoch-day (dias desde 01/01/1970).
+     * @return Dia atual
+     */
+    public static long diaAtual() {
+        Clock atual = relogio;
+        long agora = atual.millis();
+        Dia dia = cache;
+        if (dia == null || dia.relogio != atual || agora < dia.inicio || agora >= dia.fim) {
+            dia = calcular(atual, agora);
+            cache = dia;
+        }
+        return dia.epochDay;
+    }
+
+    /**
+     * Data atual, segundo o relógio em uso.
+     * @return Data atual
+     */
+    public static LocalDate hoje() {
+        return LocalDate.ofEpochDay(diaAtual());
+    }
+
+    private static Dia calcular(Clock atual, long agora) {
+        ZoneId fuso = atual.getZone();
+        LocalDate data = LocalDate.ofInstant(Instant.ofEpochMilli(agora), fuso);
+        long inicio = data.atStartOfDay(fuso).toInstant().toEpochMilli();
+        long fim = data.plusDays(1).atStartOfDay(fuso).toInstant().toEpochMilli();
+        return new Dia(atual, data.toEpochDay(), inicio, fim);
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Carga em paralelo dos arquivos de dados (cabeçalho com a quantidade N seguido de uma linha por registro).
+ * O corpo do arquivo é dividido em blocos de bytes alinhados em quebras de linha; cada bloco é mapeado e
+ * convertido em um ForkJoinPool, e os resultados são reunidos na ordem do arquivo. Arquivos pequenos são
+ * lidos em um único bloco, na própria thread chamadora.
+ * <p>
+ * Assim como na leitura sequencial, apenas as N primeiras linhas do corpo são convertidas: as linhas de cada bloco
+ * são contadas antes da conversão, e nenhum bloco converte linhas além da quantidade do cabeçalho (ex.: linhas em
+ * branco ao final do arquivo).
+ */
+public class CarregadorParalelo {
+
+    /** Tamanho a partir do qual vale a pena carregar o arquivo em paralelo, em bytes */
+    static final long LIMITE_PARALELO = 8L << 20;
+
+    /** Tamanho mínimo de cada bloco, em bytes */
+    private static final long TAMANHO_MINIMO_BLOCO = 4L << 20;
+
+    /** Blocos por thread, para equilibrar a carga entre threads */
+    private static final int BLOCOS_POR_THREAD = 4;
+
+    /**
+     * Resultado de uma carga: os itens convertidos, na ordem do arquivo, e as medições de cada bloco.
+     * @param <T> Tipo dos itens carregados
+     */
+    public static class Carga<T> {
+        private final int quantidadeDeclarada;
+        private final List<T> itens;
+        private final long[] nanosPorBloco;
+        private final int[] linhasPorBloco;
+
+        private Carga(int quantidadeDeclarada, List<T> itens, long[] nanosPorBloco, int[] linhasPorBloco) {
+            this.quantidadeDeclarada = quantidadeDeclarada;
+            this.itens = itens;
+            this.nanosPorBloco = nanosPorBloco;
+            this.linhasPorBloco = linhasPorBloco;
+        }
+
+        /** @return Quantidade de registros informada no cabeçalho do arquivo */
+        public int quantidadeDeclarada() {
+            return quantidadeDeclarada;
+        }
+
+        /** @return Itens carregados, na ordem do arquivo (no máximo a quantidade do cabeçalho) */
+        public List<T> itens() {
+            return itens;
+        }
+
+        /** @return Quantidade de blocos em que o arquivo foi dividido */
+        public int quantidadeBlocos() {
+            return nanosPorBloco.length;
+        }
+
+        /**
+         * @param bloco Índice do bloco
+         * @return Tempo de conversão do bloco, em nanossegundos
+         */
+        public long nanosDoBloco(int bloco) {
+            return nanosPorBloco[bloco];
+        }
+
+        /**
+         * @param bloco Índice do bloco
+         * @return Quantidade de linhas convertidas no bloco
+         */
+        public int linhasDoBloco(int bloco) {
+            return linhasPorBloco[bloco];
+        }
+
+        /**
+         * Relatório com o tempo e a quantidade de linhas de cada bloco.
+         * @return Uma linha por bloco, no formato "Bloco N: L linhas em T ms"
+         */
+        @Override
+        public String toString() {
+            StringBuilder relatorio = new StringBuilder();
+            for (int i = 0; i < nanosPorBloco.length; i++) {
+                relatorio.append("Bloco ").append(i).append(": ").append(linhasPorBloco[i]).append(" linhas em ")
+                        .append(String.format("%.3f", nanosPorBloco[i] / 1e6)).append(" ms\n");
+            }
+            return relatorio.toString();
+        }
+    }
+
+    private CarregadorParalelo() { }
+
+    /**
+     * Carrega um arquivo de dados em paralelo, usando o ForkJoinPool comum.
+     * @param <T> Tipo dos itens carregados
+     * @param nomeArquivo Nome do arquivo de dados
+     * @param conversor Conversão de um registro em item (ex.: Produto::criarDoRegistro). Deve poder ser
+     *                  executada em várias threads ao mesmo tempo
+     * @return A carga com os itens na ordem do arquivo
+     * @throws IOException em caso de erro de leitura
+     */
+    public static <T> Carga<T> carregar(String nomeArquivo, Function<RegistroCsv, T> conversor) throws IOException {
+        return carregar(Paths.get(nomeArquivo), conversor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Carrega um arquivo de dados em paralelo, no pool informado.
+     * @param <T> Tipo dos itens carregados
+     * @param arquivo Caminho do arquivo de dados
+     * @param conversor Conversão de um registro em item. Deve poder ser executada em várias threads ao mesmo tempo
+     * @param pool Pool onde os blocos serão convertidos
+     * @return A carga com os itens na ordem do arquivo
+     * @throws IOException em caso de erro de leitura
+     */
+    public static <T> Carga<T> carregar(Path arquivo, Function<RegistroCsv, T> conversor, ForkJoinPool pool)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long inicioCorpo = fimDaLinha(canal, 0);
+            int quantidadeDeclarada = lerCabecalho(canal, inicioCorpo);
+            long[] limites = dividirEmBlocos(canal, inicioCorpo, tamanho, pool.getParallelism());
+            int blocos = limites.length - 1;
+
+            int quantidade = Math.max(quantidadeDeclarada, 0);
+            List<List<T>> parciais = new ArrayList<>(blocos);
+            long[] nanosPorBloco = new long[blocos];
+            if (blocos == 1) {
+                long inicio = System.nanoTime();
+                parciais.add(converterBloco(canal, limites[0], limites[1], quantidade, conversor));
+                nanosPorBloco[0] = System.nanoTime() - inicio;
+            } else {
+                List<Callable<Long>> contagens = new ArrayList<>(blocos);
+                for (int i = 0; i < blocos; i++) {
+                    final int bloco = i;
+                    contagens.add(() -> contarLinhas(canal, limites[bloco], limites[bloco + 1]));
+                }
+                List<Callable<List<T>>> tarefas = new ArrayList<>(blocos);
+                long linhasAntes = 0;
+                for (Future<Long> contagem : pool.invokeAll(contagens)) {
+                    final int bloco = tarefas.size();
+                    final int maximo = (int) Math.max(0, quantidade - linhasAntes);
+                    linhasAntes += resultado(contagem);
+                    tarefas.add(() -> {
+                        long inicio = System.nanoTime();
+                        List<T> itens = converterBloco(canal, limites[bloco], limites[bloco + 1], maximo, conversor);
+                        nanosPorBloco[bloco] = System.nanoTime() - inicio;
+                        return itens;
+                    });
+                }
+                for (Future<List<T>> parcial : pool.invokeAll(tarefas)) {
+                    parciais.add(resultado(parcial));
+                }
+            }
+
+            int total = 0;
+            int[] linhasPorBloco = new int[blocos];
+            for (int i = 0; i < blocos; i++) {
+                linhasPorBloco[i] = parciais.get(i).size();
+                total += linhasPorBloco[i];
+            }
+            List<T> itens = new ArrayList<>(total);
+            for (List<T> parcial : parciais) {
+                itens.addAll(parcial);
+            }
+            return new Carga<>(quantidadeDeclarada, itens, nanosPorBloco, linhasPorBloco);
+        }
+    }
+
+    /** Converte até maximo linhas de uma região do arquivo */
+    private static <T> List<T> converterBloco(FileChannel canal, long inicio, long fim, int maximo,
+            Function<RegistroCsv, T> conversor) throws IOException {
+        List<T> itens = new ArrayList<>();
+        if (inicio >= fim || maximo == 0)
+            return itens;
+        LeitorMapeado leitor = new LeitorMapeado(canal, inicio, fim, LeitorMapeado.JANELA_PADRAO);
+        RegistroCsv registro;
+        while (itens.size() < maximo && (registro = leitor.proximo()) != null) {
+            itens.add(conversor.apply(registro));
+        }
+        return itens;
+    }
+
+    /**
+     * Conta as linhas de uma região do arquivo, como o {@link LeitorMapeado} as leria: uma por quebra de linha, mais
+     * o trecho final sem quebra, se houver.
+     */
+    private static long contarLinhas(FileChannel canal, long inicio, long fim) throws IOException {
+        long linhas = 0;
+        byte ultimo = '\n';
+        for (long posicao = inicio; posicao < fim; ) {
+            long tamanho = Math.min(LeitorMapeado.JANELA_PADRAO, fim - posicao);
+            MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                if (janela.get(i) == '\n')
+                    linhas++;
+            }
+            ultimo = janela.get((int) tamanho - 1);
+            posicao += tamanho;
+        }
+        return ultimo == '\n' ? linhas : linhas + 1;
+    }
+
+    /** Obtém o resultado de uma tarefa, repassando a exceção original em caso de falha */
+    private static <T> T resultado(Future<T> tarefa) throws IOException {
+        try {
+            return tarefa.get();
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga interrompida", excecao);
+        } catch (ExecutionException excecao) {
+            Throwable causa = excecao.getCause();
+            if (causa instanceof IOException)
+                throw (IOException) causa;
+            if (causa instanceof RuntimeException)
+                throw (RuntimeException) causa;
+            if (causa instanceof Error)
+                throw (Error) causa;
+            throw new IOException(causa);
+        }
+    }
+
+    /** Lê a quantidade informada no cabeçalho (primeira linha) do arquivo */
+    private static int lerCabecalho(FileChannel canal, long fimCabecalho) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate((int) fimCabecalho);
+        while (cabecalho.hasRemaining()) {
+            if (canal.read(cabecalho, cabecalho.position()) < 0)
+                break;
+        }
+        cabecalho.flip();
+        int fimLinha = cabecalho.limit();
+        while (fimLinha > 0 && (cabecalho.get(fimLinha - 1) == '\n' || cabecalho.get(fimLinha - 1) == '\r'))
+            fimLinha--;
+        cabecalho.limit(fimLinha);
+        return new RegistroCsv(new VisaoBytes(cabecalho)).inteiro(0);
+    }
+
+    /**
+     * Divide a região [inicio, fim) do arquivo em blocos alinhados em quebras de linha.
+     * @return Vetor com as posições de início de cada bloco, seguidas da posição final
+     */
+    private static long[] dividirEmBlocos(FileChannel canal, long inicio, long fim, int threads) throws IOException {
+        long tamanho = fim - inicio;
+        int blocos = 1;
+        if (fim >= LIMITE_PARALELO)
+            blocos = (int) Math.max(1, Math.min((long) threads * BLOCOS_POR_THREAD, tamanho / TAMANHO_MINIMO_BLOCO));
+        long[] limites = new long[blocos + 1];
+        limites[0] = inicio;
+        for (int i = 1; i < blocos; i++) {
+            long alvo = Math.max(inicio + tamanho * i / blocos, limites[i - 1]);
+            limites[i] = fimDaLinha(canal, alvo);
+        }
+        limites[blocos] = fim;
+        return limites;
+    }
+
+    /** Posição logo após a primeira quebra de linha a partir de posicao (ou o fim do arquivo) */
+    private static long fimDaLinha(FileChannel canal, long posicao) throws IOException {
+        ByteBuffer trecho = ByteBuffer.allocate(4096);
+        long atual = posicao;
+        while (true) {
+            trecho.clear();
+            int lidos = canal.read(trecho, atual);
+            if (lidos <= 0)
+                return canal.size();
+            for (int i = 0; i < lidos; i++) {
+                if (trecho.get(i) == '\n')
+                    return atual + i + 1;
+            }
+            atual += lidos;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CarregadorParaleloTest {
+
+    @TempDir
+    Path pasta;
+
+    private Path gerarArquivo(int declarados, int linhas) throws IOException {
+        Path arquivo = pasta.resolve("produtos.csv");
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            saida.write(declarados + "\n");
+            for (int i = 0; i < linhas; i++) {
+                saida.write("1;Produto número " + i + ";10.00;0.25\n");
+            }
+        }
+        return arquivo;
+    }
+
+    @Test
+    public void preservaOrdemDoArquivoEmVariosBlocos() throws IOException {
+        int linhas = 300_000;
+        Path arquivo = gerarArquivo(linhas, linhas);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CarregadorParalelo.Carga<Produto> carga = CarregadorParalelo.carregar(arquivo, Produto::criarDoRegistro, pool);
+            List<Produto> produtos = carga.itens();
+            assertTrue(carga.quantidadeBlocos() > 1);
+            assertEquals(linhas, produtos.size());
+            for (int i = 0; i < linhas; i++) {
+                assertEquals("Produto número " + i, produtos.get(i).descricao);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void arquivoPequenoEmUmUnicoBloco() throws IOException {
+        Path arquivo = gerarArquivo(3, 5);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CarregadorParalelo.Carga<Produto> carga = CarregadorParalelo.carregar(arquivo, Produto::criarDoRegistro, pool);
+            assertEquals(1, carga.quantidadeBlocos());
+            assertEquals(3, carga.itens().size());
+            assertEquals(3, carga.linhasDoBloco(0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ignoraLinhasAposOCabecalhoComoALeituraSequencial() throws IOException {
+        int declarados = 300_000;
+        Path arquivo = gerarArquivo(declarados, declarados);
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            saida.write("1;Produto além do cabeçalho\n\n\n");
+        }
+        assertTrue(Files.size(arquivo) >= CarregadorParalelo.LIMITE_PARALELO);
+
+        List<Produto> sequenciais = new ArrayList<>();
+        try (FonteRegistros fonte = FonteRegistros.abrir(arquivo.toString())) {
+            int quantidade = fonte.proximo().inteiro(0);
+            RegistroCsv linha;
+            for (int i = 0; i < quantidade && (linha = fonte.proximo()) != null; i++) {
+                sequenciais.add(Produto.criarDoRegistro(linha));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CarregadorParalelo.Carga<Produto> carga = CarregadorParalelo.carregar(arquivo, Produto::criarDoRegistro, pool);
+            assertTrue(carga.quantidadeBlocos() > 1);
+            assertEquals(declarados, sequenciais.size());
+            assertEquals(sequenciais.size(), carga.itens().size());
+            for (int i = 0; i < declarados; i++) {
+                assertEquals(sequenciais.get(i).descricao, carga.itens().get(i).descricao);
+            }
+            assertEquals(declarados, App.lerProdutos(arquivo.toString()).quantidade());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Catálogo de produtos armazenado fora do heap, em ByteBuffers diretos: com dezenas de milhões de produtos, o coletor
+ * de lixo passa a lidar com algumas centenas de blocos grandes em vez de dezenas de milhões de objetos.
+ * <p>
+ * Cada produto ocupa um registro de tamanho fixo ({@link #TAMANHO_REGISTRO} bytes: tipo, validade como epoch-day,
+ * preço de custo, margem de lucro e posição da descrição); as descrições ficam em uma área de texto separada, em
+ * UTF-8 precedido do tamanho. A localização por descrição usa uma tabela hash de endereçamento aberto, também fora do
+ * heap, com o hash da descrição normalizada (o mesmo de Produto.equals) e a posição do registro.
+ * <p>
+ * A interface acompanha a de {@link RepositorioProdutos}: inclusão sem duplicatas, localização por descrição (pode ser
+ * usada como localizador de Pedido.criarDoRegistro), acesso por posição e iteração. Os produtos devolvidos são
+ * materializados a cada consulta e têm vida curta. A memória fora do heap é liberada quando o catálogo deixa de ser
+ * referenciado e é coletado.
+ */
+public class CatalogoForaDoHeap implements Iterable<Produto> {
+
+    /** Tamanho de cada registro de produto, em bytes */
+    static final int TAMANHO_REGISTRO = 32;
+    private static final int TIPO = 0, VALIDADE = 4, PRECO_CUSTO = 8, MARGEM_LUCRO = 16, DESCRICAO = 24;
+
+    /** Registros por bloco (2 MiB por bloco) */
+    private static final int BITS_REGISTROS = 16;
+    private static final int REGISTROS_POR_BLOCO = 1 << BITS_REGISTROS;
+
+    /** Tamanho de cada bloco da área de texto; uma descrição nunca é dividida entre blocos */
+    private static final int BITS_TEXTO = 22;
+    private static final int TAMANHO_BLOCO_TEXTO = 1 << BITS_TEXTO;
+
+    /** Entradas por bloco da tabela hash (8 bytes cada, 8 MiB por bloco) */
+    private static final int BITS_TABELA = 20;
+    private static final int ENTRADAS_POR_BLOCO = 1 << BITS_TABELA;
+    private static final int CAPACIDADE_INICIAL_TABELA = 1 << 10;
+
+    private static final int SEM_VALIDADE = Integer.MAX_VALUE;
+
+    private ByteBuffer[] registros = new ByteBuffer[4];
+    private int quantidade;
+
+    private ByteBuffer[] textos = new ByteBuffer[4];
+    private int blocosTexto;
+    /** Próxima posição livre (absoluta) na área de texto */
+    private long fimTexto;
+    /** Bytes ocupados por descrições (sem contar as sobras no fim de cada bloco) */
+    private long bytesTexto;
+
+    /** Tabela hash: cada entrada guarda (hash da chave << 32) | (posição + 1); 0 indica entrada livre */
+    private ByteBuffer[] tabela;
+    private long capacidadeTabela;
+
+    /** Cria um catálogo vazio */
+    public CatalogoForaDoHeap() {
+        criarTabela(CAPACIDADE_INICIAL_TABELA);
+    }
+
+    /**
+     * Cria um catálogo vazio com a tabela de localização dimensionada para a quantidade esperada de produtos.
+     * @param quantidadeEsperada Quantidade de produtos esperada
+     */
+    public CatalogoForaDoHeap(int quantidadeEsperada) {
+        criarTabela(Math.max(CAPACIDADE_INICIAL_TABELA, Long.highestOneBit(Math.max(1, quantidadeEsperada) * 2L - 1) * 2));
+    }
+
+    /**
+     * Lê um arquivo de produtos (mesmo formato de App.lerProdutos) para um catálogo fora do heap.
+     * Retorna null em caso de problemas com o arquivo.
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @return Catálogo com os produtos do arquivo, ou null em caso de problemas de leitura.
+     */
+    public static CatalogoForaDoHeap lerProdutos(String nomeArquivoDados) {
+        FonteRegistros arquivo = null;
+        CatalogoForaDoHeap catalogo;
+        RegistroCsv linha;
+        try {
+            arquivo = FonteRegistros.abrir(nomeArquivoDados);
+            int numProdutos = arquivo.proximo().inteiro(0);
+            catalogo = new CatalogoForaDoHeap(numProdutos);
+            for (int i = 0; i < numProdutos && (linha = arquivo.proximo()) != null; i++) {
+                catalogo.adicionar(Produto.criarDoRegistro(linha));
+            }
+        } catch (IOException excecaoArquivo) {
+            catalogo = null;
+        } finally {
+            if (arquivo != null)
+                arquivo.close();
+        }
+        return catalogo;
+    }
+
+    /**
+     * Inclui um produto no catálogo. Caso já exista um produto igual (mesma descrição, sem diferenciar maiúsculas e
+     * minúsculas), o produto existente é mantido.
+     * @param produto Produto a ser incluído
+     * @return true se o produto foi incluído, false se já existia um produto com a mesma descrição
+     */
+    public boolean adicionar(Produto produto) {
+        String chave = produto.getChave();
+        int hash = chave.hashCode();
+        long entrada = procurar(chave, hash);
+        if (tabelaEntrada(entrada) != 0)
+            return false;
+
+        byte[] descricao = produto.descricao.getBytes(StandardCharsets.UTF_8);
+        long posicaoTexto = gravarTexto(descricao);
+        int posicao = quantidade;
+        int bloco = posicao >>> BITS_REGISTROS;
+        if (bloco == registros.length)
+            registros = Arrays.copyOf(registros, bloco * 2);
+        if (registros[bloco] == null)
+            registros[bloco] = alocar(REGISTROS_POR_BLOCO * TAMANHO_REGISTRO);
+        int base = (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+        ByteBuffer registro = registros[bloco];
+        if (produto instanceof ProdutoPerecivel perecivel) {
+            registro.put(base + TIPO, ColunasProdutos.PERECIVEL);
+            registro.putInt(base + VALIDADE, (int) perecivel.getDataDeValidade().toEpochDay());
+        } else {
+            registro.put(base + TIPO, ColunasProdutos.NAO_PERECIVEL);
+            registro.putInt(base + VALIDADE, SEM_VALIDADE);
+        }
+        registro.putDouble(base + PRECO_CUSTO, produto.precoCusto);
+        registro.putDouble(base + MARGEM_LUCRO, produto.margemLucro);
+        registro.putLong(base + DESCRICAO, posicaoTexto);
+        quantidade++;
+
+        gravarEntrada(entrada, ((long) hash << 32) | (posicao + 1L));
+        if (quantidade * 2L > capacidadeTabela)
+            redimensionarTabela();
+        return true;
+    }
+
+    /**
+     * Localiza um produto pela descrição exata, sem diferenciar maiúsculas e minúsculas.
+     * @param descricao Descrição do produto
+     * @return O produto com a descrição informada (materializado), ou null caso não exista
+     */
+    public Produto localizar(String descricao) {
+        String chave = Produto.normalizarDescricao(descricao);
+        long conteudo = tabelaEntrada(procurar(chave, chave.hashCode()));
+        return conteudo == 0 ? null : get((int) conteudo - 1);
+    }
+
+    /**
+     * Indica se há um produto com a descrição informada.
+     * @param descricao Descrição do produto
+     * @return true se existe um produto com a descrição, sem diferenciar maiúsculas e minúsculas
+     */
+    public boolean contem(String descricao) {
+        String chave = Produto.normalizarDescricao(descricao);
+        return tabelaEntrada(procurar(chave, chave.hashCode())) != 0;
+    }
+
+    /**
+     * Retorna o produto na posição informada (ordem de inclusão).
+     * @param posicao Posição do produto, de 0 a quantidade()-1
+     * @return O produto na posição, materializado a partir do registro (mesmo que seja perecível e já tenha vencido)
+     * @throws IndexOutOfBoundsException caso a posição seja inválida
+     */
+    public Produto get(int posicao) {
+        if (posicao < 0 || posicao >= quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        ByteBuffer registro = registros[posicao >>> BITS_REGISTROS];
+        int base = (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+        String descricao = lerTexto(registro.getLong(base + DESCRICAO));
+        double precoCusto = registro.getDouble(base + PRECO_CUSTO);
+        double margemLucro = registro.getDouble(base + MARGEM_LUCRO);
+        if (registro.get(base + TIPO) == ColunasProdutos.PERECIVEL)
+            return ProdutoPerecivel.restaurar(descricao, precoCusto, margemLucro, LocalDate.ofEpochDay(registro.getInt(base + VALIDADE)));
+        return new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
+    }
+
+    /** @return Quantidade de produtos no catálogo */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** @return Bytes fora do heap alocados pelo catálogo (registros, textos e tabela de localização) */
+    public long bytesAlocados() {
+        long blocosRegistros = (quantidade + REGISTROS_POR_BLOCO - 1) >>> BITS_REGISTROS;
+        return blocosRegistros * REGISTROS_POR_BLOCO * TAMANHO_REGISTRO
+                + (long) blocosTexto * TAMANHO_BLOCO_TEXTO
+                + capacidadeTabela * Long.BYTES;
+    }
+
+    /** @return Bytes fora do heap efetivamente ocupados por produtos, descrições e entradas da tabela */
+    public long bytesUtilizados() {
+        return (long) quantidade * TAMANHO_REGISTRO + bytesTexto + (long) quantidade * Long.BYTES;
+    }
+
+    /** @return Resumo do uso de memória do catálogo */
+    @Override
+    public String toString() {
+        return String.format("Catálogo fora do heap: %d produtos, %.1f MiB alocados, %.1f MiB utilizados",
+                quantidade, bytesAlocados() / 1048576.0, bytesUtilizados() / 1048576.0);
+    }
+
+    @Override
+    public Iterator<Produto> iterator() {
+        return new Iterator<Produto>() {
+            private int atual = 0;
+
+            @Override
+            public boolean hasNext() {
+                return atual < quantidade;
+            }
+
+            @Override
+            public Produto next() {
+                if (atual >= quantidade)
+                    throw new NoSuchElementException();
+                return get(atual++);
+            }
+        };
+    }
+
+    /* ---------- área de texto ---------- */
+
+    private long gravarTexto(byte[] texto) {
+        int necessario = Integer.BYTES + texto.length;
+        if (necessario > TAMANHO_BLOCO_TEXTO)
+            throw new IllegalArgumentException("Descrição longa demais para o catálogo");
+        long bloco = fimTexto >>> BITS_TEXTO;
+        if (blocosTexto == 0 || (fimTexto & (TAMANHO_BLOCO_TEXTO - 1)) + necessario > TAMANHO_BLOCO_TEXTO || bloco >= blocosTexto) {
+            if (blocosTexto == textos.length)
+                textos = Arrays.copyOf(textos, blocosTexto * 2);
+            textos[blocosTexto] = alocar(TAMANHO_BLOCO_TEXTO);
+            fimTexto = (long) blocosTexto << BITS_TEXTO;
+            blocosTexto++;
+        }
+        long posicao = fimTexto;
+        ByteBuffer destino = textos[(int) (posicao >>> BITS_TEXTO)];
+        int inicio = (int) (posicao & (TAMANHO_BLOCO_TEXTO - 1));
+        destino.putInt(inicio, texto.length);
+        destino.put(inicio + Integer.BYTES, texto);
+        fimTexto += necessario;
+        bytesTexto += necessario;
+        return posicao;
+    }
+
+    private String lerTexto(long posicao) {
+        ByteBuffer origem = textos[(int) (posicao >>> BITS_TEXTO)];
+        int inicio = (int) (posicao & (TAMANHO_BLOCO_TEXTO - 1));
+        byte[] texto = new byte[origem.getInt(inicio)];
+        origem.get(inicio + Integer.BYTES, texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    /* ---------- tabela de localização ---------- */
+
+    /**
+     * Procura a chave na tabela (sondagem linear).
+     * @return Índice da entrada com a chave ou, se ela não existir, da entrada livre onde seria incluída
+     */
+    private long procurar(String chave, int hash) {
+        long mascara = capacidadeTabela - 1;
+        long indice = espalhar(hash) & mascara;
+        while (true) {
+            long conteudo = tabelaEntrada(indice);
+            if (conteudo == 0)
+                return indice;
+            if ((int) (conteudo >>> 32) == hash && chaveDe((int) conteudo - 1).equals(chave))
+                return indice;
+            indice = (indice + 1) & mascara;
+        }
+    }
+
+    /** Descrição normalizada do produto na posição, lida diretamente da área de texto */
+    private String chaveDe(int posicao) {
+        ByteBuffer registro = registros[posicao >>> BITS_REGISTROS];
+        int base = (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+        return Produto.normalizarDescricao(lerTexto(registro.getLong(base + DESCRICAO)));
+    }
+
+    private long tabelaEntrada(long indice) {
+        return tabela[(int) (indice >>> BITS_TABELA)].getLong((int) (indice & (ENTRADAS_POR_BLOCO - 1)) * Long.BYTES);
+    }
+
+    private void gravarEntrada(long indice, long conteudo) {
+        tabela[(int) (indice >>> BITS_TABELA)].putLong((int) (indice & (ENTRADAS_POR_BLOCO - 1)) * Long.BYTES, conteudo);
+    }
+
+    private void criarTabela(long capacidade) {
+        capacidadeTabela = capacidade;
+        int blocos = (int) Math.max(1, capacidade >>> BITS_TABELA);
+        int entradasPorBloco = (int) Math.min(capacidade, ENTRADAS_POR_BLOCO);
+        tabela = new ByteBuffer[blocos];
+        for (int i = 0; i < blocos; i++) {
+            tabela[i] = alocar(entradasPorBloco * Long.BYTES);
+        }
+    }
+
+    /** Dobra a tabela e reinsere as entradas, sem reler as descrições (o hash fica guardado na entrada) */
+    private void redimensionarTabela() {
+        ByteBuffer[] antiga = tabela;
+        long capacidadeAntiga = capacidadeTabela;
+        criarTabela(capacidadeAntiga * 2);
+        long mascara = capacidadeTabela - 1;
+        int entradasPorBloco = (int) Math.min(capacidadeAntiga, ENTRADAS_POR_BLOCO);
+        for (ByteBuffer bloco : antiga) {
+            for (int i = 0; i < entradasPorBloco; i++) {
+                long conteudo = bloco.getLong(i * Long.BYTES);
+                if (conteudo == 0)
+                    continue;
+                long indice = espalhar((int) (conteudo >>> 32)) & mascara;
+                while (tabelaEntrada(indice) != 0)
+                    indice = (indice + 1) & mascara;
+                gravarEntrada(indice, conteudo);
+            }
+        }
+    }
+
+    /** Espalha os bits do hash de String, que tem pouca entropia nos bits baixos para textos parecidos */
+    private static long espalhar(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static ByteBuffer alocar(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+public class CatalogoForaDoHeapTest {
+
+    @Test
+    public void guardaOsMesmosDadosDosProdutos() {
+        CatalogoForaDoHeap catalogo = new CatalogoForaDoHeap();
+        Produto caderno = new ProdutoNaoPerecivel("Caderno", 12.5, 0.3);
+        Produto pao = new ProdutoPerecivel("Pão de queijo", 1.5, 0.4, LocalDate.now().plusDays(3));
+        assertTrue(catalogo.adicionar(caderno));
+        assertTrue(catalogo.adicionar(pao));
+        assertFalse(catalogo.adicionar(new ProdutoNaoPerecivel("CADERNO", 1, 1)));
+
+        assertEquals(2, catalogo.quantidade());
+        assertEquals(pao.gerarDadosTexto(), catalogo.localizar("pão DE QUEIJO").gerarDadosTexto());
+        assertEquals(pao.valorDeVenda(), catalogo.get(1).valorDeVenda());
+        assertEquals(caderno.gerarDadosTexto(), catalogo.localizar("caderno").gerarDadosTexto());
+        assertNull(catalogo.localizar("Borracha"));
+    }
+
+    @Test
+    public void materializaPereciveisQueVenceramDepoisDeIncluidos() {
+        LocalDate hoje = LocalDate.of(2030, 3, 10);
+        CatalogoForaDoHeap catalogo = new CatalogoForaDoHeap();
+        try {
+            Calendario.usarRelogio(Clock.fixed(hoje.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            Produto iogurte = new ProdutoPerecivel("Iogurte", 3.2, 0.15, hoje.plusDays(2));
+            catalogo.adicionar(iogurte);
+            Calendario.usarRelogio(Clock.fixed(hoje.plusDays(5).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            assertEquals(iogurte.gerarDadosTexto(), catalogo.get(0).gerarDadosTexto());
+            assertEquals(iogurte.valorDeVenda(), catalogo.localizar("iogurte").valorDeVenda());
+        } finally {
+            Calendario.usarRelogio(Clock.systemDefaultZone());
+        }
+    }
+
+    @Test
+    public void cresceAlemDosBlocosIniciais() {
+        CatalogoForaDoHeap catalogo = new CatalogoForaDoHeap();
+        int quantidade = 200_000;
+        for (int i = 0; i < quantidade; i++) {
+            catalogo.adicionar(new ProdutoNaoPerecivel(GeradorDados.descricao(i), 1 + i % 100, 0.2));
+        }
+        assertEquals(quantidade, catalogo.quantidade());
+        int posicao = 0;
+        for (Produto produto : catalogo) {
+            assertEquals(GeradorDados.descricao(posicao++), produto.descricao);
+        }
+        for (int i = 0; i < quantidade; i += 997) {
+            assertTrue(catalogo.contem(GeradorDados.descricao(i).toUpperCase()));
+        }
+        assertTrue(catalogo.bytesUtilizados() <= catalogo.bytesAlocados());
+        assertTrue(catalogo.bytesUtilizados() > quantidade * (long) CatalogoForaDoHeap.TAMANHO_REGISTRO);
+    }
+}
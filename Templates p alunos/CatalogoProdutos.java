@@ -0,0 +1,123 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Catálogo de produtos indexado pela descrição. O catálogo tem o seu próprio {@link DicionarioDescricoes}: cada
+ * descrição normalizada incluída (o mesmo critério de Produto.equals) recebe ali um identificador, e os produtos ficam
+ * em um vetor indexado por esse identificador. A busca exata por nome custa uma consulta ao dicionário e um acesso ao
+ * vetor, sem diferenciar maiúsculas e minúsculas, e pode ser feita sobre um campo de registro, sem criar Strings.
+ * Os identificadores são atribuídos apenas na inclusão de produtos e só valem para este catálogo.
+ * As consultas nunca bloqueiam e podem ocorrer durante inclusões feitas por outras threads. A inclusão obtém o
+ * identificador no dicionário (que só trava o segmento da descrição, e apenas se ela for nova) e ocupa a posição do
+ * vetor com compareAndSet, de modo que dois terminais que cadastram o mesmo produto ao mesmo tempo não geram
+ * duplicatas e inclusões de produtos diferentes não esperam umas pelas outras.
+ */
+public class CatalogoProdutos {
+
+    /** Identificadores das descrições dos produtos incluídos */
+    private final DicionarioDescricoes dicionario;
+
+    /**
+     * Produtos indexados pelo identificador da descrição, em blocos de tamanho crescente (ver
+     * {@link DicionarioDescricoes#blocoDoId(int)}) criados sob demanda e nunca copiados
+     */
+    private final AtomicReferenceArray<AtomicReferenceArray<Produto>> porId =
+            new AtomicReferenceArray<>(DicionarioDescricoes.MAXIMO_BLOCOS);
+
+    /** Quantidade de produtos no catálogo */
+    private final AtomicInteger tamanho = new AtomicInteger();
+
+    /** Cria um catálogo vazio */
+    public CatalogoProdutos() {
+        this(16);
+    }
+
+    /**
+     * Cria um catálogo vazio já dimensionado para a quantidade esperada de produtos, evitando
+     * redimensionamentos do índice durante a carga.
+     * @param quantidadeEsperada Quantidade de produtos que se espera inserir
+     */
+    public CatalogoProdutos(int quantidadeEsperada) {
+        dicionario = new DicionarioDescricoes(quantidadeEsperada);
+    }
+
+    /**
+     * Inclui um produto no catálogo. Caso já exista um produto igual (mesma descrição), o produto
+     * existente é mantido.
+     * @param produto Produto a ser incluído
+     * @return true se o produto foi incluído, false se já existia um produto com a mesma descrição
+     */
+    public boolean adicionar(Produto produto) {
+        int id = dicionario.idDaChave(produto.getChave());
+        int bloco = DicionarioDescricoes.blocoDoId(id);
+        AtomicReferenceArray<Produto> produtos = porId.get(bloco);
+        if (produtos == null) {
+            porId.compareAndSet(bloco, null, new AtomicReferenceArray<>(DicionarioDescricoes.tamanhoDoBloco(bloco)));
+            produtos = porId.get(bloco);
+        }
+        if (!produtos.compareAndSet(DicionarioDescricoes.posicaoNoBloco(id, bloco), null, produto))
+            return false;
+        tamanho.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Localiza um produto pelo identificador da sua descrição.
+     * @param id Identificador no dicionário deste catálogo (valores negativos, como AUSENTE, são aceitos)
+     * @return O produto com a descrição do identificador, ou null caso não esteja no catálogo
+     */
+    public Produto localizarPorId(int id) {
+        if (id < 0)
+            return null;
+        int bloco = DicionarioDescricoes.blocoDoId(id);
+        AtomicReferenceArray<Produto> produtos = porId.get(bloco);
+        return produtos != null ? produtos.get(DicionarioDescricoes.posicaoNoBloco(id, bloco)) : null;
+    }
+
+    /**
+     * Localiza um produto pela descrição exata, sem diferenciar maiúsculas e minúsculas.
+     * @param descricao Descrição do produto
+     * @return O produto com a descrição informada, ou null caso não exista
+     */
+    public Produto localizar(String descricao) {
+        return localizarPorId(dicionario.procurar(descricao));
+    }
+
+    /**
+     * Localiza um produto pela descrição contida em um campo de registro, sem criar a String do campo.
+     * @param registro Registro lido
+     * @param campo Índice do campo com a descrição
+     * @return O produto com a descrição do campo, ou null caso não exista
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     */
+    public Produto localizar(RegistroCsv registro, int campo) {
+        return localizarPorId(registro.idDescricao(campo, dicionario));
+    }
+
+    /**
+     * Identificador da descrição do produto neste catálogo.
+     * @param produto Produto (não precisa ser o objeto incluído; vale o critério de Produto.equals)
+     * @return O identificador, ou DicionarioDescricoes.AUSENTE se não houver produto igual no catálogo
+     */
+    public int id(Produto produto) {
+        int id = dicionario.procurarDaChave(produto.getChave());
+        return localizarPorId(id) != null ? id : DicionarioDescricoes.AUSENTE;
+    }
+
+    /**
+     * Verifica se existe no catálogo um produto igual ao informado.
+     * @param produto Produto a ser verificado
+     * @return true/false conforme o produto esteja ou não no catálogo
+     */
+    public boolean contem(Produto produto) {
+        return id(produto) != DicionarioDescricoes.AUSENTE;
+    }
+
+    /**
+     * Quantidade de produtos no catálogo.
+     * @return Quantidade de produtos indexados
+     */
+    public int tamanho() {
+        return tamanho.get();
+    }
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CatalogoProdutosTest {
+
+    CatalogoProdutos catalogo;
+    Produto produto;
+
+    @BeforeEach
+    public void prepare(){
+        catalogo = new CatalogoProdutos();
+        produto = new ProdutoNaoPerecivel("Produto teste", 100, 0.1);
+        catalogo.adicionar(produto);
+    }
+
+    @Test
+    public void localizaPelaDescricaoExata(){
+        assertSame(produto, catalogo.localizar("Produto teste"));
+    }
+
+    @Test
+    public void localizaSemDiferenciarMaiusculas(){
+        assertSame(produto, catalogo.localizar("PRODUTO TESTE"));
+    }
+
+    @Test
+    public void retornaNuloParaProdutoInexistente(){
+        assertNull(catalogo.localizar("Produto"));
+    }
+
+    @Test
+    public void naoIncluiProdutoDuplicado(){
+        assertFalse(catalogo.adicionar(new ProdutoNaoPerecivel("produto TESTE", 5, 0.5)));
+        assertEquals(1, catalogo.tamanho());
+        assertSame(produto, catalogo.localizar("produto teste"));
+    }
+
+    @Test
+    public void hashCodeCoerenteComEquals(){
+        Produto outro = new ProdutoNaoPerecivel("PRODUTO teste", 5, 0.5);
+        assertTrue(produto.equals(outro));
+        assertEquals(produto.hashCode(), outro.hashCode());
+    }
+}
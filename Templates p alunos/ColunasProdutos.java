@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Armazenamento colunar de produtos: cada atributo fica em um vetor primitivo próprio (tipo, preço de custo, margem
+ * de lucro e validade como epoch-day), e a posição i de todos os vetores descreve o i-ésimo produto. Operações sobre
+ * o catálogo inteiro, como calcular os valores de venda ou reajustar custos, viram laços simples sobre vetores
+ * contíguos, sem percorrer objetos espalhados pela memória, e cada produto ocupa cerca de 21 bytes além da descrição.
+ * <p>
+ * Os produtos são materializados como {@link Produto} apenas quando pedidos (ver {@link #produto(int)}). Como
+ * produtos não têm modificadores, o objeto materializado equivale a uma visão do produto armazenado; alterações
+ * feitas nas colunas (ex.: {@link #reajustarCustos(double)}) aparecem nas materializações seguintes.
+ */
+public class ColunasProdutos {
+
+    /** Tipos de produto, os mesmos do arquivo de dados */
+    static final byte NAO_PERECIVEL = 1, PERECIVEL = 2;
+
+    /** Validade registrada para produtos não perecíveis: nunca entram no prazo de desconto */
+    private static final int SEM_VALIDADE = Integer.MAX_VALUE;
+
+    private static final int CAPACIDADE_PADRAO = 16;
+
+    private byte[] tipos;
+    private String[] descricoes;
+    private double[] precosCusto;
+    private double[] margensLucro;
+    private int[] validades;
+    private int quantidade;
+
+    /** Cria um armazenamento vazio com a capacidade padrão */
+    public ColunasProdutos() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um armazenamento vazio pré-dimensionado.
+     * @param capacidadeInicial Quantidade de produtos esperada (valores menores que 1 usam a capacidade padrão)
+     */
+    public ColunasProdutos(int capacidadeInicial) {
+        if (capacidadeInicial < 1)
+            capacidadeInicial = CAPACIDADE_PADRAO;
+        tipos = new byte[capacidadeInicial];
+        descricoes = new String[capacidadeInicial];
+        precosCusto = new double[capacidadeInicial];
+        margensLucro = new double[capacidadeInicial];
+        validades = new int[capacidadeInicial];
+    }
+
+    /**
+     * Copia os produtos informados para um armazenamento colunar.
+     * @param produtos Produtos a serem copiados (ex.: um {@link RepositorioProdutos})
+     * @param quantidade Quantidade esperada de produtos, para pré-dimensionamento
+     * @return Armazenamento com os produtos, na mesma ordem
+     */
+    public static ColunasProdutos de(Iterable<Produto> produtos, int quantidade) {
+        ColunasProdutos colunas = new ColunasProdutos(quantidade);
+        for (Produto produto : produtos) {
+            colunas.adicionar(produto);
+        }
+        return colunas;
+    }
+
+    /**
+     * Lê um arquivo de produtos (mesmo formato de App.lerProdutos) diretamente para as colunas, sem criar um objeto
+     * por produto. Retorna null em caso de problemas com o arquivo.
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @return Armazenamento com os produtos do arquivo, ou null em caso de problemas de leitura.
+     */
+    public static ColunasProdutos lerProdutos(String nomeArquivoDados) {
+        FonteRegistros arquivo = null;
+        ColunasProdutos colunas;
+        RegistroCsv linha;
+        try {
+            arquivo = FonteRegistros.abrir(nomeArquivoDados);
+            int numProdutos = arquivo.proximo().inteiro(0);
+            colunas = new ColunasProdutos(numProdutos);
+            for (int i = 0; i < numProdutos && (linha = arquivo.proximo()) != null; i++) {
+                colunas.adicionar(linha);
+            }
+        } catch (IOException excecaoArquivo) {
+            colunas = null;
+        } finally {
+            if (arquivo != null)
+                arquivo.close();
+        }
+        return colunas;
+    }
+
+    /**
+     * Inclui um produto ao final do armazenamento.
+     * @param produto Produto a ser incluído
+     */
+    public void adicionar(Produto produto) {
+        if (produto instanceof ProdutoPerecivel perecivel) {
+            incluir(PERECIVEL, produto.descricao, produto.precoCusto, produto.margemLucro,
+                    (int) perecivel.getDataDeValidade().toEpochDay());
+        } else {
+            incluir(NAO_PERECIVEL, produto.descricao, produto.precoCusto, produto.margemLucro, SEM_VALIDADE);
+        }
+    }
+
+    /**
+     * Inclui um produto a partir de um registro no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]",
+     * com as mesmas validações dos construtores de produto.
+     * @param registro Registro com os dados do produto
+     * @throws IllegalArgumentException em caso de tipo ou valores inválidos
+     */
+    public void adicionar(RegistroCsv registro) {
+        int tipo = registro.inteiro(0);
+        String descricao = registro.texto(1);
+        double precoCusto = registro.decimal(2);
+        double margemLucro = registro.decimal(3);
+        if (descricao.length() < 3 || precoCusto <= 0 || margemLucro <= 0)
+            throw new IllegalArgumentException("Valores inválidos para o produto");
+        if (tipo == NAO_PERECIVEL) {
+            incluir(NAO_PERECIVEL, descricao, precoCusto, margemLucro, SEM_VALIDADE);
+        } else if (tipo == PERECIVEL) {
+            long validade = registro.data(4).toEpochDay();
+            if (validade < Calendario.diaAtual())
+                throw new IllegalArgumentException("Validade anterior ao dia de hoje!");
+            incluir(PERECIVEL, descricao, precoCusto, margemLucro, (int) validade);
+        } else {
+            throw new IllegalArgumentException("Tipo de produto inválido");
+        }
+    }
+
+    private void incluir(byte tipo, String descricao, double precoCusto, double margemLucro, int validade) {
+        if (quantidade == tipos.length)
+            crescer();
+        tipos[quantidade] = tipo;
+        descricoes[quantidade] = descricao;
+        precosCusto[quantidade] = precoCusto;
+        margensLucro[quantidade] = margemLucro;
+        validades[quantidade] = validade;
+        quantidade++;
+    }
+
+    private void crescer() {
+        int novaCapacidade = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        descricoes = Arrays.copyOf(descricoes, novaCapacidade);
+        precosCusto = Arrays.copyOf(precosCusto, novaCapacidade);
+        margensLucro = Arrays.copyOf(margensLucro, novaCapacidade);
+        validades = Arrays.copyOf(validades, novaCapacidade);
+    }
+
+    /** @return Quantidade de produtos armazenados */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Materializa o produto da posição informada.
+     * @param posicao Posição do produto, de 0 a quantidade()-1
+     * @return Um ProdutoNaoPerecivel ou ProdutoPerecivel com os dados atuais das colunas, mesmo que o perecível já
+     * tenha vencido
+     */
+    public Produto produto(int posicao) {
+        verificar(posicao);
+        if (tipos[posicao] == PERECIVEL)
+            return ProdutoPerecivel.restaurar(descricoes[posicao], precosCusto[posicao], margensLucro[posicao],
+                    LocalDate.ofEpochDay(validades[posicao]));
+        return new ProdutoNaoPerecivel(descricoes[posicao], precosCusto[posicao], margensLucro[posicao]);
+    }
+
+    /**
+     * Valor de venda do produto da posição informada, idêntico ao de {@link Produto#valorDeVenda()}.
+     * @param posicao Posição do produto, de 0 a quantidade()-1
+     * @return Valor de venda
+     */
+    public double valorDeVenda(int posicao) {
+        verificar(posicao);
+        return valorDeVenda(posicao, Calendario.diaAtual());
+    }
+
+    private double valorDeVenda(int i, long hoje) {
+        double valor = precosCusto[i] * (1 + margensLucro[i]);
+        return hoje >= (long) validades[i] - ProdutoPerecivel.PRAZO_DESCONTO ? valor * (1 - ProdutoPerecivel.DESCONTO) : valor;
+    }
+
+    /**
+     * Calcula o valor de venda de todos os produtos, na ordem do armazenamento, com a data atual lida uma única vez.
+     * @param destino Vetor com ao menos quantidade() posições, onde os valores são gravados
+     */
+    public void valoresDeVenda(double[] destino) {
+        if (destino.length < quantidade)
+            throw new IllegalArgumentException("Vetor de destino menor que a quantidade de produtos");
+        long hoje = Calendario.diaAtual();
+        for (int i = 0; i < quantidade; i++) {
+            destino[i] = valorDeVenda(i, hoje);
+        }
+    }
+
+    /** @return Soma dos valores de venda de todos os produtos */
+    public double totalDeVenda() {
+        long hoje = Calendario.diaAtual();
+        double total = 0;
+        for (int i = 0; i < quantidade; i++) {
+            total += valorDeVenda(i, hoje);
+        }
+        return total;
+    }
+
+    /** @return Quantidade de produtos perecíveis que estão hoje no prazo de desconto */
+    public int quantidadeComDesconto() {
+        long hoje = Calendario.diaAtual();
+        int total = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (hoje >= (long) validades[i] - ProdutoPerecivel.PRAZO_DESCONTO)
+                total++;
+        }
+        return total;
+    }
+
+    /**
+     * Reajusta o preço de custo de todos os produtos.
+     * @param fator Fator multiplicado a cada preço de custo (ex.: 1.05 para um aumento de 5%); deve ser positivo
+     */
+    public void reajustarCustos(double fator) {
+        if (!(fator > 0))
+            throw new IllegalArgumentException("Fator de reajuste inválido");
+        for (int i = 0; i < quantidade; i++) {
+            precosCusto[i] *= fator;
+        }
+    }
+
+    /** @return Descrição do produto da posição informada */
+    public String descricao(int posicao) {
+        verificar(posicao);
+        return descricoes[posicao];
+    }
+
+    /** @return Preço de custo do produto da posição informada */
+    public double precoCusto(int posicao) {
+        verificar(posicao);
+        return precosCusto[posicao];
+    }
+
+    /** @return Margem de lucro do produto da posição informada */
+    public double margemLucro(int posicao) {
+        verificar(posicao);
+        return margensLucro[posicao];
+    }
+
+    /** @return true se o produto da posição informada é perecível */
+    public boolean perecivel(int posicao) {
+        verificar(posicao);
+        return tipos[posicao] == PERECIVEL;
+    }
+
+    private void verificar(int posicao) {
+        if (posicao < 0 || posicao >= quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+    }
+}
@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ColunasProdutosTest {
+
+    static final LocalDate HOJE = LocalDate.of(2030, 3, 10);
+
+    @TempDir
+    Path pasta;
+
+    RepositorioProdutos produtos;
+
+    @BeforeEach
+    public void prepare() {
+        Calendario.usarRelogio(Clock.fixed(HOJE.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        produtos = new RepositorioProdutos();
+        produtos.adicionar(new ProdutoNaoPerecivel("Caderno", 12.5, 0.3));
+        produtos.adicionar(new ProdutoPerecivel("Iogurte", 3.2, 0.15, HOJE.plusDays(3)));
+        produtos.adicionar(new ProdutoPerecivel("Queijo", 20, 0.4, HOJE.plusDays(30)));
+    }
+
+    @AfterEach
+    public void restauraRelogio() {
+        Calendario.usarRelogio(Clock.systemDefaultZone());
+    }
+
+    @Test
+    public void calculaOsMesmosValoresDosProdutos() {
+        ColunasProdutos colunas = ColunasProdutos.de(produtos, produtos.quantidade());
+        double[] valores = new double[colunas.quantidade()];
+        colunas.valoresDeVenda(valores);
+        double total = 0;
+        for (int i = 0; i < produtos.quantidade(); i++) {
+            assertEquals(produtos.get(i).valorDeVenda(), valores[i]);
+            assertEquals(produtos.get(i).valorDeVenda(), colunas.valorDeVenda(i));
+            total += valores[i];
+        }
+        assertEquals(total, colunas.totalDeVenda(), 1e-9);
+        assertEquals(1, colunas.quantidadeComDesconto());
+    }
+
+    @Test
+    public void materializaProdutosComOsDadosDasColunas() {
+        ColunasProdutos colunas = ColunasProdutos.de(produtos, produtos.quantidade());
+        for (int i = 0; i < produtos.quantidade(); i++) {
+            assertEquals(produtos.get(i).gerarDadosTexto(), colunas.produto(i).gerarDadosTexto());
+        }
+        colunas.reajustarCustos(2);
+        assertEquals(25.0, colunas.produto(0).precoCusto);
+        assertEquals(2 * produtos.get(2).valorDeVenda(), colunas.valorDeVenda(2), 1e-9);
+    }
+
+    @Test
+    public void leArquivoSemCriarProdutos() throws IOException {
+        Path arquivo = pasta.resolve("produtos.csv");
+        GravadorProdutos.gravar(produtos, produtos.quantidade(), arquivo);
+        ColunasProdutos colunas = ColunasProdutos.lerProdutos(arquivo.toString());
+        assertEquals(3, colunas.quantidade());
+        assertTrue(colunas.perecivel(1));
+        assertEquals("Queijo", colunas.descricao(2));
+        assertEquals(produtos.get(1).valorDeVenda(), colunas.valorDeVenda(1));
+    }
+
+    @Test
+    public void materializaPereciveisQueVenceramDepoisDeCarregados() {
+        ColunasProdutos colunas = ColunasProdutos.de(produtos, produtos.quantidade());
+        Calendario.usarRelogio(Clock.fixed(HOJE.plusDays(10).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        Produto iogurte = colunas.produto(1);
+        assertEquals(produtos.get(1).gerarDadosTexto(), iogurte.gerarDadosTexto());
+        assertEquals(colunas.valorDeVenda(1), iogurte.valorDeVenda());
+    }
+}
@@ -1,19 +1,13 @@
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 
 public class Comercio {
-    /** Para inclusão de novos produtos no vetor */
-    static final int MAX_NOVOS_PRODUTOS = 10;
-
     /**
      * Nome do arquivo de dados. O arquivo deve estar localizado na raiz do projeto
      */
@@ -23,13 +17,13 @@ public class Comercio {
     static Scanner teclado;
 
     /**
-     * Vetor de produtos cadastrados. Sempre terá espaço para 10 novos produtos a
-     * cada execução
+     * Repositório de produtos cadastrados. Cresce conforme novos produtos são
+     * incluídos, sem limite fixo
      */
-    static Produto[] produtosCadastrados;
+    static RepositorioProdutos produtosCadastrados;
 
-    /** Quantidade produtos cadastrados atualmente no vetor */
-    static int quantosProdutos;
+    /** Quantidade máxima de produtos listados em uma busca */
+    static final int MAXIMO_RESULTADOS = 50;
 
     /** Gera um efeito de pausa na CLI. Espera por um enter para continuar */
     static void pausa() {
@@ -61,38 +55,40 @@ public class Comercio {
     }
 
     /**
-     * Lê os dados de um arquivo texto e retorna um vetor de produtos. Arquivo no
-     * formato
+     * Lê os dados de um arquivo texto e retorna um repositório de produtos. Arquivo
+     * no formato
      * N (quantiade de produtos) <br/>
      * tipo; descrição;preçoDeCusto;margemDeLucro;[dataDeValidade] <br/>
-     * Deve haver uma linha para cada um dos produtos. Retorna um vetor vazio em
-     * caso de problemas com o arquivo.
+     * Deve haver uma linha para cada um dos produtos. O repositório é
+     * pré-dimensionado a partir de N. Retorna null em caso de problemas com o
+     * arquivo.
      * 
      * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
-     * @return Um vetor com os produtos carregados, ou vazio em caso de problemas de
-     *         leitura.
+     * @return Um repositório com os produtos carregados, ou null em caso de
+     *         problemas de leitura.
      */
-    static Produto[] lerProdutos(String nomeArquivoDados) {
-        Produto[] vetorProdutos;
-        Scanner arqDados = null;
+    static RepositorioProdutos lerProdutos(String nomeArquivoDados) {
+        RepositorioProdutos repositorio;
+        FonteRegistros arqDados = null;
+        long inicio = Metricas.LER_PRODUTOS.iniciar();
         try {
-            arqDados = new Scanner(new File(nomeArquivoDados), Charset.forName("UTF-8"));
-            String primeiraLinha = arqDados.nextLine().trim();
-            String numeroProdutos = primeiraLinha.split(";")[0]; // Pega apenas a primeira parte antes do ;
-            quantosProdutos = Integer.parseInt(numeroProdutos);
-            vetorProdutos = new Produto[quantosProdutos + MAX_NOVOS_PRODUTOS];
-            for (int i = 0; i < quantosProdutos; i++) {
-                String linha = arqDados.nextLine();
-                vetorProdutos[i] = Produto.criarDoTexto(linha);
+            arqDados = FonteRegistros.abrir(nomeArquivoDados);
+            int quantosProdutos = arqDados.proximo().inteiro(0); // Pega apenas a primeira parte antes do ;
+            repositorio = new RepositorioProdutos(quantosProdutos);
+            RegistroCsv linha;
+            for (int i = 0; i < quantosProdutos && (linha = arqDados.proximo()) != null; i++) {
+                repositorio.adicionar(Produto.criarDoRegistro(linha));
             }
+            repositorio.marcarComoGravados();
         } catch (IOException fne) {
-            vetorProdutos = null;
+            repositorio = null;
         } finally {
             if (arqDados != null) {
                 arqDados.close();
             }
+            Metricas.LER_PRODUTOS.registrar(inicio);
         }
-        return vetorProdutos;
+        return repositorio;
     }
 
     /** Lista todos os produtos cadastrados, numerados, um por linha */
@@ -103,30 +99,38 @@ public class Comercio {
             return;
         }
         System.out.println("\nPRODUTOS CADASTRADOS:");
-        for (int i = 0; i < produtosCadastrados.length; i++) {
-            if (produtosCadastrados[i] != null)
-                System.out.println(String.format("%02d - %s", (i + 1), produtosCadastrados[i].toString()));
+        SaidaTexto saida = new SaidaTexto(System.out);
+        for (int i = 0; i < produtosCadastrados.quantidade(); i++) {
+            anexarProdutoNumerado(saida.linha(), i);
+            saida.fimDaLinha();
         }
+        saida.descarregar();
+    }
+
+    /** Anexa a linha "NN - [produto]" do produto na posição informada, numerado a partir de 1 */
+    static void anexarProdutoNumerado(StringBuilder destino, int posicao) {
+        Formatos.anexarDoisDigitos(destino, posicao + 1);
+        destino.append(" - ");
+        produtosCadastrados.get(posicao).anexarTexto(destino);
     }
 
     /**
-     * Localiza um produto no vetor de cadastrados, a partir do nome, e imprime seus
-     * dados.
-     * A busca não é sensível ao caso. Em caso de não encontrar o produto, imprime
-     * mensagem padrão
+     * Procura produtos pelo nome e imprime os dados dos mais relevantes (ver {@link IndiceBusca}).
+     * A busca não é sensível ao caso nem aos acentos e encontra o texto digitado em qualquer parte da descrição.
+     * Em caso de não encontrar o produto, imprime mensagem padrão
      */
     static void localizarProdutos() {
         cabecalho();
         System.out.println("Digite o nome do produto a ser localizado: ");
         String nome = teclado.nextLine();
-        boolean encontrado = false;
-        for (int i = 0; i < produtosCadastrados.length; i++) {
-            if (produtosCadastrados[i] != null && produtosCadastrados[i].toString().contains(nome)) {
-                System.out.println(String.format("%02d - %s", (i + 1), produtosCadastrados[i].toString()));
-                encontrado = true;
-            }
+        int[] encontrados = produtosCadastrados.buscar(nome, MAXIMO_RESULTADOS);
+        SaidaTexto saida = new SaidaTexto(System.out);
+        for (int posicao : encontrados) {
+            anexarProdutoNumerado(saida.linha(), posicao);
+            saida.fimDaLinha();
         }
-        if (!encontrado) {
+        saida.descarregar();
+        if (encontrados.length == 0) {
             System.out.println("Produto não encontrado");
         }
     }
@@ -143,9 +147,10 @@ public class Comercio {
      */
     static void cadastrarProduto() {
         cabecalho();
-        produtosCadastrados[quantosProdutos] = retornaProdutoASerCadastrado();
-        quantosProdutos++;
-        System.out.println("Produto cadastrado com sucesso");
+        if (produtosCadastrados.adicionarSeAusente(retornaProdutoASerCadastrado()))
+            System.out.println("Produto cadastrado com sucesso");
+        else
+            System.out.println("Produto já cadastrado");
     }
 
     static Produto retornaProdutoASerCadastrado() {
@@ -161,30 +166,27 @@ public class Comercio {
             return new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
         } else {
             System.out.println("Digite a data de validade do produto: ");
-            LocalDate dataValidade = LocalDate.parse(teclado.nextLine(), DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+            LocalDate dataValidade = LocalDate.parse(teclado.nextLine(), ConversorCampos.FORMATO_DATA);
             return new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataValidade);
         }
     }
 
     /**
-     * Salva os dados dos produtos cadastrados no arquivo csv informado. Sobrescreve
-     * todo o conteúdo do arquivo.
+     * Salva os dados dos produtos cadastrados no arquivo csv informado. Anexa
+     * apenas os produtos novos quando possível; caso contrário, regrava todo o
+     * conteúdo em um arquivo temporário que substitui o original ao final.
      * 
      * @param nomeArquivo Nome do arquivo a ser gravado.
      */
     public static void salvarProdutos(String nomeArquivo) {
+        long inicio = Metricas.SALVAR_PRODUTOS.iniciar();
         try {
-            FileWriter arquivoSaida = new FileWriter(nomeArquivo, Charset.forName("UTF-8"));
-            arquivoSaida.append(quantosProdutos + "\n");
-            for (int i = 0; i < produtosCadastrados.length; i++) {
-                if (produtosCadastrados[i] != null) {
-                    arquivoSaida.append(produtosCadastrados[i].gerarDadosTexto() + "\n");
-                }
-            }
-            arquivoSaida.close();
+            GravadorProdutos.salvar(produtosCadastrados, Paths.get(nomeArquivo));
             System.out.println("Arquivo " + nomeArquivo + " salvo.");
         } catch (IOException e) {
             System.out.println("Problemas no arquivo " + nomeArquivo + ". Tente novamente.");
+        } finally {
+            Metricas.SALVAR_PRODUTOS.registrar(inicio);
         }
     }
 
@@ -0,0 +1,183 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversões dos campos dos arquivos de dados (inteiros, decimais e datas no formato dd/MM/yyyy) feitas
+ * diretamente sobre os caracteres da linha, sem criar Strings intermediárias, e a formatação inversa desses
+ * campos para gravação. Casos fora do caminho rápido (notação científica, por exemplo) são repassados às
+ * rotinas padrão do Java.
+ */
+public class ConversorCampos {
+
+    /** Formato das datas nos arquivos de dados */
+    static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /** Maior quantidade de centavos formatada sem passar por BigDecimal (precisão bem abaixo de um centavo) */
+    private static final double MAIOR_CENTAVOS_DIRETO = 1e9;
+
+    /** Maior mantissa representada exatamente em um double (2^53) */
+    private static final long MAIOR_MANTISSA_EXATA = 1L << 53;
+
+    /** Potências de 10 representadas exatamente em double */
+    private static final double[] POTENCIAS_10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ConversorCampos() { }
+
+    /**
+     * Converte um trecho de texto em inteiro. Espaços nas extremidades são ignorados.
+     * @param texto Texto de origem
+     * @param inicio Posição inicial (inclusive)
+     * @param fim Posição final (exclusive)
+     * @return O valor inteiro
+     * @throws NumberFormatException caso o trecho não represente um inteiro válido
+     */
+    static int paraInteiro(CharSequence texto, int inicio, int fim) {
+        while (inicio < fim && texto.charAt(inicio) == ' ') inicio++;
+        while (fim > inicio && texto.charAt(fim - 1) == ' ') fim--;
+        if (inicio == fim)
+            throw new NumberFormatException("Valor inteiro vazio");
+        boolean negativo = texto.charAt(inicio) == '-';
+        int i = (negativo || texto.charAt(inicio) == '+') ? inicio + 1 : inicio;
+        if (i == fim || fim - i > 9)
+            return Integer.parseInt(texto.subSequence(inicio, fim).toString());
+        int valor = 0;
+        for (; i < fim; i++) {
+            int digito = texto.charAt(i) - '0';
+            if (digito < 0 || digito > 9)
+                throw new NumberFormatException("Valor inteiro inválido: " + texto.subSequence(inicio, fim));
+            valor = valor * 10 + digito;
+        }
+        return negativo ? -valor : valor;
+    }
+
+    /**
+     * Converte um trecho de texto em double. Valores no formato [sinal]dígitos[.dígitos] com até 15 dígitos
+     * significativos são convertidos diretamente, com o mesmo resultado (arredondamento correto) de
+     * Double.parseDouble; os demais formatos são repassados a Double.parseDouble.
+     * @param texto Texto de origem
+     * @param inicio Posição inicial (inclusive)
+     * @param fim Posição final (exclusive)
+     * @return O valor convertido
+     * @throws NumberFormatException caso o trecho não represente um número válido
+     */
+    static double paraDecimal(CharSequence texto, int inicio, int fim) {
+        while (inicio < fim && texto.charAt(inicio) == ' ') inicio++;
+        while (fim > inicio && texto.charAt(fim - 1) == ' ') fim--;
+        boolean negativo = inicio < fim && texto.charAt(inicio) == '-';
+        int i = (negativo || (inicio < fim && texto.charAt(inicio) == '+')) ? inicio + 1 : inicio;
+        long mantissa = 0;
+        int digitos = 0, casasDecimais = 0;
+        boolean ponto = false, algumDigito = false;
+        for (; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                algumDigito = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digitos++;
+                if (ponto) casasDecimais++;
+            } else if (c == '.' && !ponto) {
+                ponto = true;
+            } else {
+                break;
+            }
+        }
+        if (i < fim || !algumDigito || digitos > 15 || casasDecimais >= POTENCIAS_10.length
+                || mantissa >= MAIOR_MANTISSA_EXATA) {
+            return Double.parseDouble(texto.subSequence(inicio, fim).toString());
+        }
+        double valor = (double) mantissa / POTENCIAS_10[casasDecimais];
+        return negativo ? -valor : valor;
+    }
+
+    /**
+     * Converte um trecho de texto no formato dd/MM/yyyy em data, sem passar por DateTimeFormatter.
+     * Assim como o formatador padrão, dias além do fim do mês (até 31) são ajustados para o último dia do mês.
+     * @param texto Texto de origem
+     * @param inicio Posição inicial (inclusive)
+     * @param fim Posição final (exclusive)
+     * @return A data convertida
+     * @throws DateTimeParseException caso o trecho não esteja no formato dd/MM/yyyy
+     */
+    static LocalDate paraData(CharSequence texto, int inicio, int fim) {
+        while (inicio < fim && texto.charAt(inicio) == ' ') inicio++;
+        while (fim > inicio && texto.charAt(fim - 1) == ' ') fim--;
+        if (fim - inicio != 10 || texto.charAt(inicio + 2) != '/' || texto.charAt(inicio + 5) != '/')
+            return LocalDate.parse(texto.subSequence(inicio, fim), FORMATO_DATA);
+        int dia = doisDigitos(texto, inicio);
+        int mes = doisDigitos(texto, inicio + 3);
+        int seculo = doisDigitos(texto, inicio + 6);
+        int anoDoSeculo = doisDigitos(texto, inicio + 8);
+        int ano = seculo * 100 + anoDoSeculo;
+        if (dia < 1 || dia > 31 || mes < 1 || mes > 12 || seculo < 0 || anoDoSeculo < 0 || ano < 1)
+            return LocalDate.parse(texto.subSequence(inicio, fim), FORMATO_DATA);
+        LocalDate primeiroDia = LocalDate.of(ano, mes, 1);
+        return primeiroDia.withDayOfMonth(Math.min(dia, primeiroDia.lengthOfMonth()));
+    }
+
+    /** Valor de dois dígitos decimais a partir da posição informada, ou -1 se não forem dígitos */
+    private static int doisDigitos(CharSequence texto, int posicao) {
+        int dezena = texto.charAt(posicao) - '0';
+        int unidade = texto.charAt(posicao + 1) - '0';
+        if (dezena < 0 || dezena > 9 || unidade < 0 || unidade > 9)
+            return -1;
+        return dezena * 10 + unidade;
+    }
+
+    /**
+     * Anexa um valor com exatamente duas casas decimais e ponto como separador, com o mesmo resultado de
+     * String.format("%.2f", valor).replace(",", "."), mas sem criar Formatter nem Strings intermediárias.
+     * Valores muito próximos da metade de um centavo são arredondados pela representação decimal do double
+     * (como faz o Formatter).
+     * @param destino Onde o valor será anexado
+     * @param valor Valor a ser formatado
+     */
+    static void anexarDuasCasas(StringBuilder destino, double valor) {
+        double centavos = Math.abs(valor) * 100;
+        double fracao = centavos - Math.floor(centavos);
+        if (!Double.isFinite(valor)) {
+            destino.append(String.format("%.2f", valor));
+            return;
+        }
+        if (centavos >= MAIOR_CENTAVOS_DIRETO || Math.abs(fracao - 0.5) < 1e-6) {
+            destino.append(new BigDecimal(Double.toString(valor)).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            return;
+        }
+        long arredondado = Math.round(centavos);
+        if (Double.doubleToRawLongBits(valor) < 0)
+            destino.append('-');
+        destino.append(arredondado / 100).append('.');
+        int resto = (int) (arredondado % 100);
+        if (resto < 10)
+            destino.append('0');
+        destino.append(resto);
+    }
+
+    /**
+     * Anexa uma data no formato dd/MM/yyyy, sem passar por DateTimeFormatter.
+     * @param destino Onde a data será anexada
+     * @param data Data a ser formatada (anos de 1 a 9999)
+     */
+    static void anexarData(StringBuilder destino, LocalDate data) {
+        int ano = data.getYear();
+        if (ano < 1 || ano > 9999) {
+            destino.append(FORMATO_DATA.format(data));
+            return;
+        }
+        anexarDoisDigitos(destino, data.getDayOfMonth());
+        destino.append('/');
+        anexarDoisDigitos(destino, data.getMonthValue());
+        destino.append('/');
+        anexarDoisDigitos(destino, ano / 100);
+        anexarDoisDigitos(destino, ano % 100);
+    }
+
+    private static void anexarDoisDigitos(StringBuilder destino, int valor) {
+        destino.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+}
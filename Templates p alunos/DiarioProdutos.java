@@ -0,0 +1,277 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Diário (journal) de inclusões de produtos. Cada produto cadastrado é anexado, no mesmo formato de linha de
+ * Produto.gerarDadosTexto(), a um arquivo ao lado do arquivo de produtos ("dadosProdutos.csv.diario"), de modo
+ * que nada se perde se o programa terminar antes de salvar. Na inicialização o diário é reaplicado sobre os
+ * produtos carregados. Quando o diário passa do tamanho limite, ele é compactado em segundo plano: o arquivo de
+ * produtos é regravado com todos os produtos e o diário antigo é descartado.
+ */
+public class DiarioProdutos implements Closeable {
+
+    /** Sufixo do arquivo de diário */
+    static final String SUFIXO_DIARIO = ".diario";
+
+    /** Sufixo do diário em compactação (renomeado ao iniciar a compactação, apagado ao concluí-la) */
+    static final String SUFIXO_COMPACTACAO = ".diario.compactando";
+
+    /** Quantidade de registros anexados entre duas sincronizações com o disco (fsync) */
+    private static final int REGISTROS_POR_SINCRONIZACAO = 32;
+
+    /** Tamanho padrão do diário a partir do qual ele é compactado, em bytes */
+    private static final long LIMITE_COMPACTACAO = 4L << 20;
+
+    /** Arquivo de produtos (base) */
+    private final Path arquivoBase;
+
+    /** Arquivo do diário */
+    private final Path arquivoDiario;
+
+    /** Arquivo do diário em compactação */
+    private final Path arquivoCompactacao;
+
+    /** Tamanho do diário a partir do qual ele é compactado */
+    private final long limiteCompactacao;
+
+    /** Canal de escrita do diário, sempre no modo de anexação */
+    private FileChannel canal;
+
+    /** Registros anexados desde a última sincronização */
+    private int pendentes = 0;
+
+    /** Executor da compactação em segundo plano */
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "compactacao-diario");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Compactação em andamento (ou a última realizada) */
+    private Future<?> compactacao;
+
+    /** Linhas incompletas descartadas pela última reaplicação */
+    private int linhasIgnoradas = 0;
+
+    /**
+     * Abre (ou cria) o diário do arquivo de produtos informado, com o limite de compactação padrão.
+     * @param arquivoBase Arquivo de produtos
+     * @throws IOException caso o diário não possa ser aberto
+     */
+    public DiarioProdutos(Path arquivoBase) throws IOException {
+        this(arquivoBase, LIMITE_COMPACTACAO);
+    }
+
+    /**
+     * Abre (ou cria) o diário do arquivo de produtos informado.
+     * @param arquivoBase Arquivo de produtos
+     * @param limiteCompactacao Tamanho do diário, em bytes, a partir do qual ele é compactado
+     * @throws IOException caso o diário não possa ser aberto
+     */
+    public DiarioProdutos(Path arquivoBase, long limiteCompactacao) throws IOException {
+        this.arquivoBase = arquivoBase;
+        this.arquivoDiario = arquivoBase.resolveSibling(arquivoBase.getFileName() + SUFIXO_DIARIO);
+        this.arquivoCompactacao = arquivoBase.resolveSibling(arquivoBase.getFileName() + SUFIXO_COMPACTACAO);
+        this.limiteCompactacao = limiteCompactacao;
+        abrirCanal();
+    }
+
+    private void abrirCanal() throws IOException {
+        canal = FileChannel.open(arquivoDiario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reaplica sobre o repositório os produtos registrados no diário (inclusive de uma compactação interrompida).
+     * Produtos já existentes no repositório (mesma descrição) são ignorados; perecíveis vencidos depois do registro
+     * são recriados normalmente. Uma última linha sem quebra de linha é uma gravação interrompida: ela é removida do
+     * arquivo e contada em {@link #linhasIgnoradas()}. Qualquer outra linha inválida interrompe a reaplicação, e o
+     * diário não deve ser descartado.
+     * @param produtos Repositório com os produtos carregados do arquivo base
+     * @return Quantidade de produtos incluídos no repositório
+     * @throws IOException em caso de erro de leitura do diário ou de linha inválida
+     */
+    public synchronized int reaplicar(RepositorioProdutos produtos) throws IOException {
+        linhasIgnoradas = 0;
+        return reaplicar(arquivoCompactacao, produtos) + reaplicar(arquivoDiario, produtos);
+    }
+
+    /**
+     * Retorna quantas linhas incompletas (gravações interrompidas) foram descartadas pela última reaplicação.
+     * @return Quantidade de linhas descartadas
+     */
+    public synchronized int linhasIgnoradas() {
+        return linhasIgnoradas;
+    }
+
+    private int reaplicar(Path arquivo, RepositorioProdutos produtos) throws IOException {
+        if (!Files.exists(arquivo))
+            return 0;
+        if (removerLinhaIncompleta(arquivo))
+            linhasIgnoradas++;
+        int incluidos = 0;
+        int numeroLinha = 0;
+        try (FonteRegistros diario = FonteRegistros.abrir(arquivo.toString())) {
+            RegistroCsv registro;
+            while ((registro = diario.proximo()) != null) {
+                numeroLinha++;
+                Produto produto;
+                try {
+                    produto = Produto.restaurarDoRegistro(registro);
+                } catch (RuntimeException linhaInvalida) {
+                    throw new IOException("Linha " + numeroLinha + " inválida em " + arquivo.getFileName() + ": "
+                            + linhaInvalida.getMessage(), linhaInvalida);
+                }
+                if (produtos.localizar(produto.descricao) == null) {
+                    produtos.adicionar(produto);
+                    incluidos++;
+                }
+            }
+        }
+        return incluidos;
+    }
+
+    /**
+     * Remove do fim do arquivo uma linha sem quebra de linha, deixada por uma gravação interrompida. Sem isso, o
+     * próximo registro anexado seria emendado nela.
+     * @param arquivo Arquivo do diário
+     * @return true se havia uma linha incompleta
+     * @throws IOException em caso de erro de leitura ou gravação
+     */
+    private static boolean removerLinhaIncompleta(Path arquivo) throws IOException {
+        try (FileChannel arquivoDiario = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanho = arquivoDiario.size();
+            ByteBuffer bloco = ByteBuffer.allocate(4096);
+            long fim = tamanho;
+            boolean achou = false;
+            while (fim > 0 && !achou) {
+                long inicio = Math.max(0, fim - bloco.capacity());
+                bloco.clear().limit((int) (fim - inicio));
+                while (bloco.hasRemaining() && arquivoDiario.read(bloco, inicio + bloco.position()) >= 0) { }
+                int i = bloco.position() - 1;
+                while (i >= 0 && bloco.get(i) != '\n') {
+                    i--;
+                }
+                achou = i >= 0;
+                fim = inicio + i + 1;
+            }
+            if (fim == tamanho)
+                return false;
+            arquivoDiario.truncate(fim);
+            return true;
+        }
+    }
+
+    /**
+     * Anexa um produto ao diário. A sincronização com o disco é feita a cada
+     * {@value #REGISTROS_POR_SINCRONIZACAO} registros, ou ao chamar {@link #sincronizar()}.
+     * @param produto Produto recém-cadastrado
+     * @throws IOException em caso de erro de gravação
+     */
+    public synchronized void registrar(Produto produto) throws IOException {
+        StringBuilder linha = new StringBuilder(produto.descricao.length() + 32);
+        produto.anexarDadosTexto(linha);
+        linha.append('\n');
+        ByteBuffer bytes = ByteBuffer.wrap(linha.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        if (++pendentes >= REGISTROS_POR_SINCRONIZACAO)
+            sincronizar();
+    }
+
+    /**
+     * Força a gravação em disco dos registros pendentes.
+     * @throws IOException em caso de erro de gravação
+     */
+    public synchronized void sincronizar() throws IOException {
+        if (pendentes > 0) {
+            canal.force(false);
+            pendentes = 0;
+        }
+    }
+
+    /**
+     * Inicia a compactação em segundo plano caso o diário tenha passado do tamanho limite e não haja outra
+     * compactação em andamento. O diário atual é renomeado e um novo diário vazio passa a receber os registros;
+     * em segundo plano, o arquivo base é regravado com uma cópia dos produtos atuais e o diário renomeado é apagado.
+     * @param produtos Repositório com todos os produtos atuais
+     * @return true se a compactação foi iniciada
+     * @throws IOException em caso de erro ao renomear o diário
+     */
+    public synchronized boolean compactarSeNecessario(RepositorioProdutos produtos) throws IOException {
+        if (canal.size() < limiteCompactacao || (compactacao != null && !compactacao.isDone())
+                || Files.exists(arquivoCompactacao))
+            return false;
+        sincronizar();
+        canal.close();
+        Files.move(arquivoDiario, arquivoCompactacao, StandardCopyOption.ATOMIC_MOVE);
+        abrirCanal();
+        Produto[] copia = produtos.paraVetor();
+        compactacao = compactador.submit(() -> {
+            GravadorProdutos.gravar(Arrays.asList(copia), copia.length, arquivoBase);
+            Files.delete(arquivoCompactacao);
+            return null;
+        });
+        return true;
+    }
+
+    /**
+     * Aguarda o fim da compactação em andamento, se houver.
+     * @throws IOException caso a compactação tenha falhado (o diário renomeado é mantido e será reaplicado)
+     */
+    public void aguardarCompactacao() throws IOException {
+        Future<?> emAndamento;
+        synchronized (this) {
+            emAndamento = compactacao;
+        }
+        if (emAndamento == null)
+            return;
+        try {
+            emAndamento.get();
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compactação interrompida", excecao);
+        } catch (ExecutionException excecao) {
+            throw new IOException("Falha na compactação do diário", excecao.getCause());
+        }
+    }
+
+    /**
+     * Descarta o conteúdo do diário. Deve ser chamado depois que todos os produtos foram gravados no arquivo base.
+     * @throws IOException em caso de erro ao esvaziar o diário
+     */
+    public synchronized void descartar() throws IOException {
+        aguardarCompactacao();
+        canal.truncate(0);
+        canal.force(false);
+        pendentes = 0;
+        Files.deleteIfExists(arquivoCompactacao);
+    }
+
+    /** Sincroniza os registros pendentes, aguarda a compactação em andamento e fecha o diário */
+    @Override
+    public void close() throws IOException {
+        try {
+            aguardarCompactacao();
+        } finally {
+            synchronized (this) {
+                compactador.shutdown();
+                sincronizar();
+                canal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DiarioProdutosTest {
+
+    @TempDir
+    Path pasta;
+
+    Path arquivo;
+    RepositorioProdutos produtos;
+
+    @BeforeEach
+    public void prepare() throws IOException {
+        arquivo = pasta.resolve("produtos.csv");
+        produtos = new RepositorioProdutos();
+        produtos.adicionar(new ProdutoNaoPerecivel("Lapis", 1.3, 0.5));
+        GravadorProdutos.salvar(produtos, arquivo);
+    }
+
+    @Test
+    public void reaplicaProdutosRegistradosSemSalvar() throws IOException {
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            Produto borracha = new ProdutoNaoPerecivel("Borracha", 6.5, 0.25);
+            produtos.adicionar(borracha);
+            diario.registrar(borracha);
+        }
+        RepositorioProdutos recarregados = App.lerProdutos(arquivo.toString());
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            assertEquals(1, diario.reaplicar(recarregados));
+            assertEquals(0, diario.reaplicar(recarregados));
+        }
+        assertEquals(2, recarregados.quantidade());
+        assertNotNull(recarregados.localizar("Borracha"));
+    }
+
+    @Test
+    public void reaplicaPerecivelVencidoDepoisDoRegistro() throws IOException {
+        LocalDate hoje = LocalDate.now();
+        try {
+            Calendario.usarRelogio(Clock.fixed(hoje.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+                diario.registrar(new ProdutoPerecivel("Leite", 4.0, 0.5, hoje.plusDays(1)));
+            }
+            Calendario.usarRelogio(Clock.fixed(hoje.plusDays(3).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            RepositorioProdutos recarregados = App.lerProdutos(arquivo.toString());
+            try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+                assertEquals(1, diario.reaplicar(recarregados));
+                assertEquals(0, diario.linhasIgnoradas());
+            }
+            assertNotNull(recarregados.localizar("Leite"));
+        } finally {
+            Calendario.usarRelogio(Clock.systemDefaultZone());
+        }
+    }
+
+    @Test
+    public void descartaSomenteLinhaFinalIncompleta() throws IOException {
+        Path arquivoDiario = pasta.resolve("produtos.csv" + DiarioProdutos.SUFIXO_DIARIO);
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            diario.registrar(new ProdutoNaoPerecivel("Borracha", 6.5, 0.25));
+        }
+        Files.writeString(arquivoDiario, "1;Caneta;2.5;0.2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        RepositorioProdutos recarregados = App.lerProdutos(arquivo.toString());
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            assertEquals(1, diario.reaplicar(recarregados));
+            assertEquals(1, diario.linhasIgnoradas());
+            diario.registrar(new ProdutoNaoPerecivel("Regua", 3.0, 0.3));
+        }
+        assertNull(recarregados.localizar("Caneta"));
+        RepositorioProdutos novamente = App.lerProdutos(arquivo.toString());
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            assertEquals(2, diario.reaplicar(novamente));
+            assertEquals(0, diario.linhasIgnoradas());
+        }
+        assertNotNull(novamente.localizar("Regua"));
+    }
+
+    @Test
+    public void linhaInvalidaNoMeioInterrompeAReaplicacao() throws IOException {
+        Path arquivoDiario = pasta.resolve("produtos.csv" + DiarioProdutos.SUFIXO_DIARIO);
+        Files.writeString(arquivoDiario, "9;Invalido;1;1\n1;Borracha;6.5;0.25\n", StandardCharsets.UTF_8);
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            assertThrows(IOException.class, () -> diario.reaplicar(App.lerProdutos(arquivo.toString())));
+        }
+        assertTrue(Files.size(arquivoDiario) > 0);
+    }
+
+    @Test
+    public void descartaDiarioDepoisDeSalvar() throws IOException {
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo)) {
+            Produto borracha = new ProdutoNaoPerecivel("Borracha", 6.5, 0.25);
+            produtos.adicionar(borracha);
+            diario.registrar(borracha);
+            GravadorProdutos.salvar(produtos, arquivo);
+            diario.descartar();
+        }
+        assertEquals(0, Files.size(pasta.resolve("produtos.csv" + DiarioProdutos.SUFIXO_DIARIO)));
+    }
+
+    @Test
+    public void compactaEmSegundoPlanoAoPassarDoLimite() throws IOException {
+        try (DiarioProdutos diario = new DiarioProdutos(arquivo, 100)) {
+            boolean compactou = false;
+            for (int i = 0; i < 10 && !compactou; i++) {
+                Produto novo = new ProdutoNaoPerecivel("Produto " + i, 10, 0.1);
+                produtos.adicionar(novo);
+                diario.registrar(novo);
+                compactou = diario.compactarSeNecessario(produtos);
+            }
+            assertTrue(compactou);
+            diario.aguardarCompactacao();
+        }
+        assertFalse(Files.exists(pasta.resolve("produtos.csv" + DiarioProdutos.SUFIXO_COMPACTACAO)));
+        assertEquals(produtos.quantidade(), App.lerProdutos(arquivo.toString()).quantidade());
+    }
+}
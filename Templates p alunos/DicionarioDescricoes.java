@@ -0,0 +1,310 @@
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dicionário de descrições de produtos: cada descrição normalizada (ver {@link Produto#normalizarDescricao(String)})
+ * recebe, na primeira vez em que é incluída, um identificador inteiro sequencial (0, 1, 2, ...), e o texto
+ * normalizado é guardado uma única vez. Cada índice (ex.: um {@link CatalogoProdutos}) tem o seu próprio dicionário e
+ * pode usar vetores indexados pelo identificador em vez de tabelas de Strings; os identificadores só têm significado
+ * dentro do dicionário que os gerou.
+ * <p>
+ * A consulta pode ser feita sobre um trecho de texto (por exemplo, um campo de uma linha do arquivo de pedidos), sem
+ * criar a String do campo nem a sua versão em minúsculas: o hash e a comparação são calculados caractere a caractere.
+ * Trechos com caracteres cuja conversão para minúsculas depende do contexto (İ, Σ, pares substitutos) ou localidades
+ * com regras próprias (turco, azeri, lituano) usam a normalização completa.
+ * <p>
+ * O dicionário só cresce enquanto o índice que o usa existir, e descrições apenas consultadas não são incluídas.
+ * As consultas não bloqueiam. A tabela é dividida em segmentos pelo hash da descrição, cada um com a sua trava: só
+ * as inclusões no mesmo segmento esperam umas pelas outras, pois a verificação de ausência e a atribuição do próximo
+ * identificador precisam ser atômicas para que os identificadores fiquem sem lacunas. Os textos ficam em blocos que
+ * nunca são copiados, e as inclusões de segmentos diferentes os gravam sem coordenação.
+ */
+public final class DicionarioDescricoes {
+
+    /** Identificador devolvido para descrições que não estão no dicionário */
+    public static final int AUSENTE = -1;
+
+    /** Localidades com regras de minúsculas que dependem do contexto */
+    private static final Set<String> IDIOMAS_ESPECIAIS = Set.of("tr", "az", "lt");
+
+    /** Indica se a conversão caractere a caractere equivale à normalização na localidade padrão */
+    static final boolean CONVERSAO_SIMPLES =
+            !IDIOMAS_ESPECIAIS.contains(Locale.getDefault().getLanguage());
+
+    /** Capacidade inicial padrão, em descrições */
+    private static final int CAPACIDADE_PADRAO = 16;
+
+    /** Quantidade de segmentos (potência de 2). Inclusões em segmentos diferentes não se bloqueiam */
+    private static final int SEGMENTOS = 16;
+
+    /** Tamanho do primeiro bloco de {@link #blocoDoId(int) blocos por identificador}; cada bloco tem o dobro do anterior */
+    private static final int BLOCO_INICIAL = 16;
+
+    /** Quantidade máxima de blocos, suficiente para qualquer identificador int */
+    static final int MAXIMO_BLOCOS = 28;
+
+    /** Segmento da tabela de espalhamento, com a sua própria trava para inclusões */
+    private static final class Segmento {
+
+        /**
+         * Tabela com endereçamento aberto: cada posição guarda identificador + 1 (0 = vazia). Trocada por uma tabela
+         * maior, já preenchida, quando passa da metade da capacidade
+         */
+        volatile AtomicIntegerArray tabela;
+
+        /** Posições ocupadas na tabela (alterado somente com a trava do segmento) */
+        int ocupadas;
+
+        Segmento(int capacidade) {
+            tabela = new AtomicIntegerArray(capacidade);
+        }
+    }
+
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+
+    /**
+     * Descrições normalizadas, em blocos indexados pelo identificador (ver {@link #blocoDoId(int)}). Os blocos são
+     * criados sob demanda e nunca trocados, de modo que inclusões em segmentos diferentes podem gravar ao mesmo tempo
+     */
+    private final AtomicReferenceArray<String[]> blocos = new AtomicReferenceArray<>(MAXIMO_BLOCOS);
+
+    /** Próximo identificador a ser atribuído */
+    private final AtomicInteger quantidade = new AtomicInteger();
+
+    /** Cria um dicionário vazio com a capacidade padrão */
+    public DicionarioDescricoes() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um dicionário vazio pré-dimensionado.
+     * @param capacidadeInicial Quantidade de descrições esperada (valores menores que 1 usam a capacidade padrão)
+     */
+    public DicionarioDescricoes(int capacidadeInicial) {
+        if (capacidadeInicial < 1)
+            capacidadeInicial = CAPACIDADE_PADRAO;
+        int porSegmento = Math.max(1, Math.min(capacidadeInicial, 1 << 29) / SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(Integer.highestOneBit(porSegmento * 2 - 1) * 2);
+        }
+    }
+
+    /**
+     * Identificador da descrição, incluindo-a no dicionário se ainda não estiver.
+     * @param descricao Descrição do produto
+     * @return Identificador da descrição normalizada (0 ou maior)
+     */
+    public int id(String descricao) {
+        return idDaChave(Produto.normalizarDescricao(descricao));
+    }
+
+    /**
+     * Identificador de uma descrição já normalizada (ex.: Produto.getChave()), incluindo-a se ainda não estiver.
+     * Só a inclusão usa a trava, e apenas a do segmento da descrição.
+     * @param chave Descrição normalizada
+     * @return Identificador da descrição (0 ou maior)
+     */
+    int idDaChave(String chave) {
+        int hash = chave.hashCode();
+        int id = procurarChave(chave, hash);
+        if (id != AUSENTE)
+            return id;
+        Segmento segmento = segmento(hash);
+        synchronized (segmento) {
+            id = procurarChave(chave, hash);
+            if (id == AUSENTE)
+                id = incluir(segmento, chave, hash);
+            return id;
+        }
+    }
+
+    /**
+     * Identificador de uma descrição já incluída.
+     * @param descricao Descrição procurada (não precisa estar normalizada)
+     * @return O identificador, ou {@link #AUSENTE}
+     */
+    public int procurar(String descricao) {
+        return procurarDaChave(Produto.normalizarDescricao(descricao));
+    }
+
+    /**
+     * Identificador de uma descrição já normalizada, sem incluí-la.
+     * @param chave Descrição normalizada
+     * @return O identificador, ou {@link #AUSENTE}
+     */
+    int procurarDaChave(String chave) {
+        return procurarChave(chave, chave.hashCode());
+    }
+
+    /**
+     * Identificador da descrição contida em um trecho de texto, sem criar Strings.
+     * @param texto Texto de origem, com caracteres UTF-16 (ex.: uma linha lida)
+     * @param inicio Posição inicial do trecho (inclusive)
+     * @param fim Posição final do trecho (exclusive)
+     * @return O identificador, ou {@link #AUSENTE}
+     */
+    public int procurar(CharSequence texto, int inicio, int fim) {
+        if (!CONVERSAO_SIMPLES)
+            return procurar(texto.subSequence(inicio, fim).toString());
+        int hash = 0;
+        for (int i = inicio; i < fim; i++) {
+            char caractere = texto.charAt(i);
+            if (caractere >= 0x80 && exigeNormalizacaoCompleta(caractere))
+                return procurar(texto.subSequence(inicio, fim).toString());
+            hash = 31 * hash + Character.toLowerCase(caractere);
+        }
+        AtomicIntegerArray atual = segmento(hash).tabela;
+        int mascara = atual.length() - 1;
+        for (int posicao = hash & mascara; ; posicao = (posicao + 1) & mascara) {
+            int ocupante = atual.get(posicao);
+            if (ocupante == 0)
+                return AUSENTE;
+            String chave = chave(ocupante - 1); // lido depois da posição, para enxergar o texto já publicado
+            if (chave.hashCode() == hash && igual(chave, texto, inicio, fim))
+                return ocupante - 1;
+        }
+    }
+
+    /**
+     * Descrição normalizada de um identificador.
+     * @param id Identificador devolvido por {@link #id(String)}
+     * @return A descrição normalizada
+     */
+    public String chave(int id) {
+        int bloco = blocoDoId(id);
+        return blocos.get(bloco)[posicaoNoBloco(id, bloco)];
+    }
+
+    /**
+     * Bloco de um identificador em estruturas divididas em blocos de tamanho crescente (16, 32, 64, ...), que crescem
+     * sem copiar nem trocar os blocos existentes (usado aqui e em {@link CatalogoProdutos}).
+     * @param id Identificador (0 ou maior)
+     * @return Índice do bloco, menor que {@link #MAXIMO_BLOCOS}
+     */
+    static int blocoDoId(int id) {
+        return 31 - Integer.numberOfLeadingZeros(id / BLOCO_INICIAL + 1);
+    }
+
+    /**
+     * Posição de um identificador dentro do seu bloco.
+     * @param id Identificador (0 ou maior)
+     * @param bloco Bloco do identificador ({@link #blocoDoId(int)})
+     * @return Posição no bloco
+     */
+    static int posicaoNoBloco(int id, int bloco) {
+        return id - BLOCO_INICIAL * ((1 << bloco) - 1);
+    }
+
+    /**
+     * Tamanho de um bloco.
+     * @param bloco Índice do bloco
+     * @return Quantidade de identificadores do bloco
+     */
+    static int tamanhoDoBloco(int bloco) {
+        return BLOCO_INICIAL << bloco;
+    }
+
+    /**
+     * Hash da descrição normalizada contida em um trecho de texto, igual a
+     * Produto.normalizarDescricao(trecho).hashCode(), calculado sem criar Strings quando possível.
+     * @param texto Texto de origem, com caracteres UTF-16
+     * @param inicio Posição inicial do trecho (inclusive)
+     * @param fim Posição final do trecho (exclusive)
+     * @return O hash da descrição normalizada
+     */
+    static int hash(CharSequence texto, int inicio, int fim) {
+        int hash = 0;
+        for (int i = inicio; i < fim; i++) {
+            char caractere = texto.charAt(i);
+            if (!CONVERSAO_SIMPLES || caractere >= 0x80 && exigeNormalizacaoCompleta(caractere))
+                return Produto.normalizarDescricao(texto.subSequence(inicio, fim).toString()).hashCode();
+            hash = 31 * hash + Character.toLowerCase(caractere);
+        }
+        return hash;
+    }
+
+    /**
+     * Quantidade de descrições no dicionário, inclusive as que estão sendo incluídas por outras threads neste momento.
+     * @return Quantidade de identificadores atribuídos
+     */
+    public int quantidade() {
+        return quantidade.get();
+    }
+
+    /** Caracteres cuja conversão para minúsculas não é um para um, ou depende dos caracteres vizinhos */
+    static boolean exigeNormalizacaoCompleta(char caractere) {
+        return caractere == 'İ' || caractere == 'Σ' || Character.isSurrogate(caractere);
+    }
+
+    private static boolean igual(String chave, CharSequence texto, int inicio, int fim) {
+        if (chave.length() != fim - inicio)
+            return false;
+        for (int i = 0; i < chave.length(); i++) {
+            if (chave.charAt(i) != Character.toLowerCase(texto.charAt(inicio + i)))
+                return false;
+        }
+        return true;
+    }
+
+    /** Segmento de uma descrição, escolhido pelos bits altos do hash (os baixos escolhem a posição na tabela) */
+    private Segmento segmento(int hash) {
+        return segmentos[(hash * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(SEGMENTOS))];
+    }
+
+    private int procurarChave(String chave, int hash) {
+        AtomicIntegerArray atual = segmento(hash).tabela;
+        int mascara = atual.length() - 1;
+        for (int posicao = hash & mascara; ; posicao = (posicao + 1) & mascara) {
+            int ocupante = atual.get(posicao);
+            if (ocupante == 0)
+                return AUSENTE;
+            String existente = chave(ocupante - 1);
+            if (existente.hashCode() == hash && existente.equals(chave))
+                return ocupante - 1;
+        }
+    }
+
+    /**
+     * Inclui uma descrição (chamado com a trava do segmento). O texto é gravado antes da posição da tabela, de modo
+     * que uma consulta que encontra o identificador sempre encontra o texto.
+     */
+    private int incluir(Segmento segmento, String chave, int hash) {
+        int id = quantidade.getAndIncrement();
+        int bloco = blocoDoId(id);
+        String[] textos = blocos.get(bloco);
+        if (textos == null) {
+            blocos.compareAndSet(bloco, null, new String[tamanhoDoBloco(bloco)]);
+            textos = blocos.get(bloco);
+        }
+        textos[posicaoNoBloco(id, bloco)] = chave;
+        AtomicIntegerArray atual = segmento.tabela;
+        if ((segmento.ocupadas + 1) * 2 > atual.length())
+            atual = redimensionar(atual);
+        posicionar(atual, hash, id);
+        segmento.tabela = atual;
+        segmento.ocupadas++;
+        return id;
+    }
+
+    /** Cria uma tabela com o dobro da capacidade e os mesmos identificadores */
+    private AtomicIntegerArray redimensionar(AtomicIntegerArray atual) {
+        AtomicIntegerArray nova = new AtomicIntegerArray(atual.length() * 2);
+        for (int posicao = 0; posicao < atual.length(); posicao++) {
+            int ocupante = atual.get(posicao);
+            if (ocupante != 0)
+                posicionar(nova, chave(ocupante - 1).hashCode(), ocupante - 1);
+        }
+        return nova;
+    }
+
+    private static void posicionar(AtomicIntegerArray destino, int hash, int id) {
+        int mascara = destino.length() - 1;
+        int posicao = hash & mascara;
+        while (destino.get(posicao) != 0)
+            posicao = (posicao + 1) & mascara;
+        destino.set(posicao, id + 1);
+    }
+}
@@ -0,0 +1,168 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class DicionarioDescricoesTest {
+
+    final DicionarioDescricoes dicionario = new DicionarioDescricoes();
+
+    @Test
+    public void mesmoIdSemDiferenciarMaiusculas() {
+        int id = dicionario.id("Feijão Preto Dicionário");
+        assertEquals(0, id);
+        assertEquals(id, dicionario.id("FEIJÃO PRETO DICIONÁRIO"));
+        assertEquals(id, dicionario.procurar("feijão preto dicionário"));
+        assertEquals("feijão preto dicionário", dicionario.chave(id));
+        assertNotEquals(id, dicionario.id("Feijão Carioca Dicionário"));
+        assertEquals(DicionarioDescricoes.AUSENTE, dicionario.procurar("Descrição que ninguém cadastrou"));
+        assertEquals(2, dicionario.quantidade());
+    }
+
+    @Test
+    public void dicionariosSaoIndependentes() {
+        DicionarioDescricoes outro = new DicionarioDescricoes(1);
+        dicionario.id("Somente No Primeiro");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, outro.id("Segundo " + i));
+        }
+        assertEquals(DicionarioDescricoes.AUSENTE, outro.procurar("somente no primeiro"));
+        assertEquals(DicionarioDescricoes.AUSENTE, dicionario.procurar("segundo 1"));
+        assertEquals(1, dicionario.quantidade());
+        assertEquals(100, outro.quantidade());
+    }
+
+    @Test
+    public void consultaPorTrechoIgualAConsultaPorTexto() {
+        String[] descricoes = { "Açúcar Cristal Trecho", "ÓLEO DE SOJA TRECHO", "İstanbul Trecho", "ΟΔΟΣ Trecho",
+                "Café 😀 Trecho" };
+        for (String descricao : descricoes) {
+            int id = dicionario.id(descricao);
+            String linha = "xx;" + descricao.toUpperCase() + ";yy";
+            int inicio = 3, fim = 3 + descricao.toUpperCase().length();
+            assertEquals(dicionario.procurar(descricao.toUpperCase()),
+                    dicionario.procurar(linha, inicio, fim), descricao);
+            assertEquals(id, dicionario.procurar(descricao, 0, descricao.length()), descricao);
+        }
+        assertEquals(DicionarioDescricoes.AUSENTE, dicionario.procurar("xx;Nada Aqui;yy", 3, 12));
+    }
+
+    @Test
+    public void catalogoAtribuiIdsApenasAosProdutosIncluidos() {
+        Produto arroz = new ProdutoNaoPerecivel("Arroz Dicionário", 10, 0.1);
+        Produto outro = new ProdutoNaoPerecivel("ARROZ DICIONÁRIO", 20, 0.2);
+        assertEquals(arroz, outro);
+        assertEquals(arroz.hashCode(), outro.hashCode());
+        assertEquals("arroz dicionário", arroz.getChave());
+
+        CatalogoProdutos catalogo = new CatalogoProdutos();
+        assertEquals(DicionarioDescricoes.AUSENTE, catalogo.id(arroz));
+        assertTrue(catalogo.adicionar(new ProdutoNaoPerecivel("Feijão Dicionário", 8, 0.1)));
+        assertTrue(catalogo.adicionar(arroz));
+        assertFalse(catalogo.adicionar(outro));
+        assertEquals(1, catalogo.id(outro));
+        assertSame(arroz, catalogo.localizar("arroz dicionário"));
+        assertSame(arroz, catalogo.localizarPorId(catalogo.id(outro)));
+        assertNull(catalogo.localizarPorId(DicionarioDescricoes.AUSENTE));
+        assertEquals(DicionarioDescricoes.AUSENTE, new CatalogoProdutos().id(arroz));
+    }
+
+    @Test
+    public void registroLidoDeBytesResolveDescricoes() {
+        int feijao = dicionario.id("Feijão Registro");
+        int arroz = dicionario.id("Arroz Registro");
+        byte[] linha = "2;FEIJÃO REGISTRO;arroz registro;Inexistente Registro".getBytes(StandardCharsets.UTF_8);
+        RegistroCsv registro = new RegistroCsv(new VisaoBytes(ByteBuffer.wrap(linha)));
+        assertEquals(feijao, registro.idDescricao(1, dicionario));
+        assertEquals(arroz, registro.idDescricao(2, dicionario));
+        assertEquals(DicionarioDescricoes.AUSENTE, registro.idDescricao(3, dicionario));
+
+        RepositorioProdutos produtos = new RepositorioProdutos();
+        Produto feijaoCadastrado = new ProdutoNaoPerecivel("Feijão Registro", 8, 0.1);
+        produtos.adicionar(feijaoCadastrado);
+        assertSame(feijaoCadastrado, produtos.localizar(registro, 1));
+        assertNull(produtos.localizar(registro, 2));
+    }
+
+    @Test
+    public void inclusoesConcorrentesGeramIdsUnicos() throws Exception {
+        int threads = 8, porThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> resultados = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                resultados.add(executor.submit(() -> {
+                    int[] ids = new int[porThread];
+                    for (int i = 0; i < porThread; i++) {
+                        ids[i] = dicionario.id("Concorrente " + i);
+                        assertEquals(ids[i], dicionario.procurar("CONCORRENTE " + i, 0, 12 + String.valueOf(i).length()));
+                    }
+                    return ids;
+                }));
+            }
+            int[] primeiros = resultados.get(0).get();
+            for (Future<int[]> resultado : resultados) {
+                int[] ids = resultado.get();
+                for (int i = 0; i < porThread; i++) {
+                    assertEquals(primeiros[i], ids[i]);
+                }
+            }
+            assertEquals(porThread, dicionario.quantidade());
+            Set<Integer> distintos = new HashSet<>();
+            for (int i = 0; i < porThread; i++) {
+                assertTrue(distintos.add(primeiros[i]));
+                assertEquals("concorrente " + i, dicionario.chave(primeiros[i]));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void catalogoAceitaCadaDescricaoUmaVezEmInclusoesConcorrentes() throws Exception {
+        int threads = 8, porThread = 5_000;
+        CatalogoProdutos catalogo = new CatalogoProdutos(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                resultados.add(executor.submit(() -> {
+                    int aceitos = 0;
+                    for (int i = 0; i < porThread; i++) {
+                        if (catalogo.adicionar(new ProdutoNaoPerecivel("Catalogo " + i, 1 + i, 0.1)))
+                            aceitos++;
+                        assertNotNull(catalogo.localizar("CATALOGO " + i));
+                    }
+                    return aceitos;
+                }));
+            }
+            int aceitos = 0;
+            for (Future<Integer> resultado : resultados) {
+                aceitos += resultado.get();
+            }
+            assertEquals(porThread, aceitos);
+            assertEquals(porThread, catalogo.tamanho());
+            for (int i = 0; i < porThread; i++) {
+                Produto produto = catalogo.localizar("catalogo " + i);
+                assertSame(produto, catalogo.localizarPorId(catalogo.id(produto)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,466 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Function;
+
+/**
+ * Esteira de processamento de pedidos em estágios: leitura → conversão → resolução → precificação → gravação.
+ * Os estágios são ligados por filas limitadas de lotes de linhas; quando um estágio não acompanha o anterior, sua
+ * fila enche e o anterior espera (contrapressão), de modo que a memória usada não depende do tamanho da entrada e a
+ * entrada pode ser um fluxo sem fim (por exemplo, a entrada padrão alimentada por "tail -f dadosPedidos.csv").
+ * <ul>
+ * <li>leitura (1 thread): lê as linhas da entrada e as agrupa em lotes. Uma primeira linha sem ';' é tratada como o
+ * cabeçalho de quantidade do arquivo de pedidos e ignorada, assim como linhas vazias;</li>
+ * <li>conversão: separa os campos e cria o pedido com a data e a forma de pagamento;</li>
+ * <li>resolução: localiza os produtos do pedido no catálogo (produtos não encontrados são ignorados, como em
+ * {@link Pedido#criarDoRegistro(RegistroCsv, Function)});</li>
+ * <li>precificação: calcula o valor final do pedido;</li>
+ * <li>gravação (1 thread): escreve uma linha por pedido, "númeroDaLinha;OK;valorFinal;itensIncluídos;itensIgnorados"
+ * ou "númeroDaLinha;ERRO;mensagem".</li>
+ * </ul>
+ * Os estágios intermediários podem usar várias threads cada; nesse caso os resultados podem sair fora da ordem de
+ * entrada, e o número da linha identifica cada pedido. Cada estágio mede os itens processados, o tempo ocupado e a
+ * ocupação da sua fila de entrada (ver {@link #estagios()} e {@link #relatorio()}), o que mostra onde está o gargalo.
+ */
+public class EsteiraPedidos {
+
+    /** Quantidade padrão de linhas por lote */
+    public static final int TAMANHO_LOTE_PADRAO = 256;
+
+    /** Capacidade padrão de cada fila, em lotes */
+    public static final int CAPACIDADE_FILA_PADRAO = 32;
+
+    /** Marca de fim de entrada, repassada de estágio em estágio */
+    private static final Item[] FIM = new Item[0];
+
+    /** Pedido em trânsito pela esteira, preenchido por cada estágio */
+    static final class Item {
+        final long numero;
+        final String linha;
+        RegistroCsv registro;
+        Pedido pedido;
+        int ignorados;
+        double valorFinal;
+        String erro;
+
+        Item(long numero, String linha) {
+            this.numero = numero;
+            this.linha = linha;
+        }
+    }
+
+    /** Trabalho de um estágio sobre um item */
+    private interface Etapa {
+        void aplicar(Item item) throws IOException;
+
+        /** Chamado após cada lote, com a indicação de que a fila de entrada está vazia */
+        default void loteConcluido(boolean filaVazia) throws IOException { }
+    }
+
+    /** Um estágio da esteira, com sua fila de entrada e suas medições. Pode ser consultado durante o processamento */
+    public static final class Estagio {
+        private final String nome;
+        private final int threads;
+        private final BlockingQueue<Item[]> fila;
+        private final int capacidadeFila;
+        private final AtomicInteger ativos;
+        private final AtomicLong processados = new AtomicLong();
+        private final AtomicLong nanosOcupado = new AtomicLong();
+        private final AtomicInteger profundidadeMaxima = new AtomicInteger();
+
+        private Estagio(String nome, int threads, int capacidadeFila) {
+            this.nome = nome;
+            this.threads = threads;
+            this.capacidadeFila = capacidadeFila;
+            this.fila = capacidadeFila > 0 ? new ArrayBlockingQueue<>(capacidadeFila) : null;
+            this.ativos = new AtomicInteger(threads);
+        }
+
+        /** Coloca um lote na fila de entrada, esperando se ela estiver cheia */
+        private void receber(Item[] lote) throws InterruptedException {
+            fila.put(lote);
+            int profundidade = fila.size();
+            int maxima;
+            while (profundidade > (maxima = profundidadeMaxima.get())
+                    && !profundidadeMaxima.compareAndSet(maxima, profundidade)) {
+                // outra thread registrou uma profundidade menor ao mesmo tempo; tenta de novo
+            }
+        }
+
+        private void contabilizar(int itens, long nanos) {
+            processados.addAndGet(itens);
+            nanosOcupado.addAndGet(nanos);
+        }
+
+        /** @return Nome do estágio */
+        public String nome() {
+            return nome;
+        }
+
+        /** @return Quantidade de threads do estágio */
+        public int threads() {
+            return threads;
+        }
+
+        /** @return Quantidade de linhas processadas até o momento */
+        public long processados() {
+            return processados.get();
+        }
+
+        /** @return Tempo total de trabalho das threads do estágio, sem contar esperas nas filas, em nanossegundos */
+        public long nanosOcupado() {
+            return nanosOcupado.get();
+        }
+
+        /** @return Lotes aguardando na fila de entrada (0 para a leitura, que não tem fila) */
+        public int profundidadeFila() {
+            return fila == null ? 0 : fila.size();
+        }
+
+        /** @return Capacidade da fila de entrada, em lotes (0 para a leitura) */
+        public int capacidadeFila() {
+            return capacidadeFila;
+        }
+
+        /** @return Maior quantidade de lotes observada na fila de entrada */
+        public int profundidadeMaxima() {
+            return profundidadeMaxima.get();
+        }
+    }
+
+    private final Function<String, Produto> localizador;
+    private int tamanhoLote = TAMANHO_LOTE_PADRAO;
+    private int capacidadeFila = CAPACIDADE_FILA_PADRAO;
+    private int threadsConversao = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int threadsResolucao = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private int threadsPrecificacao = 1;
+
+    private volatile List<Estagio> estagios = List.of();
+    private volatile long inicio;
+    private volatile long fim;
+    private volatile Throwable falha;
+    private final AtomicLong pedidosPrecificados = new AtomicLong();
+    private final AtomicLong linhasRejeitadas = new AtomicLong();
+    private final DoubleAdder receitaTotal = new DoubleAdder();
+
+    /**
+     * @param localizador Localiza um produto pela descrição (ex.: App::localizarProdutoPorNome); deve ser seguro para
+     *                    uso concorrente quando a resolução usar mais de uma thread
+     */
+    public EsteiraPedidos(Function<String, Produto> localizador) {
+        this.localizador = localizador;
+    }
+
+    /** @param linhas Quantidade de linhas por lote (padrão {@value #TAMANHO_LOTE_PADRAO}) */
+    public EsteiraPedidos comTamanhoLote(int linhas) {
+        this.tamanhoLote = Math.max(1, linhas);
+        return this;
+    }
+
+    /** @param lotes Capacidade de cada fila entre estágios, em lotes (padrão {@value #CAPACIDADE_FILA_PADRAO}) */
+    public EsteiraPedidos comCapacidadeFila(int lotes) {
+        this.capacidadeFila = Math.max(1, lotes);
+        return this;
+    }
+
+    /** @param threads Quantidade de threads da conversão (padrão: metade dos processadores) */
+    public EsteiraPedidos comThreadsConversao(int threads) {
+        this.threadsConversao = Math.max(1, threads);
+        return this;
+    }
+
+    /** @param threads Quantidade de threads da resolução de produtos (padrão: um quarto dos processadores) */
+    public EsteiraPedidos comThreadsResolucao(int threads) {
+        this.threadsResolucao = Math.max(1, threads);
+        return this;
+    }
+
+    /** @param threads Quantidade de threads da precificação (padrão 1) */
+    public EsteiraPedidos comThreadsPrecificacao(int threads) {
+        this.threadsPrecificacao = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Processa todos os pedidos da entrada até o seu fim, gravando o resultado de cada um na saída. A saída é
+     * descarregada sempre que a gravação alcança a leitura, para que um fluxo contínuo tenha respostas contínuas.
+     * @param entrada Linhas de pedidos, no formato do arquivo de pedidos
+     * @param saida Destino dos resultados
+     * @throws IOException em caso de erro de leitura ou de gravação
+     */
+    public void processar(Reader entrada, Writer saida) throws IOException {
+        BufferedReader leitor = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada);
+        Writer gravador = saida instanceof BufferedWriter ? saida : new BufferedWriter(saida);
+        Estagio leitura = new Estagio("leitura", 1, 0);
+        Estagio conversao = new Estagio("conversao", threadsConversao, capacidadeFila);
+        Estagio resolucao = new Estagio("resolucao", threadsResolucao, capacidadeFila);
+        Estagio precificacao = new Estagio("precificacao", threadsPrecificacao, capacidadeFila);
+        Estagio gravacao = new Estagio("gravacao", 1, capacidadeFila);
+        falha = null;
+        pedidosPrecificados.set(0);
+        linhasRejeitadas.set(0);
+        receitaTotal.reset();
+        fim = 0;
+        inicio = System.nanoTime();
+        estagios = List.of(leitura, conversao, resolucao, precificacao, gravacao);
+
+        List<Thread> threads = new ArrayList<>();
+        iniciar(threads, conversao, this::converter, resolucao);
+        iniciar(threads, resolucao, this::resolver, precificacao);
+        iniciar(threads, precificacao, this::precificar, gravacao);
+        iniciar(threads, gravacao, new Etapa() {
+            private final StringBuilder linha = new StringBuilder(64);
+
+            @Override
+            public void aplicar(Item item) throws IOException {
+                gravar(item, gravador, linha);
+            }
+
+            @Override
+            public void loteConcluido(boolean filaVazia) throws IOException {
+                if (filaVazia)
+                    gravador.flush();
+            }
+        }, null);
+
+        try {
+            ler(leitor, leitura, conversao);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (falha == null)
+                gravador.flush();
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+            falha = excecao;
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        } finally {
+            fim = System.nanoTime();
+        }
+        if (falha instanceof IOException)
+            throw (IOException) falha;
+        if (falha instanceof RuntimeException)
+            throw (RuntimeException) falha;
+        if (falha instanceof Error)
+            throw (Error) falha;
+        if (falha != null)
+            throw new IOException("Processamento interrompido", falha);
+    }
+
+    /** Lê a entrada em lotes e os entrega à conversão; ao final (ou em caso de falha), envia a marca de fim */
+    private void ler(BufferedReader leitor, Estagio leitura, Estagio proximo) throws InterruptedException {
+        long numero = 0;
+        try {
+            Item[] lote = new Item[tamanhoLote];
+            int quantidade = 0;
+            long ocupado = System.nanoTime();
+            String linha;
+            while (falha == null && (linha = leitor.readLine()) != null) {
+                numero++;
+                if (linha.isEmpty() || (numero == 1 && linha.indexOf(RegistroCsv.SEPARADOR) < 0))
+                    continue;
+                lote[quantidade++] = new Item(numero, linha);
+                if (quantidade == tamanhoLote || !leitor.ready()) {
+                    leitura.contabilizar(quantidade, System.nanoTime() - ocupado);
+                    proximo.receber(quantidade == tamanhoLote ? lote : Arrays.copyOf(lote, quantidade));
+                    lote = new Item[tamanhoLote];
+                    quantidade = 0;
+                    ocupado = System.nanoTime();
+                }
+            }
+            if (quantidade > 0) {
+                leitura.contabilizar(quantidade, System.nanoTime() - ocupado);
+                proximo.receber(Arrays.copyOf(lote, quantidade));
+            }
+        } catch (IOException | RuntimeException excecao) {
+            registrarFalha(excecao);
+        } finally {
+            proximo.receber(FIM);
+        }
+    }
+
+    /** Inicia as threads de um estágio, que aplicam a etapa a cada lote recebido e o repassam ao próximo */
+    private void iniciar(List<Thread> threads, Estagio estagio, Etapa etapa, Estagio proximo) {
+        for (int i = 0; i < estagio.threads; i++) {
+            Thread thread = new Thread(() -> executar(estagio, etapa, proximo), "esteira-" + estagio.nome + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    private void executar(Estagio estagio, Etapa etapa, Estagio proximo) {
+        try {
+            while (true) {
+                Item[] lote = estagio.fila.take();
+                if (lote == FIM) {
+                    estagio.fila.put(FIM); // as demais threads do estágio também precisam ver o fim
+                    break;
+                }
+                // após uma falha, os lotes continuam sendo consumidos (sem processamento) para não travar a leitura
+                if (falha == null) {
+                    long ocupado = System.nanoTime();
+                    try {
+                        for (Item item : lote) {
+                            etapa.aplicar(item);
+                        }
+                        etapa.loteConcluido(estagio.fila.isEmpty());
+                    } catch (IOException | RuntimeException excecao) {
+                        registrarFalha(excecao);
+                    }
+                    estagio.contabilizar(lote.length, System.nanoTime() - ocupado);
+                }
+                if (proximo != null)
+                    proximo.receber(lote);
+            }
+        } catch (InterruptedException excecao) {
+            registrarFalha(excecao);
+        } finally {
+            if (estagio.ativos.decrementAndGet() == 0 && proximo != null) {
+                try {
+                    proximo.receber(FIM);
+                } catch (InterruptedException excecao) {
+                    registrarFalha(excecao);
+                }
+            }
+        }
+    }
+
+    private void registrarFalha(Throwable excecao) {
+        if (falha == null)
+            falha = excecao;
+    }
+
+    /** Conversão: separa os campos e cria o pedido vazio */
+    private void converter(Item item) {
+        try {
+            RegistroCsv registro = new RegistroCsv(item.linha);
+            item.pedido = new Pedido(registro.data(0), registro.inteiro(1), registro.quantidadeCampos() - 2);
+            item.registro = registro;
+        } catch (RuntimeException invalida) {
+            item.erro = String.valueOf(invalida.getMessage()).replace('\n', ' ');
+        }
+    }
+
+    /** Resolução: inclui no pedido os produtos encontrados no catálogo */
+    private void resolver(Item item) {
+        if (item.erro != null)
+            return;
+        RegistroCsv registro = item.registro;
+        for (int i = 2; i < registro.quantidadeCampos(); i++) {
+            Produto produto = localizador.apply(registro.texto(i));
+            if (produto != null)
+                item.pedido.incluirProduto(produto);
+            else
+                item.ignorados++;
+        }
+        item.registro = null;
+    }
+
+    /** Precificação: calcula o valor final */
+    private void precificar(Item item) {
+        if (item.erro == null)
+            item.valorFinal = item.pedido.valorFinal();
+    }
+
+    /** Gravação: escreve o resultado do pedido */
+    private void gravar(Item item, Writer saida, StringBuilder linha) throws IOException {
+        linha.setLength(0);
+        linha.append(item.numero).append(';');
+        if (item.erro != null) {
+            linhasRejeitadas.incrementAndGet();
+            linha.append("ERRO;").append(item.erro);
+        } else {
+            pedidosPrecificados.incrementAndGet();
+            receitaTotal.add(item.valorFinal);
+            linha.append("OK;");
+            ConversorCampos.anexarDuasCasas(linha, item.valorFinal);
+            linha.append(';').append(item.pedido.getQuantProdutos()).append(';').append(item.ignorados);
+        }
+        saida.append(linha).append('\n');
+    }
+
+    /** @return Estágios do processamento atual (ou do último), na ordem da esteira */
+    public List<Estagio> estagios() {
+        return estagios;
+    }
+
+    /** @return Pedidos precificados e gravados */
+    public long pedidosPrecificados() {
+        return pedidosPrecificados.get();
+    }
+
+    /** @return Linhas que não puderam ser convertidas em pedidos */
+    public long linhasRejeitadas() {
+        return linhasRejeitadas.get();
+    }
+
+    /** @return Soma dos valores finais dos pedidos gravados */
+    public double receitaTotal() {
+        return receitaTotal.sum();
+    }
+
+    /**
+     * Relatório das medições de cada estágio: linhas processadas, vazão (linhas por segundo de processamento),
+     * ocupação das threads (tempo ocupado / tempo decorrido) e profundidade da fila de entrada. O estágio com
+     * ocupação próxima de 100% e fila de entrada cheia é o gargalo.
+     * @return Uma linha por estágio
+     */
+    public String relatorio() {
+        long decorrido = (fim != 0 ? fim : System.nanoTime()) - inicio;
+        StringBuilder relatorio = new StringBuilder();
+        for (Estagio estagio : estagios) {
+            double segundos = Math.max(decorrido, 1) / 1e9;
+            relatorio.append(String.format("%-12s %2d thread(s): %,d linhas, %,.0f linhas/s, ocupação %5.1f%%",
+                    estagio.nome, estagio.threads, estagio.processados(), estagio.processados() / segundos,
+                    100.0 * estagio.nanosOcupado() / Math.max(decorrido, 1) / estagio.threads));
+            if (estagio.fila != null)
+                relatorio.append(String.format(", fila %d/%d (máx. %d)", estagio.profundidadeFila(),
+                        estagio.capacidadeFila, estagio.profundidadeMaxima()));
+            relatorio.append('\n');
+        }
+        return relatorio.toString();
+    }
+
+    /**
+     * Processa um arquivo de pedidos (ou a entrada padrão) com o catálogo de um arquivo de produtos e grava os
+     * resultados na saída padrão; o relatório dos estágios vai para a saída de erros.
+     * Uso: EsteiraPedidos arquivoProdutos [arquivoPedidos | -]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: EsteiraPedidos arquivoProdutos [arquivoPedidos | -]");
+            return;
+        }
+        RepositorioProdutos produtos = App.lerProdutos(args[0]);
+        if (produtos == null) {
+            System.err.println("Não foi possível ler " + args[0]);
+            return;
+        }
+        EsteiraPedidos esteira = new EsteiraPedidos(produtos::localizar);
+        Reader entrada = args.length < 2 || args[1].equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+        try (entrada; Writer saida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            esteira.processar(entrada, saida);
+        }
+        System.err.print(esteira.relatorio());
+    }
+}
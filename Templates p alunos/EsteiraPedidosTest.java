@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EsteiraPedidosTest {
+
+    static final int PEDIDOS = 5_000;
+
+    RepositorioProdutos produtos;
+    String entrada;
+
+    @BeforeEach
+    public void prepare() {
+        produtos = new RepositorioProdutos();
+        for (int i = 0; i < 40; i++) {
+            produtos.adicionar(new ProdutoNaoPerecivel("Produto " + i, 1 + i, 0.3));
+        }
+        StringBuilder texto = new StringBuilder().append(PEDIDOS).append('\n');
+        for (int i = 0; i < PEDIDOS; i++) {
+            texto.append(String.format("%02d/03/2030;%d", 1 + i % 28, 1 + i % 2));
+            for (int j = 0; j <= i % 4; j++) {
+                texto.append(";Produto ").append((i * 7 + j) % 45); // de 40 a 44 não estão no catálogo
+            }
+            texto.append('\n');
+        }
+        entrada = texto.toString();
+    }
+
+    /** Resultados gravados, indexados pelo número da linha */
+    static Map<Long, String> resultados(String saida) {
+        Map<Long, String> porLinha = new HashMap<>();
+        for (String linha : saida.split("\n")) {
+            int separador = linha.indexOf(';');
+            porLinha.put(Long.parseLong(linha.substring(0, separador)), linha.substring(separador + 1));
+        }
+        return porLinha;
+    }
+
+    @Test
+    public void precificaCadaPedidoComoOProcessamentoSequencial() throws IOException {
+        EsteiraPedidos esteira = new EsteiraPedidos(produtos::localizar).comTamanhoLote(16).comCapacidadeFila(2)
+                .comThreadsConversao(3).comThreadsResolucao(2).comThreadsPrecificacao(2);
+        StringWriter saida = new StringWriter();
+        esteira.processar(new StringReader(entrada), saida);
+
+        Map<Long, String> porLinha = resultados(saida.toString());
+        assertEquals(PEDIDOS, porLinha.size());
+        String[] linhas = entrada.split("\n");
+        double total = 0;
+        for (int i = 1; i < linhas.length; i++) {
+            RegistroCsv registro = new RegistroCsv(linhas[i]);
+            Pedido pedido = Pedido.criarDoRegistro(registro, produtos::localizar);
+            StringBuilder esperado = new StringBuilder("OK;");
+            ConversorCampos.anexarDuasCasas(esperado, pedido.valorFinal());
+            esperado.append(';').append(pedido.getQuantProdutos()).append(';')
+                    .append(registro.quantidadeCampos() - 2 - pedido.getQuantProdutos());
+            assertEquals(esperado.toString(), porLinha.get((long) i + 1));
+            total += pedido.valorFinal();
+        }
+        assertEquals(PEDIDOS, esteira.pedidosPrecificados());
+        assertEquals(total, esteira.receitaTotal(), 1e-6);
+    }
+
+    @Test
+    public void medeEstagiosERespeitaCapacidadeDasFilas() throws IOException {
+        EsteiraPedidos esteira = new EsteiraPedidos(produtos::localizar).comTamanhoLote(8).comCapacidadeFila(3);
+        esteira.processar(new StringReader(entrada + "data;1;Produto 1\n\n"), new StringWriter());
+
+        List<EsteiraPedidos.Estagio> estagios = esteira.estagios();
+        assertEquals(List.of("leitura", "conversao", "resolucao", "precificacao", "gravacao"),
+                estagios.stream().map(EsteiraPedidos.Estagio::nome).toList());
+        for (EsteiraPedidos.Estagio estagio : estagios) {
+            assertEquals(PEDIDOS + 1, estagio.processados(), estagio.nome());
+            assertTrue(estagio.profundidadeMaxima() <= estagio.capacidadeFila(), estagio.nome());
+        }
+        assertEquals(1, esteira.linhasRejeitadas());
+        assertEquals(PEDIDOS, esteira.pedidosPrecificados());
+        assertEquals(5, esteira.relatorio().split("\n").length);
+    }
+
+    @Test
+    public void falhaNaGravacaoEncerraSemTravar() {
+        Writer defeituoso = new Writer() {
+            @Override
+            public void write(char[] texto, int inicio, int tamanho) throws IOException {
+                throw new IOException("disco cheio");
+            }
+
+            @Override
+            public void flush() { }
+
+            @Override
+            public void close() { }
+        };
+        EsteiraPedidos esteira = new EsteiraPedidos(produtos::localizar).comTamanhoLote(4).comCapacidadeFila(1);
+        IOException excecao = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IOException.class, () -> esteira.processar(new StringReader(entrada), defeituoso)));
+        assertEquals("disco cheio", excecao.getMessage());
+    }
+}
@@ -0,0 +1,361 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Fechamento em lote dos pedidos: calcula, de uma vez, a receita total, por dia, por forma de pagamento e por produto
+ * de todos os pedidos carregados.
+ * <p>
+ * O preço de cada produto do catálogo é calculado uma única vez (uma "foto" dos valores de venda no início do
+ * fechamento), em vez de chamar valorDeVenda a cada ocorrência do produto nos pedidos. Os pedidos são divididos em
+ * blocos processados em um ForkJoinPool (alguns blocos por thread, como em {@link CarregadorParalelo}); cada thread
+ * acumula em estruturas próprias, sem sincronização, e os acumuladores são somados ao final. O total de cada pedido é
+ * calculado como em {@link Pedido#valorFinal()}, inclusive o desconto de pagamento à vista.
+ */
+public class FechamentoPedidos {
+
+    /** Quantidade mínima de pedidos por bloco; abaixo disso o fechamento é feito na thread que chamou */
+    private static final int PEDIDOS_MINIMOS_POR_BLOCO = 4096;
+
+    /** Blocos por thread, para equilibrar a carga quando os pedidos têm tamanhos diferentes */
+    private static final int BLOCOS_POR_THREAD = 4;
+
+    /** Formas de pagamento acumuladas separadamente; outras formas são agrupadas na posição 0 */
+    private static final int A_VISTA = 1, PARCELADO = 2;
+
+    private FechamentoPedidos() { }
+
+    /**
+     * Fecha os pedidos no ForkJoinPool comum.
+     * @param produtos Catálogo de produtos (define a foto de preços e a contabilização por produto)
+     * @param pedidos Pedidos a serem fechados
+     * @return O resultado do fechamento
+     */
+    public static Fechamento calcular(RepositorioProdutos produtos, RepositorioPedidos pedidos) {
+        return calcular(produtos, pedidos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Fecha os pedidos no pool informado.
+     * @param produtos Catálogo de produtos (define a foto de preços e a contabilização por produto)
+     * @param pedidos Pedidos a serem fechados
+     * @param pool Pool onde os blocos de pedidos serão processados
+     * @return O resultado do fechamento
+     */
+    public static Fechamento calcular(RepositorioProdutos produtos, RepositorioPedidos pedidos, ForkJoinPool pool) {
+        LivroPedidos livro = pedidos.livro();
+        TabelaPrecos tabela = new TabelaPrecos(produtos, livro);
+        int quantidade = livro.quantidade();
+        int blocos = (int) Math.max(1, Math.min((long) pool.getParallelism() * BLOCOS_POR_THREAD,
+                quantidade / PEDIDOS_MINIMOS_POR_BLOCO));
+
+        if (blocos == 1) {
+            Acumulador acumulador = new Acumulador(tabela.quantidade());
+            acumulador.processar(livro, 0, quantidade, tabela);
+            return new Fechamento(tabela, acumulador);
+        }
+
+        Map<Thread, Acumulador> porThread = new ConcurrentHashMap<>();
+        List<Callable<Void>> tarefas = new ArrayList<>(blocos);
+        for (int i = 0; i < blocos; i++) {
+            int inicio = (int) ((long) quantidade * i / blocos);
+            int fim = (int) ((long) quantidade * (i + 1) / blocos);
+            tarefas.add(() -> {
+                porThread.computeIfAbsent(Thread.currentThread(), thread -> new Acumulador(tabela.quantidade()))
+                         .processar(livro, inicio, fim, tabela);
+                return null;
+            });
+        }
+        for (Future<Void> tarefa : pool.invokeAll(tarefas)) {
+            aguardar(tarefa);
+        }
+
+        Acumulador total = null;
+        for (Acumulador parcial : porThread.values()) {
+            if (total == null)
+                total = parcial;
+            else
+                total.somar(parcial);
+        }
+        return new Fechamento(tabela, total);
+    }
+
+    private static void aguardar(Future<Void> tarefa) {
+        try {
+            tarefa.get();
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fechamento interrompido", excecao);
+        } catch (ExecutionException excecao) {
+            Throwable causa = excecao.getCause();
+            if (causa instanceof RuntimeException)
+                throw (RuntimeException) causa;
+            if (causa instanceof Error)
+                throw (Error) causa;
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    private static int indiceDaForma(int formaDePagamento) {
+        return formaDePagamento == A_VISTA || formaDePagamento == PARCELADO ? formaDePagamento : 0;
+    }
+
+    /**
+     * Foto dos preços: posição de cada produto no catálogo e seu valor de venda, calculado uma vez. As posições são
+     * indexadas pelo identificador da descrição no catálogo e, para os itens dos pedidos, pelo código do produto no
+     * livro de pedidos, resolvido uma única vez por código.
+     */
+    private static final class TabelaPrecos {
+        final RepositorioProdutos catalogo;
+        /** Posição + 1 do produto com cada identificador do catálogo (0 = fora da foto) */
+        final int[] posicoesPorId;
+        /** Posição no catálogo de cada código de produto do livro (-1 = fora do catálogo) */
+        final int[] posicoesPorCodigo;
+        final Produto[] produtos;
+        final double[] precos;
+
+        TabelaPrecos(RepositorioProdutos catalogo, LivroPedidos livro) {
+            this.catalogo = catalogo;
+            produtos = catalogo.paraVetor();
+            precos = new double[produtos.length];
+            int[] ids = new int[produtos.length];
+            int maiorId = -1;
+            for (int i = 0; i < produtos.length; i++) {
+                ids[i] = catalogo.idDoProduto(produtos[i]);
+                maiorId = Math.max(maiorId, ids[i]);
+            }
+            posicoesPorId = new int[maiorId + 1];
+            for (int i = 0; i < produtos.length; i++) {
+                if (ids[i] >= 0 && posicoesPorId[ids[i]] == 0)
+                    posicoesPorId[ids[i]] = i + 1;
+                precos[i] = produtos[i].valorDeVenda();
+            }
+            posicoesPorCodigo = new int[livro.quantidadeCodigos()];
+            for (int codigo = 0; codigo < posicoesPorCodigo.length; codigo++) {
+                posicoesPorCodigo[codigo] = posicao(livro.produtoDoCodigo(codigo));
+            }
+        }
+
+        /** @return Posição do produto no catálogo, ou -1 se não estiver nele */
+        int posicao(Produto produto) {
+            int id = catalogo.idDoProduto(produto);
+            return id >= 0 && id < posicoesPorId.length ? posicoesPorId[id] - 1 : -1;
+        }
+
+        /** @return Posição no catálogo do produto com o código do livro informado, ou -1 */
+        int posicaoDoCodigo(int codigo) {
+            return posicoesPorCodigo[codigo];
+        }
+
+        int quantidade() {
+            return produtos.length;
+        }
+    }
+
+    /** Totais parciais de uma thread */
+    private static final class Acumulador {
+        final double[] receitaPorProduto;
+        final int[] quantidadePorProduto;
+        final Map<LocalDate, double[]> porDia = new HashMap<>();
+        final double[] receitaPorForma = new double[3];
+        final int[] pedidosPorForma = new int[3];
+        double descontoAVista;
+        double receitaForaDoCatalogo;
+        int itensForaDoCatalogo;
+
+        Acumulador(int quantidadeProdutos) {
+            receitaPorProduto = new double[quantidadeProdutos];
+            quantidadePorProduto = new int[quantidadeProdutos];
+        }
+
+        /** Percorre os pedidos diretamente nos vetores do livro, sem criar as visões */
+        void processar(LivroPedidos livro, int inicio, int fim, TabelaPrecos tabela) {
+            int diaAnterior = 0;
+            double[] totaisDoDia = null;
+            for (int i = inicio; i < fim; i++) {
+                int formaDePagamento = livro.formaDePagamento(i);
+                double fator = formaDePagamento == A_VISTA ? 1 - Pedido.DESCONTO_PG_A_VISTA : 1;
+                double bruto = 0.0;
+                for (int item = livro.inicioItens(i), ultimo = livro.inicioItens(i + 1); item < ultimo; item++) {
+                    int codigo = livro.codigoItem(item);
+                    int posicao = tabela.posicaoDoCodigo(codigo);
+                    double preco;
+                    if (posicao >= 0) {
+                        preco = tabela.precos[posicao];
+                        receitaPorProduto[posicao] += preco * fator;
+                        quantidadePorProduto[posicao]++;
+                    } else {
+                        preco = livro.produtoDoCodigo(codigo).valorDeVenda();
+                        receitaForaDoCatalogo += preco * fator;
+                        itensForaDoCatalogo++;
+                    }
+                    bruto += preco;
+                }
+                double valorFinal = bruto * fator;
+                int forma = indiceDaForma(formaDePagamento);
+                receitaPorForma[forma] += valorFinal;
+                pedidosPorForma[forma]++;
+                descontoAVista += bruto - valorFinal;
+                int dia = livro.diaEpoca(i);
+                if (totaisDoDia == null || dia != diaAnterior) {
+                    totaisDoDia = porDia.computeIfAbsent(LocalDate.ofEpochDay(dia), data -> new double[2]);
+                    diaAnterior = dia;
+                }
+                totaisDoDia[0] += valorFinal;
+                totaisDoDia[1]++;
+            }
+        }
+
+        void somar(Acumulador outro) {
+            for (int i = 0; i < receitaPorProduto.length; i++) {
+                receitaPorProduto[i] += outro.receitaPorProduto[i];
+                quantidadePorProduto[i] += outro.quantidadePorProduto[i];
+            }
+            for (Map.Entry<LocalDate, double[]> dia : outro.porDia.entrySet()) {
+                double[] total = porDia.computeIfAbsent(dia.getKey(), data -> new double[2]);
+                total[0] += dia.getValue()[0];
+                total[1] += dia.getValue()[1];
+            }
+            for (int i = 0; i < receitaPorForma.length; i++) {
+                receitaPorForma[i] += outro.receitaPorForma[i];
+                pedidosPorForma[i] += outro.pedidosPorForma[i];
+            }
+            descontoAVista += outro.descontoAVista;
+            receitaForaDoCatalogo += outro.receitaForaDoCatalogo;
+            itensForaDoCatalogo += outro.itensForaDoCatalogo;
+        }
+    }
+
+    /** Resultado de um fechamento. Os valores refletem a foto de preços tirada no início do fechamento */
+    public static final class Fechamento {
+        private final TabelaPrecos tabela;
+        private final Acumulador totais;
+        private final SortedMap<LocalDate, Double> receitaPorDia;
+        private final SortedMap<LocalDate, Integer> pedidosPorDia;
+
+        private Fechamento(TabelaPrecos tabela, Acumulador totais) {
+            this.tabela = tabela;
+            this.totais = totais;
+            TreeMap<LocalDate, Double> receitas = new TreeMap<>();
+            TreeMap<LocalDate, Integer> quantidades = new TreeMap<>();
+            for (Map.Entry<LocalDate, double[]> dia : totais.porDia.entrySet()) {
+                receitas.put(dia.getKey(), dia.getValue()[0]);
+                quantidades.put(dia.getKey(), (int) dia.getValue()[1]);
+            }
+            this.receitaPorDia = Collections.unmodifiableSortedMap(receitas);
+            this.pedidosPorDia = Collections.unmodifiableSortedMap(quantidades);
+        }
+
+        /** @return Soma do valor final de todos os pedidos */
+        public double receitaTotal() {
+            double total = 0;
+            for (double receita : totais.receitaPorForma) {
+                total += receita;
+            }
+            return total;
+        }
+
+        /** @return Quantidade de pedidos fechados */
+        public int quantidadePedidos() {
+            int total = 0;
+            for (int pedidos : totais.pedidosPorForma) {
+                total += pedidos;
+            }
+            return total;
+        }
+
+        /** @return Receita de cada dia com pedidos, em ordem cronológica */
+        public SortedMap<LocalDate, Double> receitaPorDia() {
+            return receitaPorDia;
+        }
+
+        /** @return Quantidade de pedidos de cada dia com pedidos, em ordem cronológica */
+        public SortedMap<LocalDate, Integer> pedidosPorDia() {
+            return pedidosPorDia;
+        }
+
+        /**
+         * @param formaDePagamento 1 (à vista) ou 2 (parcelado); outros valores retornam a receita das demais formas
+         * @return Receita dos pedidos com a forma de pagamento informada
+         */
+        public double receitaPorForma(int formaDePagamento) {
+            return totais.receitaPorForma[indiceDaForma(formaDePagamento)];
+        }
+
+        /**
+         * @param formaDePagamento 1 (à vista) ou 2 (parcelado); outros valores retornam a quantidade das demais formas
+         * @return Quantidade de pedidos com a forma de pagamento informada
+         */
+        public int pedidosPorForma(int formaDePagamento) {
+            return totais.pedidosPorForma[indiceDaForma(formaDePagamento)];
+        }
+
+        /** @return Total concedido como desconto de pagamento à vista */
+        public double descontoAVista() {
+            return totais.descontoAVista;
+        }
+
+        /**
+         * @param produto Produto do catálogo
+         * @return Receita do produto (já com o desconto dos pedidos à vista), ou 0 se não estiver no catálogo
+         */
+        public double receitaDoProduto(Produto produto) {
+            int posicao = tabela.posicao(produto);
+            return posicao < 0 ? 0 : totais.receitaPorProduto[posicao];
+        }
+
+        /**
+         * @param produto Produto do catálogo
+         * @return Quantidade de unidades vendidas do produto, ou 0 se não estiver no catálogo
+         */
+        public int quantidadeVendida(Produto produto) {
+            int posicao = tabela.posicao(produto);
+            return posicao < 0 ? 0 : totais.quantidadePorProduto[posicao];
+        }
+
+        /** @return Quantidade de itens de pedidos cujo produto não está no catálogo (incluídos apenas nos totais) */
+        public int itensForaDoCatalogo() {
+            return totais.itensForaDoCatalogo;
+        }
+
+        /**
+         * Produtos com maior receita.
+         * @param quantidade Quantidade máxima de produtos
+         * @return Produtos em ordem decrescente de receita (apenas os que foram vendidos)
+         */
+        public List<Produto> maisVendidos(int quantidade) {
+            List<Integer> posicoes = new ArrayList<>();
+            for (int i = 0; i < tabela.quantidade(); i++) {
+                if (totais.quantidadePorProduto[i] > 0)
+                    posicoes.add(i);
+            }
+            posicoes.sort((a, b) -> Double.compare(totais.receitaPorProduto[b], totais.receitaPorProduto[a]));
+            List<Produto> produtos = new ArrayList<>(Math.min(quantidade, posicoes.size()));
+            for (int i = 0; i < quantidade && i < posicoes.size(); i++) {
+                produtos.add(tabela.produtos[posicoes.get(i)]);
+            }
+            return produtos;
+        }
+
+        /** @return Resumo do fechamento: totais gerais e por forma de pagamento */
+        @Override
+        public String toString() {
+            return String.format("Fechamento de %d pedidos em %d dias: R$ %.2f%n"
+                    + "  À vista: %d pedidos, R$ %.2f (desconto concedido: R$ %.2f)%n"
+                    + "  Parcelado: %d pedidos, R$ %.2f",
+                    quantidadePedidos(), receitaPorDia.size(), receitaTotal(),
+                    pedidosPorForma(A_VISTA), receitaPorForma(A_VISTA), descontoAVista(),
+                    pedidosPorForma(PARCELADO), receitaPorForma(PARCELADO));
+        }
+    }
+}
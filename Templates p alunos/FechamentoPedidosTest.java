@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FechamentoPedidosTest {
+
+    static final LocalDate HOJE = LocalDate.of(2030, 3, 10);
+
+    RepositorioProdutos produtos;
+    RepositorioPedidos pedidos;
+
+    @BeforeEach
+    public void prepare() {
+        Calendario.usarRelogio(Clock.fixed(HOJE.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        produtos = new RepositorioProdutos();
+        for (int i = 0; i < 50; i++) {
+            if (i % 3 == 0)
+                produtos.adicionar(new ProdutoPerecivel("Perecível " + i, 1 + i, 0.2, HOJE.plusDays(i)));
+            else
+                produtos.adicionar(new ProdutoNaoPerecivel("Produto " + i, 1 + i, 0.3));
+        }
+        Random sorteio = new Random(3);
+        pedidos = new RepositorioPedidos();
+        for (int i = 0; i < 20_000; i++) {
+            Pedido pedido = new Pedido(HOJE.minusDays(sorteio.nextInt(10)), 1 + sorteio.nextInt(2));
+            for (int j = 0, itens = 1 + sorteio.nextInt(5); j < itens; j++) {
+                pedido.incluirProduto(produtos.get(sorteio.nextInt(produtos.quantidade())));
+            }
+            pedidos.adicionar(pedido);
+        }
+    }
+
+    @AfterEach
+    public void restauraRelogio() {
+        Calendario.usarRelogio(Clock.systemDefaultZone());
+    }
+
+    @Test
+    public void totaisConferemComValorFinalDeCadaPedido() {
+        double total = 0, aVista = 0;
+        int pedidosAVista = 0;
+        Map<LocalDate, Double> porDia = new HashMap<>();
+        for (Pedido pedido : pedidos) {
+            double valor = pedido.valorFinal();
+            total += valor;
+            porDia.merge(pedido.getDataPedido(), valor, Double::sum);
+            if (pedido.getFormaDePagamento() == 1) {
+                aVista += valor;
+                pedidosAVista++;
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FechamentoPedidos.Fechamento fechamento = FechamentoPedidos.calcular(produtos, pedidos, pool);
+            assertEquals(20_000, fechamento.quantidadePedidos());
+            assertEquals(total, fechamento.receitaTotal(), 1e-6);
+            assertEquals(aVista, fechamento.receitaPorForma(1), 1e-6);
+            assertEquals(pedidosAVista, fechamento.pedidosPorForma(1));
+            assertEquals(20_000 - pedidosAVista, fechamento.pedidosPorForma(2));
+            assertEquals(porDia.size(), fechamento.receitaPorDia().size());
+            for (Map.Entry<LocalDate, Double> dia : porDia.entrySet()) {
+                assertEquals(dia.getValue(), fechamento.receitaPorDia().get(dia.getKey()), 1e-6);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void contabilizaCadaProduto() {
+        Produto produto = produtos.get(7);
+        int vendidos = 0;
+        double receita = 0;
+        for (Pedido pedido : pedidos) {
+            for (int j = 0; j < pedido.getQuantProdutos(); j++) {
+                if (pedido.getProduto(j) == produto) {
+                    vendidos++;
+                    receita += produto.valorDeVenda() * (pedido.getFormaDePagamento() == 1 ? 0.85 : 1);
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FechamentoPedidos.Fechamento fechamento = FechamentoPedidos.calcular(produtos, pedidos, pool);
+            assertEquals(vendidos, fechamento.quantidadeVendida(produto));
+            assertEquals(receita, fechamento.receitaDoProduto(produto), 1e-6);
+            List<Produto> maisVendidos = fechamento.maisVendidos(1);
+            assertEquals(1, maisVendidos.size());
+            assertEquals(0, fechamento.itensForaDoCatalogo());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
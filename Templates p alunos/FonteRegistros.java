@@ -0,0 +1,38 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Origem sequencial de registros dos arquivos de dados separados por ';'. O registro retornado por
+ * {@link #proximo()} pode ser reaproveitado pela implementação e só é válido até a próxima leitura.
+ */
+public interface FonteRegistros extends Closeable {
+
+    /** Tamanho a partir do qual os arquivos são lidos por mapeamento em memória, em bytes */
+    long LIMITE_MAPEAMENTO = 1L << 20;
+
+    /**
+     * Lê a próxima linha da origem.
+     * @return O registro com os campos da linha, ou null ao fim da origem
+     * @throws IOException em caso de erro de leitura
+     */
+    RegistroCsv proximo() throws IOException;
+
+    /** Fecha a origem. Erros ao fechar são ignorados, como em Scanner.close() */
+    @Override
+    void close();
+
+    /**
+     * Abre um arquivo de dados em UTF-8 para leitura, escolhendo a forma de leitura pelo tamanho do arquivo:
+     * arquivos grandes são mapeados em memória ({@link LeitorMapeado}); os demais são lidos por um
+     * {@link LeitorRegistros}.
+     * @param nomeArquivo Nome do arquivo
+     * @return Uma fonte posicionada no início do arquivo
+     * @throws IOException caso o arquivo não possa ser aberto
+     */
+    static FonteRegistros abrir(String nomeArquivo) throws IOException {
+        if (new File(nomeArquivo).length() >= LIMITE_MAPEAMENTO)
+            return LeitorMapeado.abrir(nomeArquivo);
+        return LeitorRegistros.abrir(nomeArquivo);
+    }
+}
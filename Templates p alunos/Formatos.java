@@ -0,0 +1,107 @@
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+
+/**
+ * Formatação dos textos exibidos ao usuário (listagens de produtos e pedidos), com os formatadores preparados uma
+ * única vez e seguros para uso por várias threads.
+ * <p>
+ * Os valores monetários saem idênticos aos de NumberFormat.getCurrencyInstance() na localidade padrão do momento
+ * em que a classe é carregada (prefixo, sufixo, separadores e agrupamento são lidos do próprio formatador), mas são
+ * anexados diretamente ao destino, sem criar o formatador nem Strings intermediárias a cada chamada. Os casos em que
+ * o arredondamento do formatador (HALF_EVEN sobre o valor exato do double) poderia diferir — valores a menos de um
+ * milionésimo de centavo da metade, negativos, muito grandes ou moedas sem exatamente duas casas — são repassados a
+ * uma cópia do formatador por thread.
+ */
+public final class Formatos {
+
+    /** Maior quantidade de centavos formatada pelo caminho direto */
+    private static final double MAIOR_CENTAVOS_DIRETO = 1e12;
+
+    /** Formatador de moeda por thread (NumberFormat não é seguro para uso concorrente), para os casos difíceis */
+    private static final ThreadLocal<NumberFormat> MOEDA = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
+
+    private static final String PREFIXO;
+    private static final String SUFIXO;
+    private static final char SEPARADOR_DECIMAL;
+    private static final char SEPARADOR_MILHAR;
+    /** Tamanho dos grupos de milhar, ou 0 se a moeda não agrupa os dígitos */
+    private static final int TAMANHO_GRUPO;
+    /** Indica se o caminho direto reproduz o formatador da localidade */
+    private static final boolean DIRETO;
+
+    static {
+        NumberFormat moeda = MOEDA.get();
+        if (moeda instanceof DecimalFormat) {
+            DecimalFormat decimal = (DecimalFormat) moeda;
+            DecimalFormatSymbols simbolos = decimal.getDecimalFormatSymbols();
+            PREFIXO = decimal.getPositivePrefix();
+            SUFIXO = decimal.getPositiveSuffix();
+            SEPARADOR_DECIMAL = simbolos.getMonetaryDecimalSeparator();
+            SEPARADOR_MILHAR = simbolos.getGroupingSeparator();
+            TAMANHO_GRUPO = decimal.isGroupingUsed() ? decimal.getGroupingSize() : 0;
+            DIRETO = decimal.getMinimumFractionDigits() == 2 && decimal.getMaximumFractionDigits() == 2
+                    && decimal.getMinimumIntegerDigits() == 1 && decimal.getMultiplier() == 1;
+        } else {
+            PREFIXO = SUFIXO = "";
+            SEPARADOR_DECIMAL = SEPARADOR_MILHAR = ' ';
+            TAMANHO_GRUPO = 0;
+            DIRETO = false;
+        }
+    }
+
+    private Formatos() { }
+
+    /**
+     * Anexa um valor monetário, no mesmo formato de NumberFormat.getCurrencyInstance().format(valor)
+     * (ex.: "R$ 1.234,50" em pt-BR).
+     * @param destino Onde o valor será anexado
+     * @param valor Valor a ser formatado
+     */
+    public static void anexarMoeda(StringBuilder destino, double valor) {
+        double centavos = valor * 100;
+        double fracao = centavos - Math.floor(centavos);
+        if (!DIRETO || !(valor >= 0) || centavos >= MAIOR_CENTAVOS_DIRETO || Math.abs(fracao - 0.5) < 1e-6) {
+            destino.append(MOEDA.get().format(valor));
+            return;
+        }
+        long arredondado = Math.round(centavos);
+        destino.append(PREFIXO);
+        anexarInteiroAgrupado(destino, arredondado / 100);
+        int resto = (int) (arredondado % 100);
+        destino.append(SEPARADOR_DECIMAL).append((char) ('0' + resto / 10)).append((char) ('0' + resto % 10));
+        destino.append(SUFIXO);
+    }
+
+    /** Anexa um inteiro não negativo com os separadores de milhar da moeda */
+    private static void anexarInteiroAgrupado(StringBuilder destino, long valor) {
+        int inicio = destino.length();
+        destino.append(valor);
+        if (TAMANHO_GRUPO <= 0)
+            return;
+        for (int posicao = destino.length() - TAMANHO_GRUPO; posicao > inicio; posicao -= TAMANHO_GRUPO) {
+            destino.insert(posicao, SEPARADOR_MILHAR);
+        }
+    }
+
+    /**
+     * Anexa uma data no formato dd/MM/yyyy.
+     * @param destino Onde a data será anexada
+     * @param data Data a ser formatada
+     */
+    public static void anexarData(StringBuilder destino, LocalDate data) {
+        ConversorCampos.anexarData(destino, data);
+    }
+
+    /**
+     * Anexa um número com ao menos dois dígitos, como String.format("%02d", numero).
+     * @param destino Onde o número será anexado
+     * @param numero Número não negativo
+     */
+    public static void anexarDoisDigitos(StringBuilder destino, int numero) {
+        if (numero < 10)
+            destino.append('0');
+        destino.append(numero);
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.text.NumberFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class FormatosTest {
+
+    static String moeda(double valor) {
+        StringBuilder texto = new StringBuilder();
+        Formatos.anexarMoeda(texto, valor);
+        return texto.toString();
+    }
+
+    @AfterEach
+    public void restauraRelogio() {
+        Calendario.usarRelogio(Clock.systemDefaultZone());
+    }
+
+    @Test
+    public void moedaIgualAoNumberFormat() {
+        NumberFormat esperado = NumberFormat.getCurrencyInstance();
+        double[] casos = { 0, 0.004, 0.005, 0.015, 0.125, 1.125, 2.675, 10.745, 999.995, 1_000, 1_234_567.891,
+                12_345_678_901.5, 1e15, -3.5, -0.001 };
+        for (double valor : casos) {
+            assertEquals(esperado.format(valor), moeda(valor), "valor " + valor);
+        }
+        SplittableRandom sorteio = new SplittableRandom(21);
+        for (int i = 0; i < 200_000; i++) {
+            double valor = i % 2 == 0 ? sorteio.nextDouble(0, 1_000) : sorteio.nextInt(10_000_000) / 1000.0;
+            assertEquals(esperado.format(valor), moeda(valor), "valor " + valor);
+        }
+    }
+
+    @Test
+    public void produtosEPedidosMantemOTextoAnterior() {
+        LocalDate hoje = LocalDate.of(2030, 3, 10);
+        Calendario.usarRelogio(Clock.fixed(hoje.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        NumberFormat moeda = NumberFormat.getCurrencyInstance();
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        Produto arroz = new ProdutoNaoPerecivel("Arroz", 1_234.5, 0.2);
+        Produto leite = new ProdutoPerecivel("Leite", 4, 0.3, hoje.plusDays(3));
+
+        assertEquals("Arroz: " + moeda.format(1_481.4), arroz.toString());
+        assertEquals("Leite: " + moeda.format(4 * 1.3 * 0.75) + " - Válido até 13/03/2030", leite.toString());
+
+        Pedido pedido = new Pedido(hoje, 2);
+        pedido.incluirProduto(arroz);
+        pedido.incluirProduto(leite);
+        assertEquals("Data do pedido: " + hoje.format(formato) + "\nPedido com 2 produtos.\nProdutos no pedido:\n"
+                + arroz + "\n" + leite + "\n", pedido.toString());
+    }
+
+    @Test
+    public void doisDigitos() {
+        StringBuilder texto = new StringBuilder();
+        Formatos.anexarDoisDigitos(texto, 7);
+        texto.append(' ');
+        Formatos.anexarDoisDigitos(texto, 42);
+        texto.append(' ');
+        Formatos.anexarDoisDigitos(texto, 123);
+        assertEquals(String.format("%02d %02d %02d", 7, 42, 123), texto.toString());
+    }
+}
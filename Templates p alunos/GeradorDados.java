@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Gerador de arquivos sintéticos de produtos e pedidos, nos mesmos formatos lidos por {@link Produto#criarDoTexto(String)}
+ * e {@link Pedido#criarDoTexto(String)}, para testes de carga.
+ * As linhas são geradas uma a uma e gravadas por {@link GravadorProdutos}, sem manter produtos ou pedidos em memória:
+ * a descrição do i-ésimo produto é uma função de i, de modo que os pedidos podem referenciá-lo sem consultar o catálogo.
+ * Com a mesma semente, os arquivos gerados são sempre os mesmos.
+ * <p>
+ * Uso: {@code java GeradorDados <produtos.csv> <quantProdutos> [<pedidos.csv> <quantPedidos>] [opções]}, com as opções
+ * --semente, --pereciveis, --validade-min, --validade-max, --itens-media, --itens-max, --a-vista, --zipf e --dias-pedidos.
+ */
+public class GeradorDados {
+
+    private static final String[] NOMES = {
+        "Arroz", "Feijão", "Açúcar", "Café", "Leite", "Pão de queijo", "Iogurte", "Queijo", "Manteiga", "Biscoito",
+        "Macarrão", "Farinha", "Óleo", "Azeite", "Chocolate", "Suco", "Maçã", "Banana", "Lápis", "Caderno",
+        "Borracha", "Caneta", "Guardanapos", "Sabão", "Detergente", "Esponja", "Frigideira", "Panela", "Copo", "Toalha"
+    };
+    private static final String[] VARIACOES = {
+        "tradicional", "integral", "light", "orgânico", "premium", "econômico", "família", "zero", "mini", "extra"
+    };
+
+    /** Menor e maior preço de custo gerados. Os preços seguem distribuição log-uniforme entre eles */
+    private static final double MENOR_CUSTO = 0.5;
+    private static final double MAIOR_CUSTO = 500;
+
+    private long semente = 42;
+    private double fracaoPereciveis = 0.5;
+    private int validadeMinimaDias = 0;
+    private int validadeMaximaDias = 365;
+    private double mediaItens = 3;
+    private int maximoItens = 20;
+    private double fracaoAVista = 0.5;
+    private double expoenteZipf = 1.0;
+    private int diasDePedidos = 365;
+
+    /** Semente dos sorteios (padrão 42) */
+    public GeradorDados comSemente(long semente) {
+        this.semente = semente;
+        return this;
+    }
+
+    /** Fração de produtos perecíveis, entre 0 e 1 (padrão 0,5) */
+    public GeradorDados comFracaoPereciveis(double fracao) {
+        if (fracao < 0 || fracao > 1)
+            throw new IllegalArgumentException("Fração de perecíveis inválida");
+        this.fracaoPereciveis = fracao;
+        return this;
+    }
+
+    /**
+     * Intervalo das validades dos perecíveis, em dias a partir de hoje (Calendario.hoje()), sorteadas uniformemente.
+     * Padrão: de 0 a 365 dias. O mínimo não pode ser negativo, pois produtos vencidos não são aceitos na leitura
+     */
+    public GeradorDados comValidadeEntre(int minimoDias, int maximoDias) {
+        if (minimoDias < 0 || maximoDias < minimoDias)
+            throw new IllegalArgumentException("Intervalo de validade inválido");
+        this.validadeMinimaDias = minimoDias;
+        this.validadeMaximaDias = maximoDias;
+        return this;
+    }
+
+    /**
+     * Quantidade de itens por pedido: 1 mais uma variável de Poisson, com a média informada, limitada ao máximo.
+     * Padrão: média 3, máximo 20
+     */
+    public GeradorDados comItensPorPedido(double media, int maximo) {
+        if (media < 1 || maximo < 1)
+            throw new IllegalArgumentException("Distribuição de itens inválida");
+        this.mediaItens = media;
+        this.maximoItens = maximo;
+        return this;
+    }
+
+    /** Fração de pedidos pagos à vista (forma 1), entre 0 e 1; os demais são parcelados (forma 2). Padrão 0,5 */
+    public GeradorDados comFracaoAVista(double fracao) {
+        if (fracao < 0 || fracao > 1)
+            throw new IllegalArgumentException("Fração de pagamentos à vista inválida");
+        this.fracaoAVista = fracao;
+        return this;
+    }
+
+    /**
+     * Expoente da distribuição de Zipf da popularidade dos produtos nos pedidos (padrão 1,0): o produto de posição k
+     * no arquivo é escolhido com probabilidade proporcional a 1/(k+1)^s
+     */
+    public GeradorDados comExpoenteZipf(double expoente) {
+        this.expoenteZipf = expoente;
+        return this;
+    }
+
+    /** Quantidade de dias, até hoje, em que as datas dos pedidos são sorteadas uniformemente (padrão 365) */
+    public GeradorDados comDiasDePedidos(int dias) {
+        if (dias < 1)
+            throw new IllegalArgumentException("Período de pedidos inválido");
+        this.diasDePedidos = dias;
+        return this;
+    }
+
+    /**
+     * Descrição do produto de posição i no arquivo gerado. Descrições distintas para posições distintas.
+     * @param i Posição do produto (a partir de 0)
+     * @return Descrição do produto
+     */
+    static String descricao(int i) {
+        return NOMES[i % NOMES.length] + " " + VARIACOES[(i / NOMES.length) % VARIACOES.length] + " " + i;
+    }
+
+    /**
+     * Gera o arquivo de produtos.
+     * @param quantidade Quantidade de produtos
+     * @param destino Arquivo a ser gravado (substituído de forma atômica ao final)
+     * @throws IOException em caso de erro de gravação
+     */
+    public void gerarProdutos(int quantidade, Path destino) throws IOException {
+        SplittableRandom sorteio = new SplittableRandom(semente);
+        LocalDate hoje = Calendario.hoje();
+        double logMenor = Math.log(MENOR_CUSTO);
+        double amplitudeLog = Math.log(MAIOR_CUSTO) - logMenor;
+        GravadorProdutos.gravarLinhas(indices(quantidade), quantidade, destino, (i, linha) -> {
+            boolean perecivel = sorteio.nextDouble() < fracaoPereciveis;
+            linha.append(perecivel ? '2' : '1').append(';').append(descricao(i)).append(';');
+            ConversorCampos.anexarDuasCasas(linha, Math.max(0.01, Math.exp(logMenor + sorteio.nextDouble() * amplitudeLog)));
+            linha.append(';');
+            ConversorCampos.anexarDuasCasas(linha, 0.05 + sorteio.nextInt(76) / 100.0);
+            if (perecivel) {
+                linha.append(';');
+                ConversorCampos.anexarData(linha, hoje.plusDays(sorteio.nextInt(validadeMinimaDias, validadeMaximaDias + 1)));
+            }
+        });
+    }
+
+    /**
+     * Gera o arquivo de pedidos, referenciando os produtos de um arquivo gerado por {@link #gerarProdutos(int, Path)}.
+     * @param quantidade Quantidade de pedidos
+     * @param quantidadeProdutos Quantidade de produtos do arquivo de produtos
+     * @param destino Arquivo a ser gravado (substituído de forma atômica ao final)
+     * @throws IOException em caso de erro de gravação
+     */
+    public void gerarPedidos(int quantidade, int quantidadeProdutos, Path destino) throws IOException {
+        SplittableRandom sorteio = new SplittableRandom(semente + 1);
+        AmostradorZipf popularidade = new AmostradorZipf(quantidadeProdutos, expoenteZipf);
+        LocalDate inicio = Calendario.hoje().minusDays(diasDePedidos - 1);
+        GravadorProdutos.gravarLinhas(indices(quantidade), quantidade, destino, (i, linha) -> {
+            ConversorCampos.anexarData(linha, inicio.plusDays(sorteio.nextInt(diasDePedidos)));
+            linha.append(';').append(sorteio.nextDouble() < fracaoAVista ? '1' : '2');
+            int itens = Math.min(maximoItens, 1 + poisson(sorteio, mediaItens - 1));
+            for (int j = 0; j < itens; j++) {
+                linha.append(';').append(descricao(popularidade.amostrar(sorteio) - 1));
+            }
+        });
+    }
+
+    /** Posições 0..quantidade-1, geradas sob demanda */
+    private static Iterable<Integer> indices(int quantidade) {
+        return () -> IntStream.range(0, quantidade).iterator();
+    }
+
+    /**
+     * Sorteia uma variável de Poisson. Para médias pequenas (o caso de itens por pedido) usa o método de Knuth;
+     * acima de 30, a aproximação normal.
+     */
+    private static int poisson(SplittableRandom sorteio, double media) {
+        if (media <= 0)
+            return 0;
+        if (media > 30) {
+            double normal = Math.sqrt(-2 * Math.log(1 - sorteio.nextDouble())) * Math.cos(2 * Math.PI * sorteio.nextDouble());
+            return Math.max(0, (int) Math.round(media + Math.sqrt(media) * normal));
+        }
+        double limite = Math.exp(-media);
+        double produto = sorteio.nextDouble();
+        int k = 0;
+        while (produto > limite) {
+            produto *= sorteio.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: java GeradorDados <produtos.csv> <quantProdutos> [<pedidos.csv> <quantPedidos>] [opções]");
+            System.out.println("Opções: --semente N --pereciveis F --validade-min D --validade-max D --itens-media M");
+            System.out.println("        --itens-max N --a-vista F --zipf S --dias-pedidos D");
+            return;
+        }
+        GeradorDados gerador = new GeradorDados();
+        int posicionais = 0;
+        String[] arquivos = new String[4];
+        int validadeMin = 0, validadeMax = 365, itensMax = 20;
+        double itensMedia = 3;
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                if (posicionais < arquivos.length)
+                    arquivos[posicionais++] = args[i];
+                continue;
+            }
+            String valor = args[++i];
+            switch (args[i - 1]) {
+                case "--semente" -> gerador.comSemente(Long.parseLong(valor));
+                case "--pereciveis" -> gerador.comFracaoPereciveis(Double.parseDouble(valor));
+                case "--validade-min" -> validadeMin = Integer.parseInt(valor);
+                case "--validade-max" -> validadeMax = Integer.parseInt(valor);
+                case "--itens-media" -> itensMedia = Double.parseDouble(valor);
+                case "--itens-max" -> itensMax = Integer.parseInt(valor);
+                case "--a-vista" -> gerador.comFracaoAVista(Double.parseDouble(valor));
+                case "--zipf" -> gerador.comExpoenteZipf(Double.parseDouble(valor));
+                case "--dias-pedidos" -> gerador.comDiasDePedidos(Integer.parseInt(valor));
+                default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i - 1]);
+            }
+        }
+        gerador.comValidadeEntre(validadeMin, validadeMax).comItensPorPedido(itensMedia, itensMax);
+
+        int quantProdutos = Integer.parseInt(arquivos[1]);
+        long inicio = System.nanoTime();
+        gerador.gerarProdutos(quantProdutos, Paths.get(arquivos[0]));
+        System.out.printf("%d produtos gravados em %s (%d ms)%n", quantProdutos, arquivos[0], (System.nanoTime() - inicio) / 1_000_000);
+        if (arquivos[2] != null && arquivos[3] != null) {
+            int quantPedidos = Integer.parseInt(arquivos[3]);
+            inicio = System.nanoTime();
+            gerador.gerarPedidos(quantPedidos, quantProdutos, Paths.get(arquivos[2]));
+            System.out.printf("%d pedidos gravados em %s (%d ms)%n", quantPedidos, arquivos[2], (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GeradorDadosTest {
+
+    @TempDir
+    Path pasta;
+
+    @AfterEach
+    public void restauraCadastro() {
+        App.produtosCadastrados = new RepositorioProdutos();
+    }
+
+    @Test
+    public void gerarArquivosLegiveisPelaAplicacao() throws IOException {
+        Path produtos = pasta.resolve("produtos.csv");
+        Path pedidos = pasta.resolve("pedidos.csv");
+        GeradorDados gerador = new GeradorDados().comFracaoPereciveis(0.3).comItensPorPedido(4, 6);
+        gerador.gerarProdutos(2000, produtos);
+        gerador.gerarPedidos(500, 2000, pedidos);
+
+        App.produtosCadastrados = App.lerProdutos(produtos.toString());
+        assertNotNull(App.produtosCadastrados);
+        assertEquals(2000, App.produtosCadastrados.quantidade());
+        int pereciveis = 0;
+        for (Produto produto : App.produtosCadastrados) {
+            if (produto instanceof ProdutoPerecivel)
+                pereciveis++;
+        }
+        assertTrue(pereciveis > 450 && pereciveis < 750);
+
+        RepositorioPedidos carregados = App.lerPedidos(pedidos.toString());
+        assertEquals(500, carregados.quantidade());
+        for (Pedido pedido : carregados) {
+            assertTrue(pedido.getQuantProdutos() >= 1 && pedido.getQuantProdutos() <= 6);
+        }
+    }
+
+    @Test
+    public void mesmaSementeGeraMesmosArquivos() throws IOException {
+        Path primeiro = pasta.resolve("a.csv");
+        Path segundo = pasta.resolve("b.csv");
+        new GeradorDados().comSemente(7).gerarPedidos(200, 100, primeiro);
+        new GeradorDados().comSemente(7).gerarPedidos(200, 100, segundo);
+        assertEquals(-1, Files.mismatch(primeiro, segundo));
+    }
+
+    @Test
+    public void zipfFavoreceAsPrimeirasPosicoes() {
+        AmostradorZipf zipf = new AmostradorZipf(1000, 1.0);
+        SplittableRandom sorteio = new SplittableRandom(1);
+        int[] frequencia = new int[1001];
+        for (int i = 0; i < 100_000; i++) {
+            int k = zipf.amostrar(sorteio);
+            assertTrue(k >= 1 && k <= 1000);
+            frequencia[k]++;
+        }
+        // P(1)/P(2) = 2 para s = 1; P(1) = 1/H(1000) ≈ 0,134
+        assertEquals(2.0, frequencia[1] / (double) frequencia[2], 0.15);
+        assertEquals(0.134, frequencia[1] / 100_000.0, 0.01);
+    }
+}
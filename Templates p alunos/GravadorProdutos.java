@@ -0,0 +1,243 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Gravação do arquivo de produtos (cabeçalho com a quantidade N seguido de uma linha por produto).
+ * A gravação completa escreve em um arquivo temporário, por um buffer grande, e só então o renomeia sobre o
+ * arquivo original, que nunca fica pela metade; o temporário recebe as permissões do original. A gravação
+ * incremental apenas escreve os produtos novos logo após os já gravados e atualiza o cabeçalho, sem reescrever os
+ * produtos anteriores.
+ */
+public class GravadorProdutos {
+
+    /** Tamanho do buffer de escrita, em caracteres */
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    /** Tamanho do trecho lido a cada vez ao procurar o fim dos produtos já gravados, em bytes */
+    private static final int TAMANHO_LEITURA = 1 << 16;
+
+    private GravadorProdutos() { }
+
+    /**
+     * Salva o repositório no arquivo de produtos: se o arquivo já contém os produtos gravados anteriormente,
+     * apenas os novos são anexados; caso contrário, o arquivo é regravado por completo. Ao final, os produtos
+     * existentes no início da gravação ficam marcados como gravados; os incluídos por outras threads durante a
+     * gravação ficam para a próxima.
+     * @param produtos Repositório de produtos
+     * @param destino Caminho do arquivo de produtos
+     * @throws IOException em caso de erro de gravação
+     */
+    public static void salvar(RepositorioProdutos produtos, Path destino) throws IOException {
+        int gravados = produtos.quantidadeGravada();
+        int total = produtos.quantidade();
+        if (gravados == 0 || !anexar(produtos.intervalo(gravados, total), gravados, destino))
+            gravar(produtos.intervalo(0, total), total, destino);
+        produtos.marcarComoGravados(total);
+    }
+
+    /**
+     * Grava todos os produtos no arquivo, substituindo-o de forma atômica ao final.
+     * @param produtos Produtos a serem gravados, na ordem do arquivo
+     * @param quantidade Quantidade de produtos (cabeçalho do arquivo)
+     * @param destino Caminho do arquivo de produtos
+     * @throws IOException em caso de erro de gravação. O arquivo original permanece intacto
+     */
+    public static void gravar(Iterable<Produto> produtos, int quantidade, Path destino) throws IOException {
+        gravarLinhas(produtos, quantidade, destino, Produto::anexarDadosTexto);
+    }
+
+    /**
+     * Grava um arquivo de dados qualquer (cabeçalho com a quantidade seguido de uma linha por item), com a mesma
+     * estratégia de {@link #gravar(Iterable, int, Path)}: buffer grande, arquivo temporário e substituição atômica.
+     * @param <T> Tipo dos itens gravados
+     * @param itens Itens a serem gravados, na ordem do arquivo
+     * @param quantidade Quantidade de itens (cabeçalho do arquivo)
+     * @param destino Caminho do arquivo
+     * @param formatador Anexa a linha de um item (sem quebra de linha) ao buffer
+     * @throws IOException em caso de erro de gravação. O arquivo original permanece intacto
+     */
+    static <T> void gravarLinhas(Iterable<T> itens, int quantidade, Path destino,
+            BiConsumer<T, StringBuilder> formatador) throws IOException {
+        Path temporario = criarTemporario(destino);
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                Writer saida = new OutputStreamWriter(Channels.newOutputStream(canal), StandardCharsets.UTF_8);
+                StringBuilder linhas = new StringBuilder(TAMANHO_BUFFER + 256);
+                char[] bloco = new char[TAMANHO_BUFFER];
+                linhas.append(quantidade).append('\n');
+                for (T item : itens) {
+                    formatador.accept(item, linhas);
+                    linhas.append('\n');
+                    if (linhas.length() >= TAMANHO_BUFFER)
+                        bloco = descarregar(linhas, bloco, saida);
+                }
+                descarregar(linhas, bloco, saida);
+                saida.flush();
+                canal.force(true);
+            }
+            substituir(temporario, destino);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /** Escreve o conteúdo acumulado e esvazia o acumulador, reaproveitando o vetor de caracteres */
+    private static char[] descarregar(StringBuilder linhas, char[] bloco, Writer saida) throws IOException {
+        int tamanho = linhas.length();
+        if (tamanho > bloco.length)
+            bloco = new char[tamanho];
+        linhas.getChars(0, tamanho, bloco, 0);
+        saida.write(bloco, 0, tamanho);
+        linhas.setLength(0);
+        return bloco;
+    }
+
+    /**
+     * Cria, na pasta do destino, o arquivo temporário de uma gravação completa. O arquivo é criado com as permissões
+     * padrão de um arquivo novo (e não apenas para o dono, como em Files.createTempFile) e, se o destino já existir,
+     * recebe as permissões dele, que assim não mudam quando o temporário o substituir.
+     * @param destino Caminho do arquivo a ser substituído
+     * @return Caminho do temporário criado
+     * @throws IOException em caso de erro ao criar o arquivo
+     */
+    static Path criarTemporario(Path destino) throws IOException {
+        Path pasta = destino.toAbsolutePath().getParent();
+        Path temporario;
+        while (true) {
+            temporario = pasta.resolve(destino.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                Files.createFile(temporario);
+                break;
+            } catch (FileAlreadyExistsException excecao) {
+                // nome sorteado já em uso: tenta outro
+            }
+        }
+        try {
+            PosixFileAttributeView atributos = Files.getFileAttributeView(destino, PosixFileAttributeView.class);
+            if (atributos != null && Files.exists(destino))
+                Files.setPosixFilePermissions(temporario, atributos.readAttributes().permissions());
+        } catch (IOException excecao) {
+            Files.deleteIfExists(temporario);
+            throw excecao;
+        }
+        return temporario;
+    }
+
+    /** Renomeia o temporário sobre o destino, de forma atômica quando o sistema de arquivos permitir */
+    static void substituir(Path temporario, Path destino) throws IOException {
+        try {
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException excecao) {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Anexa produtos novos a um arquivo de produtos já existente e atualiza a quantidade do cabeçalho.
+     * Só é possível quando o cabeçalho atual corresponde à quantidade de produtos já gravados, o arquivo contém
+     * ao menos essa quantidade de linhas de produtos e a nova quantidade tem o mesmo número de dígitos (o cabeçalho
+     * é reescrito no lugar); caso contrário nada é alterado e deve ser feita a gravação completa.
+     * <p>
+     * Os produtos novos são escritos logo após o último produto gravado, e o que houver depois dele (ex.: linhas de
+     * uma gravação anterior interrompida) é descartado. O cabeçalho só é atualizado depois: se a gravação for
+     * interrompida antes disso, o cabeçalho continua com a quantidade antiga, a leitura ignora as linhas excedentes
+     * e a próxima gravação as sobrescreve. Os produtos novos não são dados como gravados nesse caso.
+     * @param novos Produtos a serem anexados
+     * @param quantidadeGravada Quantidade de produtos já gravados no arquivo
+     * @param destino Caminho do arquivo de produtos
+     * @return true se os produtos foram anexados, false se é necessária a gravação completa
+     * @throws IOException em caso de erro de gravação
+     */
+    public static boolean anexar(Iterable<Produto> novos, int quantidadeGravada, Path destino) throws IOException {
+        if (!Files.exists(destino))
+            return false;
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer inicio = ByteBuffer.allocate(16);
+            canal.read(inicio, 0);
+            int digitos = 0;
+            while (digitos < inicio.position() && Character.isDigit(inicio.get(digitos)))
+                digitos++;
+            if (digitos == 0 || !Integer.toString(quantidadeGravada).equals(new String(inicio.array(), 0, digitos, StandardCharsets.US_ASCII)))
+                return false;
+            long fimGravados = fimDosGravados(canal, quantidadeGravada);
+            if (fimGravados < 0)
+                return false;
+
+            StringBuilder linhas = new StringBuilder();
+            int quantidade = quantidadeGravada;
+            if (!terminaComQuebraDeLinha(canal, fimGravados))
+                linhas.append('\n');
+            for (Produto produto : novos) {
+                produto.anexarDadosTexto(linhas);
+                linhas.append('\n');
+                quantidade++;
+            }
+            String cabecalho = Integer.toString(quantidade);
+            if (cabecalho.length() != digitos)
+                return false;
+
+            canal.truncate(escrever(canal, linhas, fimGravados));
+            canal.force(false);
+            canal.write(ByteBuffer.wrap(cabecalho.getBytes(StandardCharsets.US_ASCII)), 0);
+            canal.force(false);
+            return true;
+        }
+    }
+
+    /**
+     * Procura o fim da linha do último produto gravado (o cabeçalho é a linha 0).
+     * @return Posição logo após a quebra de linha desse produto, o tamanho do arquivo se ele for a última linha e não
+     * tiver quebra, ou -1 se o arquivo tiver menos linhas de produtos que a quantidade gravada
+     */
+    private static long fimDosGravados(FileChannel canal, int quantidadeGravada) throws IOException {
+        long tamanho = canal.size();
+        ByteBuffer trecho = ByteBuffer.allocate(TAMANHO_LEITURA);
+        byte[] bytes = trecho.array();
+        long quebras = 0;
+        for (long posicao = 0; posicao < tamanho; ) {
+            trecho.clear();
+            int lidos = canal.read(trecho, posicao);
+            if (lidos <= 0)
+                break;
+            for (int i = 0; i < lidos; i++) {
+                if (bytes[i] == '\n' && ++quebras > quantidadeGravada)
+                    return posicao + i + 1;
+            }
+            posicao += lidos;
+        }
+        return quebras == quantidadeGravada && !terminaComQuebraDeLinha(canal, tamanho) ? tamanho : -1;
+    }
+
+    /** Indica se o byte anterior à posição é uma quebra de linha (ou se a posição é o início do arquivo) */
+    private static boolean terminaComQuebraDeLinha(FileChannel canal, long posicao) throws IOException {
+        if (posicao == 0)
+            return true;
+        ByteBuffer ultimo = ByteBuffer.allocate(1);
+        canal.read(ultimo, posicao - 1);
+        return ultimo.get(0) == '\n';
+    }
+
+    /** Escreve o texto em UTF-8 a partir da posição informada e retorna a posição logo após ele */
+    private static long escrever(FileChannel canal, CharSequence texto, long posicao) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(texto));
+        while (bytes.hasRemaining()) {
+            posicao += canal.write(bytes, posicao);
+        }
+        return posicao;
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GravadorProdutosTest {
+
+    @TempDir
+    Path pasta;
+
+    Path arquivo;
+    RepositorioProdutos produtos;
+
+    @BeforeEach
+    public void prepare() throws IOException {
+        arquivo = pasta.resolve("produtos.csv");
+        produtos = new RepositorioProdutos();
+        for (int i = 0; i < 3; i++) {
+            produtos.adicionar(new ProdutoNaoPerecivel("Produto " + i, 10 + i, 0.255));
+        }
+        GravadorProdutos.salvar(produtos, arquivo);
+    }
+
+    @Test
+    public void gravaCabecalhoEProdutos() throws IOException {
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        assertEquals(List.of("3", "1;Produto 0;10.00;0.26", "1;Produto 1;11.00;0.26", "1;Produto 2;12.00;0.26"), linhas);
+        assertEquals(1, Files.list(pasta).count());
+    }
+
+    @Test
+    public void anexaApenasProdutosNovos() throws IOException {
+        produtos.adicionar(new ProdutoNaoPerecivel("Produto novo", 5, 0.5));
+        assertTrue(GravadorProdutos.anexar(produtos.aPartirDe(3), 3, arquivo));
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        assertEquals(5, linhas.size());
+        assertEquals("4", linhas.get(0));
+        assertEquals("1;Produto novo;5.00;0.50", linhas.get(4));
+    }
+
+    @Test
+    public void naoAnexaQuandoCabecalhoMudaDeTamanho() throws IOException {
+        for (int i = 3; i < 10; i++) {
+            produtos.adicionar(new ProdutoNaoPerecivel("Produto " + i, 10, 0.1));
+        }
+        assertFalse(GravadorProdutos.anexar(produtos.aPartirDe(3), 3, arquivo));
+        GravadorProdutos.salvar(produtos, arquivo);
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        assertEquals("10", linhas.get(0));
+        assertEquals(11, linhas.size());
+    }
+
+    @Test
+    public void descartaLinhasDeUmaGravacaoInterrompida() throws IOException {
+        Files.write(arquivo, "1;Produto perdido;1.00;0.10\n1;Produto pela met".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        produtos.adicionar(new ProdutoNaoPerecivel("Produto novo", 5, 0.5));
+        GravadorProdutos.salvar(produtos, arquivo);
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        assertEquals(List.of("4", "1;Produto 0;10.00;0.26", "1;Produto 1;11.00;0.26", "1;Produto 2;12.00;0.26",
+                "1;Produto novo;5.00;0.50"), linhas);
+    }
+
+    @Test
+    public void naoAnexaQuandoFaltamLinhasDeProdutos() throws IOException {
+        Files.write(arquivo, "3\n1;Produto 0;10.00;0.26\n".getBytes(StandardCharsets.UTF_8));
+        produtos.adicionar(new ProdutoNaoPerecivel("Produto novo", 5, 0.5));
+        assertFalse(GravadorProdutos.anexar(produtos.aPartirDe(3), 3, arquivo));
+        assertEquals(List.of("3", "1;Produto 0;10.00;0.26"), Files.readAllLines(arquivo, StandardCharsets.UTF_8));
+        GravadorProdutos.salvar(produtos, arquivo);
+        assertEquals(5, Files.readAllLines(arquivo, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void gravacaoCompletaMantemAsPermissoesDoArquivo() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Set<PosixFilePermission> permissoes = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(arquivo, permissoes);
+        GravadorProdutos.gravar(produtos, produtos.quantidade(), arquivo);
+        assertEquals(permissoes, Files.getPosixFilePermissions(arquivo));
+        assertEquals(1, Files.list(pasta).count());
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em nanossegundos, com faixas log-lineares no estilo do HdrHistogram: valores até 15 têm
+ * faixa própria e, acima disso, cada potência de 2 é dividida em 16 faixas iguais, o que limita o erro de cada
+ * percentil a 1/16 (6,25%) do valor. Cobre até 2^40 ns (cerca de 18 minutos) em 608 contadores fixos; valores
+ * maiores ficam na última faixa. O registro não aloca nem bloqueia e pode ser feito por várias threads ao mesmo tempo;
+ * as consultas feitas durante registros simultâneos são aproximadas.
+ */
+public class HistogramaLatencias {
+
+    /** Bits de precisão dentro de cada potência de 2 (16 faixas) */
+    private static final int BITS_SUBFAIXA = 4;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+    /** Maior expoente coberto */
+    private static final int EXPOENTE_MAXIMO = 40;
+
+    private static final int FAIXAS = (EXPOENTE_MAXIMO - BITS_SUBFAIXA + 2) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra um valor.
+     * @param nanos Valor em nanossegundos (negativos contam como 0)
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        contagens.incrementAndGet(faixa(nanos));
+        quantidade.increment();
+        total.add(nanos);
+        long atual;
+        while (nanos > (atual = maximo.get()) && !maximo.compareAndSet(atual, nanos)) {
+            // outra thread atualizou o máximo; compara de novo
+        }
+    }
+
+    /** Faixa do valor: o próprio valor até 15; acima, 16 faixas por potência de 2 */
+    static int faixa(long valor) {
+        if (valor < SUBFAIXAS)
+            return (int) valor;
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        if (expoente > EXPOENTE_MAXIMO)
+            return FAIXAS - 1;
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + subfaixa;
+    }
+
+    /** Maior valor que cai na faixa informada */
+    static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS)
+            return faixa;
+        int expoente = faixa / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long largura = 1L << (expoente - BITS_SUBFAIXA);
+        return (SUBFAIXAS + faixa % SUBFAIXAS) * largura + largura - 1;
+    }
+
+    /** @return Quantidade de valores registrados */
+    public long quantidade() {
+        return quantidade.sum();
+    }
+
+    /** @return Soma dos valores registrados, em nanossegundos */
+    public long total() {
+        return total.sum();
+    }
+
+    /** @return Maior valor registrado, em nanossegundos */
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /** @return Média dos valores registrados, em nanossegundos (0 se não houver valores) */
+    public double media() {
+        long registrados = quantidade();
+        return registrados == 0 ? 0 : (double) total() / registrados;
+    }
+
+    /**
+     * Valor abaixo do qual está a fração informada dos registros, com erro de no máximo 1/16 para cima.
+     * @param fracao Fração dos registros, de 0 a 1 (ex.: 0.99 para o percentil 99)
+     * @return O percentil, em nanossegundos (0 se não houver valores); nunca maior que o máximo registrado
+     */
+    public long percentil(double fracao) {
+        long registrados = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            registrados += contagens.get(i);
+        }
+        if (registrados == 0)
+            return 0;
+        long posicao = Math.max(1, (long) Math.ceil(fracao * registrados));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= posicao)
+                return Math.min(limiteSuperior(i), maximo());
+        }
+        return maximo();
+    }
+
+    /** Descarta todos os valores registrados */
+    public void zerar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens.set(i, 0);
+        }
+        quantidade.reset();
+        total.reset();
+        maximo.set(0);
+    }
+}
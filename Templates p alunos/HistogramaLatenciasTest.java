@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramaLatenciasTest {
+
+    @Test
+    public void faixasLimitamOErroRelativo() {
+        SplittableRandom sorteio = new SplittableRandom(5);
+        for (int i = 0; i < 100_000; i++) {
+            long valor = sorteio.nextLong(1L << (1 + sorteio.nextInt(40)));
+            long limite = HistogramaLatencias.limiteSuperior(HistogramaLatencias.faixa(valor));
+            assertTrue(limite >= valor, "limite " + limite + " < " + valor);
+            assertTrue(limite - valor <= valor / 16, "erro excessivo para " + valor + ": " + limite);
+        }
+        for (long valor = 0; valor < 16; valor++) {
+            assertEquals(valor, HistogramaLatencias.limiteSuperior(HistogramaLatencias.faixa(valor)));
+        }
+    }
+
+    @Test
+    public void calculaPercentisMediaEMaximo() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        for (long valor = 1; valor <= 10_000; valor++) {
+            histograma.registrar(valor);
+        }
+        assertEquals(10_000, histograma.quantidade());
+        assertEquals(5_000.5, histograma.media(), 1e-9);
+        assertEquals(10_000, histograma.maximo());
+        assertEquals(5_000, histograma.percentil(0.5), 5_000 / 16.0);
+        assertEquals(9_900, histograma.percentil(0.99), 9_900 / 16.0);
+        assertEquals(10_000, histograma.percentil(1.0));
+        assertTrue(histograma.percentil(0.5) >= 5_000);
+
+        histograma.zerar();
+        assertEquals(0, histograma.quantidade());
+        assertEquals(0, histograma.percentil(0.99));
+    }
+
+    @Test
+    public void registrosSimultaneosNaoSePerdem() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 50_000; i++) {
+                histograma.registrar(i % 1_000);
+            }
+        });
+        assertEquals(400_000, histograma.quantidade());
+        assertEquals(999, histograma.maximo());
+        assertEquals(999, histograma.percentil(1.0));
+    }
+}
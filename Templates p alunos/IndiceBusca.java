@@ -0,0 +1,261 @@
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice de busca textual sobre descrições de produtos. As descrições são normalizadas (minúsculas e sem acentos)
+ * e cada trigrama (sequência de 3 caracteres) aponta para a lista ordenada das descrições que o contêm. Uma
+ * consulta percorre apenas a menor lista entre os trigramas da consulta, confirmando cada candidato; assim, o custo
+ * depende da quantidade de candidatos, e não do tamanho do catálogo.
+ * <p>
+ * Consultas com 3 ou mais caracteres encontram a consulta em qualquer ponto da descrição; consultas mais curtas
+ * encontram apenas o início de palavras. Os resultados são ordenados por relevância: descrição idêntica, depois
+ * descrições que começam pela consulta, depois palavras que começam pela consulta e, por fim, as demais
+ * ocorrências; em cada grupo, descrições mais curtas primeiro e, em seguida, a ordem de inclusão.
+ * <p>
+ * As descrições são identificadas pela ordem de inclusão (0, 1, 2...), o que permite usar a posição do produto
+ * no repositório como identificador. O índice só cresce. Os textos normalizados ficam contíguos em um único vetor
+ * de caracteres, de modo que a confirmação dos candidatos (percorridos em ordem crescente) lê a memória em sequência.
+ */
+public class IndiceBusca {
+
+    /** Lista de identificadores em ordem crescente */
+    private static final class Ocorrencias {
+        int[] ids = new int[4];
+        int tamanho;
+
+        void adicionar(int id) {
+            if (tamanho > 0 && ids[tamanho - 1] == id)
+                return;
+            if (tamanho == ids.length)
+                ids = Arrays.copyOf(ids, tamanho * 2);
+            ids[tamanho++] = id;
+        }
+    }
+
+    /** Relevância de um resultado, da maior para a menor */
+    private static final int IDENTICO = 0, INICIO_DESCRICAO = 1, INICIO_PALAVRA = 2, MEIO_PALAVRA = 3;
+
+    /** Marca das chaves de início de palavra, fora do intervalo ocupado pelos trigramas */
+    private static final long INICIO = 1L << 48;
+
+    /** Descrições normalizadas, precedidas de um espaço (marca de início de palavra), uma após a outra */
+    private char[] textos = new char[1024];
+
+    /** Início de cada descrição em {@link #textos}; a descrição i ocupa [inicios[i], inicios[i + 1]) */
+    private int[] inicios = new int[64];
+
+    /** Quantidade de descrições incluídas */
+    private int quantidade;
+
+    /**
+     * Ocorrências de cada trigrama, com os três caracteres agrupados em um long. Guarda também as letras iniciais de
+     * cada palavra (espaço seguido da letra, marcado com o bit {@link #INICIO}), usadas pelas consultas de uma letra
+     */
+    private final Map<Long, Ocorrencias> trigramas = new HashMap<>();
+
+    /**
+     * Normaliza um texto para busca: minúsculas e sem acentos ("Pão" e "PAO" ficam iguais).
+     * @param texto Texto a ser normalizado
+     * @return O texto normalizado
+     */
+    static String normalizar(String texto) {
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 128;
+        }
+        if (!ascii) {
+            String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+            StringBuilder semAcentos = new StringBuilder(decomposto.length());
+            for (int i = 0; i < decomposto.length(); i++) {
+                char c = decomposto.charAt(i);
+                if (Character.getType(c) != Character.NON_SPACING_MARK)
+                    semAcentos.append(c);
+            }
+            texto = semAcentos.toString();
+        }
+        return texto.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Inclui uma descrição no índice.
+     * @param descricao Descrição do produto
+     * @return Identificador atribuído à descrição (a quantidade de descrições incluídas antes dela)
+     */
+    public int adicionar(String descricao) {
+        String texto = " " + normalizar(descricao);
+        int id = quantidade;
+        int inicio = inicios[id];
+        if (inicio + texto.length() > textos.length)
+            textos = Arrays.copyOf(textos, Math.max(textos.length * 2, inicio + texto.length()));
+        if (id + 2 > inicios.length)
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+        texto.getChars(0, texto.length(), textos, inicio);
+        inicios[id + 1] = inicio + texto.length();
+        quantidade++;
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.computeIfAbsent(trigrama(texto, i), chave -> new Ocorrencias()).adicionar(id);
+        }
+        for (int i = 0; i + 1 < texto.length(); i++) {
+            if (texto.charAt(i) == ' ')
+                trigramas.computeIfAbsent(INICIO | texto.charAt(i + 1), chave -> new Ocorrencias()).adicionar(id);
+        }
+        return id;
+    }
+
+    /** @return Quantidade de descrições incluídas */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Busca as descrições que contêm a consulta, sem diferenciar maiúsculas, minúsculas e acentos.
+     * @param consulta Texto procurado
+     * @param limite Quantidade máxima de resultados
+     * @return Identificadores das descrições encontradas, da mais para a menos relevante (no máximo limite)
+     */
+    public int[] buscar(String consulta, int limite) {
+        String termo = normalizar(consulta).strip();
+        if (termo.isEmpty() || limite < 1)
+            return new int[0];
+        boolean curta = termo.length() < 3;
+        if (curta)
+            termo = " " + termo;
+
+        char[] procurado = termo.toCharArray();
+        Selecao selecao = new Selecao(limite);
+        Ocorrencias candidatos = termo.length() < 3 ? trigramas.get(INICIO | termo.charAt(1)) : menorLista(termo);
+        if (candidatos != null) {
+            for (int i = 0; i < candidatos.tamanho; i++) {
+                avaliar(candidatos.ids[i], procurado, curta, selecao);
+            }
+        }
+        return selecao.resultado();
+    }
+
+    /** Confirma se o candidato contém o termo e, em caso positivo, o registra com sua relevância */
+    private void avaliar(int id, char[] termo, boolean curta, Selecao selecao) {
+        int inicio = inicios[id];
+        int fim = inicios[id + 1];
+        int posicao = posicaoDe(termo, inicio + (curta ? 0 : 1), fim);
+        if (posicao < 0)
+            return;
+        int relevancia;
+        if (curta) {
+            relevancia = posicao == inicio ? INICIO_DESCRICAO : INICIO_PALAVRA;
+        } else if (posicao == inicio + 1) {
+            relevancia = fim - inicio == termo.length + 1 ? IDENTICO : INICIO_DESCRICAO;
+        } else {
+            relevancia = MEIO_PALAVRA;
+            while (posicao >= 0) {
+                if (textos[posicao - 1] == ' ') {
+                    relevancia = INICIO_PALAVRA;
+                    break;
+                }
+                posicao = posicaoDe(termo, posicao + 1, fim);
+            }
+        }
+        selecao.considerar(((long) relevancia << 56) | ((long) Math.min(fim - inicio, 0xFFFFFF) << 32) | id);
+    }
+
+    /** Posição, em {@link #textos}, da primeira ocorrência do termo no intervalo [de, ate), ou -1 */
+    private int posicaoDe(char[] termo, int de, int ate) {
+        char primeiro = termo[0];
+        for (int i = de; i + termo.length <= ate; i++) {
+            if (textos[i] != primeiro)
+                continue;
+            int j = 1;
+            while (j < termo.length && textos[i + j] == termo[j])
+                j++;
+            if (j == termo.length)
+                return i;
+        }
+        return -1;
+    }
+
+    /** Menor lista de ocorrências entre os trigramas do termo, ou null se algum trigrama não ocorre no índice */
+    private Ocorrencias menorLista(String termo) {
+        Ocorrencias menor = null;
+        for (int i = 0; i + 3 <= termo.length(); i++) {
+            Ocorrencias lista = trigramas.get(trigrama(termo, i));
+            if (lista == null)
+                return null;
+            if (menor == null || lista.tamanho < menor.tamanho)
+                menor = lista;
+        }
+        return menor;
+    }
+
+    private static long trigrama(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+    }
+
+    /**
+     * Seleciona os {@code limite} menores valores entre os considerados, com um heap de máximo limitado, sem ordenar
+     * todos os candidatos. Cada valor agrupa relevância, tamanho da descrição e identificador, nessa ordem de prioridade.
+     */
+    private static final class Selecao {
+        private final int limite;
+        private long[] heap;
+        private int tamanho;
+
+        Selecao(int limite) {
+            this.limite = limite;
+            heap = new long[Math.min(limite, 64)];
+        }
+
+        void considerar(long valor) {
+            if (tamanho < limite) {
+                if (tamanho == heap.length)
+                    heap = Arrays.copyOf(heap, (int) Math.min(limite, 2L * heap.length));
+                heap[tamanho] = valor;
+                subir(tamanho++);
+            } else if (valor < heap[0]) {
+                heap[0] = valor;
+                descer(0);
+            }
+        }
+
+        int[] resultado() {
+            long[] ordenados = Arrays.copyOf(heap, tamanho);
+            Arrays.sort(ordenados);
+            int[] ids = new int[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                ids[i] = (int) ordenados[i];
+            }
+            return ids;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (heap[pai] >= heap[i])
+                    return;
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int maior = i, esquerdo = 2 * i + 1, direito = esquerdo + 1;
+                if (esquerdo < tamanho && heap[esquerdo] > heap[maior])
+                    maior = esquerdo;
+                if (direito < tamanho && heap[direito] > heap[maior])
+                    maior = direito;
+                if (maior == i)
+                    return;
+                trocar(i, maior);
+                i = maior;
+            }
+        }
+
+        private void trocar(int a, int b) {
+            long temporario = heap[a];
+            heap[a] = heap[b];
+            heap[b] = temporario;
+        }
+    }
+}
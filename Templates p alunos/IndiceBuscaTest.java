@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IndiceBuscaTest {
+
+    IndiceBusca indice;
+
+    @BeforeEach
+    public void prepare() {
+        indice = new IndiceBusca();
+        indice.adicionar("Pão de queijo");      // 0
+        indice.adicionar("Queijo minas");       // 1
+        indice.adicionar("Requeijão cremoso");  // 2
+        indice.adicionar("Queijo");             // 3
+        indice.adicionar("Lápis");              // 4
+    }
+
+    @Test
+    public void ignoraCasoEAcentos() {
+        assertArrayEquals(new int[] {0}, indice.buscar("PAO", 10));
+        assertArrayEquals(new int[] {4}, indice.buscar("lapis", 10));
+        assertArrayEquals(new int[] {2}, indice.buscar("REQUEIJÃO", 10));
+    }
+
+    @Test
+    public void ordenaPorRelevancia() {
+        // idêntico, início da descrição, início de palavra, meio de palavra
+        assertArrayEquals(new int[] {3, 1, 0, 2}, indice.buscar("queij", 10));
+        assertArrayEquals(new int[] {3, 1}, indice.buscar("queij", 2));
+    }
+
+    @Test
+    public void consultasCurtasEncontramInicioDePalavras() {
+        assertArrayEquals(new int[] {3, 1, 0}, indice.buscar("qu", 10));
+        assertArrayEquals(new int[] {1}, indice.buscar("m", 10));
+        assertEquals(0, indice.buscar("ij", 10).length);
+    }
+
+    @Test
+    public void repositorioIndexaProdutosIncluidosDepoisDaPrimeiraBusca() {
+        RepositorioProdutos repositorio = new RepositorioProdutos();
+        repositorio.adicionar(new ProdutoNaoPerecivel("Caderno", 10, 0.2));
+        assertEquals(0, repositorio.buscar("borracha", 10).length);
+        repositorio.adicionar(new ProdutoNaoPerecivel("Borracha", 2, 0.2));
+        assertArrayEquals(new int[] {1}, repositorio.buscar("BORRACHA", 10));
+    }
+}
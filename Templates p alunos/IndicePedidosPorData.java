@@ -0,0 +1,162 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Índice de pedidos pela data do pedido. Os pedidos de cada dia ficam agrupados, na ordem de inclusão, em um mapa
+ * ordenado por data; a busca de um dia custa O(log d) e a de um período O(log d + k), sendo d a quantidade de dias
+ * distintos e k a quantidade de pedidos retornados.
+ * <p>
+ * O índice guarda apenas as posições dos pedidos em um {@link LivroPedidos}; as listas devolvidas criam as visões dos
+ * pedidos conforme são percorridas.
+ */
+public class IndicePedidosPorData {
+
+    /** Posições dos pedidos de um dia, na ordem de inclusão */
+    private static final class Posicoes {
+        int[] valores = new int[4];
+        int quantidade;
+
+        void adicionar(int posicao) {
+            if (quantidade == valores.length)
+                valores = Arrays.copyOf(valores, quantidade * 2);
+            valores[quantidade++] = posicao;
+        }
+    }
+
+    /** Lista não modificável dos pedidos em um trecho de posições do livro */
+    private static final class ListaPedidos extends AbstractList<Pedido> implements RandomAccess {
+        private final LivroPedidos livro;
+        private final int[] posicoes;
+        private final int quantidade;
+
+        ListaPedidos(LivroPedidos livro, int[] posicoes, int quantidade) {
+            this.livro = livro;
+            this.posicoes = posicoes;
+            this.quantidade = quantidade;
+        }
+
+        @Override
+        public Pedido get(int indice) {
+            if (indice < 0 || indice >= quantidade)
+                throw new IndexOutOfBoundsException("Posição inválida: " + indice);
+            return livro.pedido(posicoes[indice]);
+        }
+
+        @Override
+        public int size() {
+            return quantidade;
+        }
+    }
+
+    /** Livro onde estão os pedidos indexados */
+    private final LivroPedidos livro;
+
+    /** Posições dos pedidos agrupadas por data */
+    private NavigableMap<LocalDate, Posicoes> porData = new TreeMap<>();
+
+    /** Dia (da época) e posições do último pedido indexado, para evitar a busca no mapa em pedidos do mesmo dia */
+    private int ultimoDia;
+    private Posicoes ultimas;
+
+    /** Quantidade de pedidos indexados */
+    private int quantidade;
+
+    /** Cria um índice vazio, com um livro próprio onde os pedidos incluídos são armazenados */
+    public IndicePedidosPorData() {
+        this(new LivroPedidos());
+    }
+
+    /**
+     * Cria um índice vazio para os pedidos de um livro (ver {@link #indexar(int)}).
+     * @param livro Livro onde estão os pedidos
+     */
+    IndicePedidosPorData(LivroPedidos livro) {
+        this.livro = livro;
+    }
+
+    /**
+     * Inclui um pedido no índice, armazenando-o no livro do índice.
+     * @param pedido Pedido a ser indexado
+     */
+    public void adicionar(Pedido pedido) {
+        indexar(livro.adicionar(pedido));
+    }
+
+    /**
+     * Inclui no índice um pedido já armazenado no livro.
+     * @param posicao Posição do pedido no livro
+     */
+    void indexar(int posicao) {
+        int dia = livro.diaEpoca(posicao);
+        if (ultimas == null || dia != ultimoDia) {
+            ultimas = porData.computeIfAbsent(LocalDate.ofEpochDay(dia), data -> new Posicoes());
+            ultimoDia = dia;
+        }
+        ultimas.adicionar(posicao);
+        quantidade++;
+    }
+
+    /**
+     * Pedidos de uma data, na ordem de inclusão.
+     * @param data Data dos pedidos
+     * @return Lista (não modificável) com os pedidos da data; vazia se não houver nenhum
+     */
+    public List<Pedido> doDia(LocalDate data) {
+        Posicoes posicoes = porData.get(data);
+        return posicoes == null ? Collections.emptyList() : new ListaPedidos(livro, posicoes.valores, posicoes.quantidade);
+    }
+
+    /**
+     * Pedidos de um período, em ordem de data (e de inclusão, dentro de cada data).
+     * @param inicio Primeira data do período (inclusive)
+     * @param fim Última data do período (inclusive)
+     * @return Lista (não modificável) com os pedidos do período; vazia se não houver nenhum ou se o fim for anterior ao início
+     */
+    public List<Pedido> entre(LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio))
+            return Collections.emptyList();
+        int total = 0;
+        for (Posicoes doDia : porData.subMap(inicio, true, fim, true).values()) {
+            total += doDia.quantidade;
+        }
+        int[] posicoes = new int[total];
+        int preenchidas = 0;
+        for (Posicoes doDia : porData.subMap(inicio, true, fim, true).values()) {
+            System.arraycopy(doDia.valores, 0, posicoes, preenchidas, doDia.quantidade);
+            preenchidas += doDia.quantidade;
+        }
+        return new ListaPedidos(livro, posicoes, total);
+    }
+
+    /**
+     * Pedidos da semana (segunda a domingo) que contém a data informada.
+     * @param data Qualquer data da semana
+     * @return Lista com os pedidos da semana
+     */
+    public List<Pedido> daSemana(LocalDate data) {
+        LocalDate segunda = data.minusDays(data.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+        return entre(segunda, segunda.plusDays(6));
+    }
+
+    /**
+     * Pedidos de um mês.
+     * @param mes Mês e ano
+     * @return Lista com os pedidos do mês
+     */
+    public List<Pedido> doMes(YearMonth mes) {
+        return entre(mes.atDay(1), mes.atEndOfMonth());
+    }
+
+    /** @return Quantidade de pedidos indexados */
+    public int quantidade() {
+        return quantidade;
+    }
+}
@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IndicePedidosPorDataTest {
+
+    IndicePedidosPorData indice;
+
+    @BeforeEach
+    public void prepare(){
+        indice = new IndicePedidosPorData();
+        LocalDate data = LocalDate.of(2025, 8, 1);
+        for (int i = 0; i < 62; i++) {
+            indice.adicionar(new Pedido(data.plusDays(i), 1));
+            indice.adicionar(new Pedido(data.plusDays(i), 2));
+        }
+    }
+
+    @Test
+    public void localizaPedidosDoDia(){
+        List<Pedido> pedidos = indice.doDia(LocalDate.of(2025, 8, 22));
+        assertEquals(2, pedidos.size());
+        assertEquals(1, pedidos.get(0).getFormaDePagamento());
+    }
+
+    @Test
+    public void diaSemPedidosRetornaListaVazia(){
+        assertTrue(indice.doDia(LocalDate.of(2025, 7, 31)).isEmpty());
+    }
+
+    @Test
+    public void localizaPedidosDoPeriodoEmOrdemDeData(){
+        List<Pedido> pedidos = indice.entre(LocalDate.of(2025, 8, 30), LocalDate.of(2025, 9, 2));
+        assertEquals(8, pedidos.size());
+        assertEquals(LocalDate.of(2025, 8, 30), pedidos.get(0).getDataPedido());
+        assertEquals(LocalDate.of(2025, 9, 2), pedidos.get(7).getDataPedido());
+    }
+
+    @Test
+    public void localizaPedidosDaSemanaEDoMes(){
+        assertEquals(14, indice.daSemana(LocalDate.of(2025, 8, 20)).size());
+        assertEquals(60, indice.doMes(YearMonth.of(2025, 9)).size());
+    }
+}
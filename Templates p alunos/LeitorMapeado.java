@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor dos arquivos de dados por mapeamento em memória (FileChannel.map). As linhas e os campos são
+ * localizados diretamente nos bytes UTF-8 do arquivo mapeado, e os valores numéricos e datas são convertidos
+ * sem cópia; apenas os campos de texto (descrições) viram Strings. Arquivos maiores que a janela de
+ * mapeamento são percorridos em janelas sucessivas, sempre iniciadas no começo de uma linha.
+ * O leitor pode também ser restrito a uma região do arquivo, usado na carga em paralelo.
+ */
+public class LeitorMapeado implements FonteRegistros {
+
+    /** Tamanho padrão da janela de mapeamento, em bytes */
+    static final int JANELA_PADRAO = 1 << 30;
+
+    /** Canal do arquivo mapeado */
+    private FileChannel canal;
+
+    /** Posição final (exclusive) da região do arquivo a ser lida */
+    private long fimRegiao;
+
+    /** Tamanho da janela de mapeamento. Cresce caso uma linha não caiba nela */
+    private int tamanhoJanela;
+
+    /** Posição, no arquivo, do início da janela atual */
+    private long inicioJanela = 0;
+
+    /** Janela mapeada atual */
+    private MappedByteBuffer janela;
+
+    /** Visão da janela como CharSequence, usada pelo registro */
+    private VisaoBytes visao;
+
+    /** Posição, na janela, do início da próxima linha */
+    private int posicao = 0;
+
+    /** Registro reaproveitado a cada linha */
+    private RegistroCsv registro = new RegistroCsv();
+
+    /**
+     * Cria um leitor sobre um canal já aberto, com o tamanho de janela informado.
+     * @param canal Canal do arquivo
+     * @param tamanhoJanela Tamanho da janela de mapeamento, em bytes
+     * @throws IOException em caso de erro ao mapear o arquivo
+     */
+    LeitorMapeado(FileChannel canal, int tamanhoJanela) throws IOException {
+        this(canal, 0, canal.size(), tamanhoJanela);
+    }
+
+    /**
+     * Cria um leitor restrito a uma região do arquivo. A região deve começar no início de uma linha e
+     * terminar logo após uma quebra de linha (ou no fim do arquivo).
+     * @param canal Canal do arquivo
+     * @param inicio Posição inicial da região
+     * @param fim Posição final (exclusive) da região
+     * @param tamanhoJanela Tamanho da janela de mapeamento, em bytes
+     * @throws IOException em caso de erro ao mapear o arquivo
+     */
+    LeitorMapeado(FileChannel canal, long inicio, long fim, int tamanhoJanela) throws IOException {
+        this.canal = canal;
+        this.fimRegiao = fim;
+        this.tamanhoJanela = tamanhoJanela;
+        mapear(inicio);
+    }
+
+    /**
+     * Abre e mapeia um arquivo de dados em UTF-8 para leitura.
+     * @param nomeArquivo Nome do arquivo
+     * @return Um leitor posicionado no início do arquivo
+     * @throws IOException caso o arquivo não possa ser aberto ou mapeado
+     */
+    public static LeitorMapeado abrir(String nomeArquivo) throws IOException {
+        return abrir(Paths.get(nomeArquivo));
+    }
+
+    /**
+     * Abre e mapeia um arquivo de dados em UTF-8 para leitura.
+     * @param arquivo Caminho do arquivo
+     * @return Um leitor posicionado no início do arquivo
+     * @throws IOException caso o arquivo não possa ser aberto ou mapeado
+     */
+    public static LeitorMapeado abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            return new LeitorMapeado(canal, JANELA_PADRAO);
+        } catch (IOException excecao) {
+            canal.close();
+            throw excecao;
+        }
+    }
+
+    /** Mapeia uma nova janela a partir da posição informada do arquivo */
+    private void mapear(long inicio) throws IOException {
+        long tamanho = Math.min(tamanhoJanela, fimRegiao - inicio);
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, inicio, tamanho);
+        visao = new VisaoBytes(janela);
+        inicioJanela = inicio;
+        posicao = 0;
+    }
+
+    /**
+     * Lê a próxima linha do arquivo. Terminações "\n" e "\r\n" são aceitas.
+     * @return O registro com os campos da linha, ou null ao fim do arquivo
+     * @throws IOException em caso de erro ao mapear o arquivo
+     */
+    @Override
+    public RegistroCsv proximo() throws IOException {
+        while (true) {
+            int limite = janela.limit();
+            for (int i = posicao; i < limite; i++) {
+                if (janela.get(i) == '\n') {
+                    int fimLinha = (i > posicao && janela.get(i - 1) == '\r') ? i - 1 : i;
+                    registro.separar(visao, posicao, fimLinha);
+                    posicao = i + 1;
+                    return registro;
+                }
+            }
+            boolean ultimaJanela = inicioJanela + limite >= fimRegiao;
+            if (ultimaJanela) {
+                if (posicao >= limite)
+                    return null;
+                int fimLinha = janela.get(limite - 1) == '\r' ? limite - 1 : limite;
+                registro.separar(visao, posicao, fimLinha);
+                posicao = limite;
+                return registro;
+            }
+            if (posicao == 0) {
+                if (tamanhoJanela == Integer.MAX_VALUE)
+                    throw new IOException("Linha maior que o tamanho máximo de mapeamento");
+                tamanhoJanela = (int) Math.min(Integer.MAX_VALUE, tamanhoJanela * 2L);
+            }
+            mapear(inicioJanela + posicao);
+        }
+    }
+
+    /** Fecha o canal do arquivo (inclusive quando compartilhado com outros leitores). Erros ao fechar são ignorados, como em Scanner.close() */
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException excecao) {
+            // nada a fazer: o arquivo foi apenas lido
+        }
+    }
+}
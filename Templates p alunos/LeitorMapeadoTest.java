@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LeitorMapeadoTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void leRegistrosDoArquivoMapeado() throws IOException {
+        Path arquivo = pasta.resolve("produtos.csv");
+        Files.write(arquivo, "2\n1;Pão de queijo;1.50;0.40\r\n1;Açúcar;4.00;0.20".getBytes(StandardCharsets.UTF_8));
+        try (LeitorMapeado leitor = LeitorMapeado.abrir(arquivo)) {
+            assertEquals(2, leitor.proximo().inteiro(0));
+            assertEquals("Pão de queijo", leitor.proximo().texto(1));
+            RegistroCsv registro = leitor.proximo();
+            assertEquals("Açúcar", registro.texto(1));
+            assertEquals(0.2, registro.decimal(3));
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    public void percorreArquivoEmJanelasPequenas() throws IOException {
+        Path arquivo = pasta.resolve("grande.csv");
+        StringBuilder dados = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            dados.append("1;Produto ").append(i).append(";1.00;0.10\n");
+        }
+        Files.write(arquivo, dados.toString().getBytes(StandardCharsets.UTF_8));
+        try (LeitorMapeado leitor = new LeitorMapeado(FileChannel.open(arquivo, StandardOpenOption.READ), 7)) {
+            for (int i = 0; i < 500; i++) {
+                assertEquals("Produto " + i, leitor.proximo().texto(1));
+            }
+            assertNull(leitor.proximo());
+        }
+    }
+}
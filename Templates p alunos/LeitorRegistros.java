@@ -0,0 +1,119 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Leitor sequencial dos arquivos de dados separados por ';'. Lê blocos grandes de caracteres para um buffer
+ * próprio e localiza as linhas e os campos diretamente nesse buffer, sem criar uma String por linha como
+ * Scanner.nextLine(). O {@link RegistroCsv} retornado é reaproveitado e só é válido até a próxima leitura.
+ */
+public class LeitorRegistros implements FonteRegistros {
+
+    /** Tamanho inicial do buffer de leitura, em caracteres */
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    /** Origem dos caracteres */
+    private Reader origem;
+
+    /** Buffer de leitura. Cresce caso uma linha não caiba nele */
+    private char[] buffer = new char[TAMANHO_BUFFER];
+
+    /** Visão do buffer como CharSequence, usada pelo registro */
+    private CharBuffer visao = CharBuffer.wrap(buffer);
+
+    /** Início da próxima linha ainda não consumida */
+    private int inicio = 0;
+
+    /** Posição até onde já se procurou por fim de linha */
+    private int varredura = 0;
+
+    /** Fim dos dados válidos no buffer */
+    private int limite = 0;
+
+    /** Indica que a origem não tem mais caracteres */
+    private boolean fimDaOrigem = false;
+
+    /** Registro reaproveitado a cada linha */
+    private RegistroCsv registro = new RegistroCsv();
+
+    /**
+     * Cria um leitor sobre uma origem de caracteres qualquer.
+     * @param origem Origem dos caracteres
+     */
+    public LeitorRegistros(Reader origem) {
+        this.origem = origem;
+    }
+
+    /**
+     * Abre um arquivo de dados em UTF-8 para leitura.
+     * @param nomeArquivo Nome do arquivo
+     * @return Um leitor posicionado no início do arquivo
+     * @throws IOException caso o arquivo não possa ser aberto
+     */
+    public static LeitorRegistros abrir(String nomeArquivo) throws IOException {
+        return new LeitorRegistros(new InputStreamReader(new FileInputStream(nomeArquivo), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê a próxima linha da origem. Terminações "\n" e "\r\n" são aceitas.
+     * @return O registro com os campos da linha, ou null ao fim da origem
+     * @throws IOException em caso de erro de leitura
+     */
+    @Override
+    public RegistroCsv proximo() throws IOException {
+        while (true) {
+            for (int i = varredura; i < limite; i++) {
+                if (buffer[i] == '\n') {
+                    int fimLinha = (i > inicio && buffer[i - 1] == '\r') ? i - 1 : i;
+                    registro.separar(visao, inicio, fimLinha);
+                    inicio = varredura = i + 1;
+                    return registro;
+                }
+            }
+            varredura = limite;
+            if (fimDaOrigem) {
+                if (inicio == limite)
+                    return null;
+                int fimLinha = buffer[limite - 1] == '\r' ? limite - 1 : limite;
+                registro.separar(visao, inicio, fimLinha);
+                inicio = varredura = limite;
+                return registro;
+            }
+            carregar();
+        }
+    }
+
+    /** Descarta as linhas já consumidas do buffer e lê mais caracteres da origem */
+    private void carregar() throws IOException {
+        if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, limite - inicio);
+            limite -= inicio;
+            varredura -= inicio;
+            inicio = 0;
+        }
+        if (limite == buffer.length) {
+            char[] maior = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, maior, 0, limite);
+            buffer = maior;
+            visao = CharBuffer.wrap(buffer);
+        }
+        int lidos = origem.read(buffer, limite, buffer.length - limite);
+        if (lidos < 0)
+            fimDaOrigem = true;
+        else
+            limite += lidos;
+    }
+
+    /** Fecha a origem. Erros ao fechar são ignorados, como em Scanner.close() */
+    @Override
+    public void close() {
+        try {
+            origem.close();
+        } catch (IOException excecao) {
+            // nada a fazer: o arquivo foi apenas lido
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class LeitorRegistrosTest {
+
+    @Test
+    public void separaCamposDaLinha() throws IOException {
+        LeitorRegistros leitor = new LeitorRegistros(new StringReader("2;Iogurte;7.50;0.15;30/08/2025\n"));
+        RegistroCsv registro = leitor.proximo();
+        assertEquals(5, registro.quantidadeCampos());
+        assertEquals(2, registro.inteiro(0));
+        assertEquals("Iogurte", registro.texto(1));
+        assertEquals(7.5, registro.decimal(2));
+        assertEquals(0.15, registro.decimal(3));
+        assertEquals(LocalDate.of(2025, 8, 30), registro.data(4));
+        assertNull(leitor.proximo());
+    }
+
+    @Test
+    public void aceitaFimDeLinhaWindowsESemQuebraFinal() throws IOException {
+        LeitorRegistros leitor = new LeitorRegistros(new StringReader("2\r\n1;Lapis;1.30;0.50\r\n1;Borracha;6.50;0.25"));
+        assertEquals(2, leitor.proximo().inteiro(0));
+        assertEquals("Lapis", leitor.proximo().texto(1));
+        assertEquals(0.25, leitor.proximo().decimal(3));
+        assertNull(leitor.proximo());
+    }
+
+    @Test
+    public void leLinhasMaioresQueOBuffer() throws IOException {
+        String descricao = "x".repeat(100_000);
+        LeitorRegistros leitor = new LeitorRegistros(new StringReader("1;" + descricao + ";1.00;0.10\n"));
+        assertEquals(descricao, leitor.proximo().texto(1));
+    }
+
+    @Test
+    public void criaProdutoDoRegistro(){
+        Produto produto = Produto.criarDoRegistro(new RegistroCsv("1;Produto do arquivo;10.0;0.1"));
+        assertEquals(11.0, produto.valorDeVenda(), 0.01);
+    }
+}
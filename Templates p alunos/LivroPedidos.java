@@ -0,0 +1,252 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Armazenamento compacto de pedidos em vetores primitivos compartilhados. Cada pedido ocupa uma posição nos vetores
+ * de data (dia da época, int), forma de pagamento (byte) e início dos itens (int); os itens de todos os pedidos ficam
+ * em sequência em um único vetor de códigos de produto (int), e os itens do pedido i vão de inicio[i] a inicio[i+1].
+ * Um pedido com um item custa cerca de 13 bytes, contra o objeto Pedido, o LocalDate e o vetor de referências do
+ * pedido avulso, e percorrer os pedidos lê memória contígua.
+ * <p>
+ * Cada objeto produto distinto recebe um código sequencial, e o livro guarda os produtos em um vetor indexado pelo
+ * código, de modo que cada item é lido de volta como o mesmo objeto incluído, com o mesmo preço. O primeiro produto
+ * de cada descrição é encontrado pelo identificador da descrição no {@link DicionarioDescricoes} do próprio livro;
+ * outros objetos com a mesma descrição (ex.: um produto avulso, fora do cadastro, com outro preço) são raros e ficam
+ * em um mapa por identidade.
+ * <p>
+ * Os pedidos são lidos como visões ({@link #pedido(int)}), criadas sob demanda e não modificáveis. Como o vetor de
+ * pedidos que substitui, o livro não é seguro para inclusões concorrentes com outras operações.
+ */
+public class LivroPedidos {
+
+    /** Capacidade inicial padrão, em pedidos */
+    private static final int CAPACIDADE_PADRAO = 16;
+
+    /** Itens reservados por pedido ao dimensionar o vetor de itens */
+    private static final int ITENS_POR_PEDIDO = 4;
+
+    /** Data de cada pedido, em dias desde 01/01/1970 */
+    private int[] diasEpoca;
+
+    /** Forma de pagamento de cada pedido */
+    private byte[] formas;
+
+    /** Posição do primeiro item de cada pedido no vetor de itens; inicios[quantidade] é o total de itens */
+    private int[] inicios;
+
+    /** Códigos de produto dos itens de todos os pedidos, em sequência */
+    private int[] itens;
+
+    /** Quantidade de pedidos */
+    private int quantidade;
+
+    /** Identificadores das descrições dos produtos incluídos */
+    private final DicionarioDescricoes descricoes = new DicionarioDescricoes();
+
+    /** Código + 1 do primeiro produto de cada descrição, indexado pelo identificador (0 = nenhum) */
+    private int[] primeiroCodigoPorDescricao = new int[16];
+
+    /** Códigos dos demais objetos que têm a descrição de um produto já incluído */
+    private final Map<Produto, Integer> outrosProdutos = new IdentityHashMap<>();
+
+    /** Produto de cada código. Dobra de tamanho quando necessário */
+    private Produto[] produtosPorCodigo = new Produto[16];
+
+    /** Quantidade de códigos atribuídos */
+    private int quantidadeCodigos;
+
+    /** Cria um livro vazio com a capacidade padrão */
+    public LivroPedidos() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um livro vazio pré-dimensionado.
+     * @param capacidadeInicial Quantidade de pedidos esperada (valores menores que 1 usam a capacidade padrão)
+     */
+    public LivroPedidos(int capacidadeInicial) {
+        if (capacidadeInicial < 1)
+            capacidadeInicial = CAPACIDADE_PADRAO;
+        diasEpoca = new int[capacidadeInicial];
+        formas = new byte[capacidadeInicial];
+        inicios = new int[capacidadeInicial + 1];
+        itens = new int[(int) Math.min(Integer.MAX_VALUE - 8, (long) capacidadeInicial * ITENS_POR_PEDIDO)];
+    }
+
+    /**
+     * Garante espaço para ao menos a quantidade de pedidos informada.
+     * @param capacidadeMinima Capacidade mínima desejada, em pedidos
+     */
+    public void garantirCapacidade(int capacidadeMinima) {
+        if (capacidadeMinima > diasEpoca.length) {
+            int novaCapacidade = Math.max(capacidadeMinima, diasEpoca.length * 2);
+            if (novaCapacidade < 0)
+                novaCapacidade = Integer.MAX_VALUE - 8;
+            diasEpoca = Arrays.copyOf(diasEpoca, novaCapacidade);
+            formas = Arrays.copyOf(formas, novaCapacidade);
+            inicios = Arrays.copyOf(inicios, novaCapacidade + 1);
+        }
+    }
+
+    /**
+     * Inclui um pedido ao final do livro, copiando seus dados. Alterações posteriores no pedido não afetam o livro.
+     * @param pedido Pedido a ser incluído
+     * @return Posição do pedido no livro
+     * @throws IllegalArgumentException caso a forma de pagamento não caiba em um byte
+     */
+    public int adicionar(Pedido pedido) {
+        int formaDePagamento = pedido.getFormaDePagamento();
+        if (formaDePagamento != (byte) formaDePagamento)
+            throw new IllegalArgumentException("Forma de pagamento inválida: " + formaDePagamento);
+        int quantItens = pedido.getQuantProdutos();
+        garantirCapacidade(quantidade + 1);
+        int inicio = inicios[quantidade];
+        if (inicio + quantItens > itens.length) {
+            long novaCapacidade = Math.max((long) inicio + quantItens, (long) itens.length * 2);
+            itens = Arrays.copyOf(itens, (int) Math.min(Integer.MAX_VALUE - 8, novaCapacidade));
+        }
+        for (int i = 0; i < quantItens; i++) {
+            itens[inicio + i] = codigo(pedido.getProduto(i));
+        }
+        diasEpoca[quantidade] = (int) pedido.getDataPedido().toEpochDay();
+        formas[quantidade] = (byte) formaDePagamento;
+        inicios[quantidade + 1] = inicio + quantItens;
+        return quantidade++;
+    }
+
+    /** Código do produto, atribuindo um novo se o objeto ainda não tiver um */
+    private int codigo(Produto produto) {
+        int descricao = descricoes.idDaChave(produto.getChave());
+        if (descricao >= primeiroCodigoPorDescricao.length)
+            primeiroCodigoPorDescricao = Arrays.copyOf(primeiroCodigoPorDescricao,
+                    Math.max(descricao + 1, primeiroCodigoPorDescricao.length * 2));
+        int codigo = primeiroCodigoPorDescricao[descricao] - 1;
+        if (codigo < 0) {
+            codigo = novoCodigo(produto);
+            primeiroCodigoPorDescricao[descricao] = codigo + 1;
+        } else if (produtosPorCodigo[codigo] != produto) {
+            Integer outro = outrosProdutos.get(produto);
+            if (outro != null)
+                return outro;
+            codigo = novoCodigo(produto);
+            outrosProdutos.put(produto, codigo);
+        }
+        return codigo;
+    }
+
+    private int novoCodigo(Produto produto) {
+        if (quantidadeCodigos == produtosPorCodigo.length)
+            produtosPorCodigo = Arrays.copyOf(produtosPorCodigo, produtosPorCodigo.length * 2);
+        produtosPorCodigo[quantidadeCodigos] = produto;
+        return quantidadeCodigos++;
+    }
+
+    /**
+     * Visão do pedido na posição informada.
+     * @param posicao Posição do pedido, de 0 a quantidade()-1
+     * @return Um pedido não modificável com os dados da posição
+     * @throws IndexOutOfBoundsException caso a posição seja inválida
+     */
+    public Pedido pedido(int posicao) {
+        verificarPosicao(posicao);
+        return new Pedido(this, posicao);
+    }
+
+    /** @return Quantidade de pedidos no livro */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** @return Quantidade de itens de todos os pedidos */
+    public int quantidadeItens() {
+        return inicios[quantidade];
+    }
+
+    /**
+     * @param posicao Posição do pedido
+     * @return Data do pedido, em dias desde 01/01/1970
+     */
+    public int diaEpoca(int posicao) {
+        verificarPosicao(posicao);
+        return diasEpoca[posicao];
+    }
+
+    /**
+     * @param posicao Posição do pedido
+     * @return Data do pedido
+     */
+    public LocalDate data(int posicao) {
+        return LocalDate.ofEpochDay(diaEpoca(posicao));
+    }
+
+    /**
+     * @param posicao Posição do pedido
+     * @return Forma de pagamento do pedido
+     */
+    public int formaDePagamento(int posicao) {
+        verificarPosicao(posicao);
+        return formas[posicao];
+    }
+
+    /**
+     * @param posicao Posição do pedido
+     * @return Quantidade de itens do pedido
+     */
+    public int quantidadeItens(int posicao) {
+        verificarPosicao(posicao);
+        return inicios[posicao + 1] - inicios[posicao];
+    }
+
+    /**
+     * Posição do primeiro item do pedido no vetor de itens (ver {@link #codigoItem(int)}); os itens do pedido vão
+     * de inicioItens(posicao) a inicioItens(posicao + 1), exclusive.
+     * @param posicao Posição do pedido, de 0 a quantidade()
+     * @return Posição do primeiro item do pedido
+     */
+    public int inicioItens(int posicao) {
+        if (posicao < 0 || posicao > quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        return inicios[posicao];
+    }
+
+    /**
+     * @param item Posição do item no vetor de itens, de 0 a quantidadeItens()-1
+     * @return Código do produto do item, de 0 a quantidadeCodigos()-1
+     */
+    public int codigoItem(int item) {
+        if (item < 0 || item >= inicios[quantidade])
+            throw new IndexOutOfBoundsException("Item inválido: " + item);
+        return itens[item];
+    }
+
+    /** @return Quantidade de códigos (produtos distintos) usados pelos itens */
+    public int quantidadeCodigos() {
+        return quantidadeCodigos;
+    }
+
+    /**
+     * @param codigo Código devolvido por {@link #codigoItem(int)}
+     * @return O produto do código
+     */
+    public Produto produtoDoCodigo(int codigo) {
+        return produtosPorCodigo[codigo];
+    }
+
+    /**
+     * @param posicao Posição do pedido
+     * @param item Posição do item no pedido, de 0 a quantidadeItens(posicao)-1
+     * @return O produto do item
+     */
+    public Produto produto(int posicao, int item) {
+        if (item < 0 || item >= quantidadeItens(posicao))
+            throw new IndexOutOfBoundsException("Posição inválida: " + item);
+        return produtoDoCodigo(itens[inicios[posicao] + item]);
+    }
+
+    private void verificarPosicao(int posicao) {
+        if (posicao < 0 || posicao >= quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+    }
+}
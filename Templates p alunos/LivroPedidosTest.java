@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LivroPedidosTest {
+
+    static final LocalDate DATA = LocalDate.of(2025, 8, 1);
+
+    @Test
+    public void visoesReproduzemOsPedidosIncluidos() {
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            produtos.add(new ProdutoNaoPerecivel("Livro produto " + i, 1 + i, 0.2));
+        }
+        Random sorteio = new Random(7);
+        List<Pedido> originais = new ArrayList<>();
+        LivroPedidos livro = new LivroPedidos(2);
+        for (int i = 0; i < 5_000; i++) {
+            Pedido pedido = new Pedido(DATA.plusDays(sorteio.nextInt(400) - 200), 1 + sorteio.nextInt(2));
+            for (int j = 0, itens = sorteio.nextInt(12); j < itens; j++) {
+                pedido.incluirProduto(produtos.get(sorteio.nextInt(produtos.size())));
+            }
+            originais.add(pedido);
+            assertEquals(i, livro.adicionar(pedido));
+        }
+        assertEquals(originais.size(), livro.quantidade());
+        int itens = 0;
+        for (int i = 0; i < originais.size(); i++) {
+            Pedido original = originais.get(i), visao = livro.pedido(i);
+            assertEquals(original, visao);
+            assertEquals(original.toString(), visao.toString());
+            assertEquals(original.gerarDadosTexto(), visao.gerarDadosTexto());
+            assertEquals(original.valorFinal(), visao.valorFinal(), 1e-9);
+            for (int j = 0; j < original.getQuantProdutos(); j++) {
+                assertSame(original.getProduto(j), visao.getProduto(j));
+            }
+            itens += original.getQuantProdutos();
+        }
+        assertEquals(itens, livro.quantidadeItens());
+    }
+
+    @Test
+    public void produtosComAMesmaDescricaoMantemSeusPrecos() {
+        Produto cadastrado = new ProdutoNaoPerecivel("Livro variante", 10, 0.1);
+        Produto avulso = new ProdutoNaoPerecivel("LIVRO VARIANTE", 30, 0.5);
+        Pedido pedido = new Pedido(DATA, 2);
+        pedido.incluirProduto(cadastrado);
+        pedido.incluirProduto(avulso);
+        pedido.incluirProduto(cadastrado);
+        double valorFinal = pedido.valorFinal();
+        LivroPedidos livro = new LivroPedidos();
+        livro.adicionar(pedido);
+        for (int i = 0; i < 1_000; i++) {
+            Pedido repetido = new Pedido(DATA, 2);
+            repetido.incluirProduto(i % 2 == 0 ? cadastrado : avulso);
+            livro.adicionar(repetido);
+        }
+
+        assertEquals(2, livro.quantidadeCodigos());
+        Pedido visao = livro.pedido(0);
+        assertEquals(pedido, visao);
+        assertSame(cadastrado, visao.getProduto(0));
+        assertSame(avulso, visao.getProduto(1));
+        assertSame(cadastrado, visao.getProduto(2));
+        assertEquals(valorFinal, visao.valorFinal(), 1e-9);
+        assertSame(avulso, livro.pedido(1_000).getProduto(0));
+        assertEquals(avulso.valorDeVenda(), livro.pedido(1_000).valorFinal(), 1e-9);
+    }
+
+    @Test
+    public void visoesNaoPodemSerAlteradas() {
+        LivroPedidos livro = new LivroPedidos();
+        livro.adicionar(new Pedido(DATA, 1));
+        Pedido visao = livro.pedido(0);
+        assertEquals(0, visao.getQuantProdutos());
+        assertThrows(UnsupportedOperationException.class,
+                () -> visao.incluirProduto(new ProdutoNaoPerecivel("Livro avulso", 1, 0.1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> livro.pedido(1));
+        assertThrows(IllegalArgumentException.class, () -> livro.adicionar(new Pedido(DATA, 300)));
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Medições de uma operação instrumentada (ver {@link Metricas}): quantidade de chamadas, histograma de latências e,
+ * para operações longas como cargas e gravações de arquivos, bytes alocados.
+ * <p>
+ * Uso, no método medido:
+ * <pre>
+ * long inicio = Metricas.VALOR_FINAL.iniciar();
+ * ... trabalho ...
+ * Metricas.VALOR_FINAL.registrar(inicio);
+ * </pre>
+ * Com as métricas desligadas, {@link #iniciar()} custa a leitura de um campo volátil e {@link #registrar(long)} uma
+ * comparação. Com elas ligadas, cada medição custa duas leituras do relógio e alguns incrementos atômicos.
+ */
+public final class Medidor implements Metricas.MedidorMBean {
+
+    /** Valor devolvido por {@link #iniciar()} quando as métricas estão desligadas */
+    static final long DESLIGADO = Long.MIN_VALUE;
+
+    private final String nome;
+    private final boolean medeAlocacao;
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private final LongAdder bytesAlocados = new LongAdder();
+
+    /** Bytes alocados no início da medição em andamento, por thread (apenas se medeAlocacao) */
+    private final ThreadLocal<long[]> alocadosNoInicio;
+
+    /**
+     * @param nome Nome da operação
+     * @param medeAlocacao Se os bytes alocados durante a operação devem ser medidos. A medição soma a alocação de
+     *                     todas as threads (inclusive as de cargas paralelas e de outras atividades simultâneas) e
+     *                     custa alguns microssegundos; use apenas em operações longas
+     */
+    Medidor(String nome, boolean medeAlocacao) {
+        this.nome = nome;
+        this.medeAlocacao = medeAlocacao;
+        this.alocadosNoInicio = medeAlocacao ? ThreadLocal.withInitial(() -> new long[1]) : null;
+    }
+
+    /**
+     * Inicia uma medição.
+     * @return Instante de início, a ser repassado a {@link #registrar(long)}
+     */
+    public long iniciar() {
+        if (!Metricas.ativas)
+            return DESLIGADO;
+        if (medeAlocacao)
+            alocadosNoInicio.get()[0] = Metricas.bytesAlocados();
+        return System.nanoTime();
+    }
+
+    /**
+     * Conclui uma medição iniciada por {@link #iniciar()}. Nada é registrado se as métricas estavam desligadas no
+     * início da medição.
+     * @param inicio Valor devolvido por {@link #iniciar()}
+     */
+    public void registrar(long inicio) {
+        if (inicio == DESLIGADO)
+            return;
+        latencias.registrar(System.nanoTime() - inicio);
+        if (medeAlocacao) {
+            long alocados = Metricas.bytesAlocados() - alocadosNoInicio.get()[0];
+            if (alocados > 0)
+                bytesAlocados.add(alocados);
+        }
+    }
+
+    /** @return Histograma das latências registradas */
+    public HistogramaLatencias latencias() {
+        return latencias;
+    }
+
+    @Override
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public long getChamadas() {
+        return latencias.quantidade();
+    }
+
+    @Override
+    public double getMediaMicros() {
+        return latencias.media() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencias.percentil(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latencias.percentil(0.90) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencias.percentil(0.99) / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencias.percentil(0.999) / 1e3;
+    }
+
+    @Override
+    public double getMaximoMicros() {
+        return latencias.maximo() / 1e3;
+    }
+
+    @Override
+    public long getBytesAlocados() {
+        return medeAlocacao ? bytesAlocados.sum() : -1;
+    }
+
+    @Override
+    public void zerar() {
+        latencias.zerar();
+        bytesAlocados.reset();
+    }
+
+    /**
+     * Resumo das medições.
+     * @return Linha no formato "nome: N chamadas, média, p50, p99, p99,9 e máximo em µs[, MB alocados]"
+     */
+    @Override
+    public String toString() {
+        String resumo = String.format("%s: %,d chamadas, média %,.3f µs, p50 %,.3f µs, p99 %,.3f µs, p99,9 %,.3f µs, máx. %,.3f µs",
+                nome, getChamadas(), getMediaMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaximoMicros());
+        if (medeAlocacao)
+            resumo += String.format(", %,.1f MB alocados", bytesAlocados.sum() / 1e6);
+        return resumo;
+    }
+}
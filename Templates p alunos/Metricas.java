@@ -0,0 +1,207 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Instrumentação das operações principais da aplicação: um {@link Medidor} por operação, com contagem de chamadas,
+ * histograma de latências e, nas cargas e gravações de arquivos, bytes alocados.
+ * <p>
+ * As métricas começam desligadas (custo de uma leitura volátil por chamada) e podem ser ligadas:
+ * <ul>
+ * <li>na inicialização, com -Dcomercio.metricas=true;</li>
+ * <li>em execução, por {@link #ativar(boolean)} ou pelo atributo Ativas do MBean "comercio:type=Metricas" (ex.: no
+ * JConsole), depois de {@link #registrarJmx()};</li>
+ * </ul>
+ * Cada medidor também é publicado como MBean ("comercio:type=Metricas,name=..."), e o relatório de todos pode ser
+ * impresso periodicamente (-Dcomercio.metricas.intervalo=segundos ou {@link #iniciarRelatorioPeriodico}).
+ */
+public final class Metricas {
+
+    /** Atributos de um medidor publicados via JMX */
+    public interface MedidorMBean {
+        String getNome();
+        long getChamadas();
+        double getMediaMicros();
+        double getP50Micros();
+        double getP90Micros();
+        double getP99Micros();
+        double getP999Micros();
+        double getMaximoMicros();
+        /** @return Bytes alocados, ou -1 se o medidor não mede alocação */
+        long getBytesAlocados();
+        void zerar();
+    }
+
+    /** Controle das métricas publicado via JMX */
+    public interface ControleMBean {
+        boolean isAtivas();
+        void setAtivas(boolean ativas);
+        String getRelatorio();
+        void zerar();
+    }
+
+    /** Domínio e tipo dos nomes JMX */
+    static final String NOME_JMX = "comercio:type=Metricas";
+
+    /** Indica se as medições estão ligadas. Lido a cada chamada instrumentada */
+    static volatile boolean ativas = Boolean.getBoolean("comercio.metricas");
+
+    public static final Medidor LER_PRODUTOS = new Medidor("lerProdutos", true);
+    public static final Medidor LER_PEDIDOS = new Medidor("lerPedidos", true);
+    public static final Medidor SALVAR_PRODUTOS = new Medidor("salvarProdutos", true);
+    /** Criação de produtos a partir do texto (criarDoTexto e criarDoRegistro) */
+    public static final Medidor CRIAR_PRODUTO = new Medidor("criarProduto", false);
+    /** Criação de pedidos a partir do texto (criarDoTexto e criarDoRegistro), incluindo a localização dos produtos */
+    public static final Medidor CRIAR_PEDIDO = new Medidor("criarPedido", false);
+    public static final Medidor LOCALIZAR_PRODUTO = new Medidor("localizarProdutoPorNome", false);
+    public static final Medidor VALOR_DE_VENDA = new Medidor("valorDeVenda", false);
+    /** Valor final dos pedidos (inclui as medições de valorDeVenda de cada item, quando ligadas) */
+    public static final Medidor VALOR_FINAL = new Medidor("valorFinal", false);
+
+    private static final List<Medidor> MEDIDORES = List.of(LER_PRODUTOS, LER_PEDIDOS, SALVAR_PRODUTOS, CRIAR_PRODUTO,
+            CRIAR_PEDIDO, LOCALIZAR_PRODUTO, VALOR_DE_VENDA, VALOR_FINAL);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static boolean registradoJmx;
+    private static ScheduledExecutorService agendador;
+    private static ScheduledFuture<?> relatorioPeriodico;
+
+    static {
+        long intervalo = Long.getLong("comercio.metricas.intervalo", 0);
+        if (intervalo > 0)
+            iniciarRelatorioPeriodico(intervalo, System.err);
+    }
+
+    private Metricas() { }
+
+    /** @param ligar true para ligar as medições, false para desligá-las (os valores já medidos são mantidos) */
+    public static void ativar(boolean ligar) {
+        ativas = ligar;
+    }
+
+    /** @return true se as medições estão ligadas */
+    public static boolean ativas() {
+        return ativas;
+    }
+
+    /** @return Todos os medidores, na ordem do relatório */
+    public static List<Medidor> medidores() {
+        return MEDIDORES;
+    }
+
+    /** Descarta os valores medidos por todos os medidores */
+    public static void zerar() {
+        for (Medidor medidor : MEDIDORES) {
+            medidor.zerar();
+        }
+    }
+
+    /**
+     * Relatório dos medidores que já registraram alguma chamada.
+     * @return Uma linha por medidor (ver {@link Medidor#toString()}), ou uma mensagem se não houver medições
+     */
+    public static String relatorio() {
+        StringBuilder relatorio = new StringBuilder();
+        for (Medidor medidor : MEDIDORES) {
+            if (medidor.getChamadas() > 0)
+                relatorio.append(medidor).append('\n');
+        }
+        if (relatorio.length() == 0)
+            return ativas ? "Nenhuma operação medida.\n" : "Métricas desligadas.\n";
+        return relatorio.toString();
+    }
+
+    /**
+     * Bytes alocados até o momento por todas as threads vivas, ou 0 se a JVM não oferece essa medida.
+     * Usado pelos medidores que medem alocação.
+     */
+    static long bytesAlocados() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return 0;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemoryEnabled())
+            return 0;
+        long total = 0;
+        for (long alocados : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (alocados > 0)
+                total += alocados;
+        }
+        return total;
+    }
+
+    /**
+     * Publica o controle e os medidores no servidor de MBeans da plataforma. Pode ser chamado mais de uma vez.
+     */
+    public static synchronized void registrarJmx() {
+        if (registradoJmx)
+            return;
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            servidor.registerMBean(new StandardMBean(new ControleMBean() {
+                @Override
+                public boolean isAtivas() {
+                    return ativas;
+                }
+
+                @Override
+                public void setAtivas(boolean ligar) {
+                    ativar(ligar);
+                }
+
+                @Override
+                public String getRelatorio() {
+                    return relatorio();
+                }
+
+                @Override
+                public void zerar() {
+                    Metricas.zerar();
+                }
+            }, ControleMBean.class), new ObjectName(NOME_JMX));
+            for (Medidor medidor : MEDIDORES) {
+                servidor.registerMBean(new StandardMBean(medidor, MedidorMBean.class),
+                        new ObjectName(NOME_JMX + ",name=" + medidor.getNome()));
+            }
+            registradoJmx = true;
+        } catch (JMException excecao) {
+            System.out.println("Não foi possível publicar as métricas via JMX: " + excecao.getMessage());
+        }
+    }
+
+    /**
+     * Imprime o relatório periodicamente, em uma thread de fundo, substituindo um relatório periódico anterior.
+     * @param segundos Intervalo entre relatórios
+     * @param destino Onde o relatório é impresso
+     */
+    public static synchronized void iniciarRelatorioPeriodico(long segundos, PrintStream destino) {
+        pararRelatorioPeriodico();
+        if (agendador == null) {
+            agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "relatorio-metricas");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        relatorioPeriodico = agendador.scheduleAtFixedRate(() -> destino.print(relatorio()), segundos, segundos,
+                TimeUnit.SECONDS);
+    }
+
+    /** Interrompe o relatório periódico, se houver */
+    public static synchronized void pararRelatorioPeriodico() {
+        if (relatorioPeriodico != null) {
+            relatorioPeriodico.cancel(false);
+            relatorioPeriodico = null;
+        }
+    }
+}
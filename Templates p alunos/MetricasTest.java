@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricasTest {
+
+    @TempDir
+    Path pasta;
+
+    Pedido pedido;
+
+    @BeforeEach
+    public void prepare() {
+        Metricas.zerar();
+        pedido = new Pedido(LocalDate.of(2030, 3, 10), 1);
+        pedido.incluirProduto(new ProdutoNaoPerecivel("Arroz", 10, 0.2));
+        pedido.incluirProduto(new ProdutoNaoPerecivel("Feijão", 8, 0.1));
+    }
+
+    @AfterEach
+    public void desliga() {
+        Metricas.ativar(false);
+        Metricas.zerar();
+    }
+
+    @Test
+    public void medeApenasQuandoLigadas() {
+        pedido.valorFinal();
+        assertEquals(0, Metricas.VALOR_FINAL.getChamadas());
+        assertEquals("Métricas desligadas.\n", Metricas.relatorio());
+
+        Metricas.ativar(true);
+        for (int i = 0; i < 1_000; i++) {
+            pedido.valorFinal();
+        }
+        Metricas.ativar(false);
+        pedido.valorFinal();
+
+        assertEquals(1_000, Metricas.VALOR_FINAL.getChamadas());
+        assertEquals(2_000, Metricas.VALOR_DE_VENDA.getChamadas());
+        assertTrue(Metricas.VALOR_FINAL.getMaximoMicros() >= Metricas.VALOR_FINAL.getP50Micros());
+        assertEquals(-1, Metricas.VALOR_FINAL.getBytesAlocados());
+        String relatorio = Metricas.relatorio();
+        assertTrue(relatorio.startsWith("valorDeVenda: 2.000 chamadas"), relatorio);
+        assertEquals(2, relatorio.split("\n").length);
+    }
+
+    @Test
+    public void medeCargaComAlocacao() throws IOException {
+        Path arquivo = pasta.resolve("produtos.csv");
+        Files.write(arquivo, "2\n1;Arroz;10.00;0.20\n1;Feijão;8.00;0.10\n".getBytes(StandardCharsets.UTF_8));
+        Metricas.ativar(true);
+        assertNotNull(App.lerProdutos(arquivo.toString()));
+
+        assertEquals(1, Metricas.LER_PRODUTOS.getChamadas());
+        assertEquals(2, Metricas.CRIAR_PRODUTO.getChamadas());
+        assertTrue(Metricas.LER_PRODUTOS.getBytesAlocados() > 0);
+        assertTrue(Metricas.LER_PRODUTOS.toString().contains("MB alocados"));
+    }
+
+    @Test
+    public void publicaControleEMedidoresViaJmx() throws Exception {
+        Metricas.registrarJmx();
+        Metricas.registrarJmx();
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName controle = new ObjectName(Metricas.NOME_JMX);
+
+        servidor.setAttribute(controle, new Attribute("Ativas", true));
+        assertTrue(Metricas.ativas());
+        pedido.valorFinal();
+        assertEquals(1L, servidor.getAttribute(new ObjectName(Metricas.NOME_JMX + ",name=valorFinal"), "Chamadas"));
+
+        servidor.invoke(controle, "zerar", null, null);
+        assertEquals(0, Metricas.VALOR_FINAL.getChamadas());
+        servidor.setAttribute(controle, new Attribute("Ativas", false));
+        assertFalse(Metricas.ativas());
+    }
+}
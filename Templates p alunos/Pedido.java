@@ -1,14 +1,14 @@
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.function.Function;
 
 public class Pedido {
 
-	/** Quantidade máxima de produtos de um pedido */
-	private static final int MAX_PRODUTOS = 10;
+	/** Capacidade inicial do vetor de produtos de um pedido. O vetor cresce conforme a necessidade */
+	private static final int CAPACIDADE_INICIAL = 4;
 	
 	/** Porcentagem de desconto para pagamentos à vista */
-	private static final double DESCONTO_PG_A_VISTA = 0.15;
+	static final double DESCONTO_PG_A_VISTA = 0.15;
 	
 	/** Vetor para armazenar os produtos do pedido */
 	private Produto[] produtos;
@@ -22,28 +22,57 @@ public class Pedido {
 	/** Indica a forma de pagamento do pedido sendo: 1, pagamento à vista; 2, pagamento parcelado */
 	private int formaDePagamento;
 	
+	/** Livro onde o pedido está armazenado, se for uma visão (ver {@link LivroPedidos#pedido(int)}); null se avulso */
+	private final LivroPedidos livro;
+	
+	/** Posição do pedido no livro */
+	private final int posicao;
+	
 	/** Construtor do pedido.
 	 *  Deve criar o vetor de produtos do pedido, 
 	 *  armazenar a data e a forma de pagamento informadas para o pedido. 
 	 */  
 	public Pedido(LocalDate dataPedido, int formaDePagamento) {
-		this.produtos = new Produto[MAX_PRODUTOS];
+		this(dataPedido, formaDePagamento, CAPACIDADE_INICIAL);
+	}
+	
+	/** Construtor do pedido com o vetor de produtos pré-dimensionado para a quantidade de itens esperada. */
+	Pedido(LocalDate dataPedido, int formaDePagamento, int quantidadeEsperada) {
+		this.produtos = new Produto[Math.max(1, quantidadeEsperada)];
 		this.dataPedido = dataPedido;
 		this.formaDePagamento = formaDePagamento;
+		this.livro = null;
+		this.posicao = -1;
+	}
+	
+	/**
+	 * Visão não modificável de um pedido armazenado no livro. Os produtos são lidos do livro a cada acesso, e a data
+	 * é convertida na primeira vez em que é pedida.
+	 */
+	Pedido(LivroPedidos livro, int posicao) {
+		this.livro = livro;
+		this.posicao = posicao;
+		this.formaDePagamento = livro.formaDePagamento(posicao);
+		this.quantProdutos = livro.quantidadeItens(posicao);
 	}
 	
 	/**
      * Inclui um produto neste pedido e aumenta a quantidade de produtos armazenados no pedido até o momento.
+     * O vetor de produtos é ampliado quando necessário, portanto não há limite de itens por pedido.
      * @param novo O produto a ser incluído no pedido
      * @return true/false indicando se a inclusão do produto no pedido foi realizada com sucesso.
+     * @throws UnsupportedOperationException caso o pedido seja uma visão de um {@link LivroPedidos}, que não pode ser
+     *         alterada
      */
 	public boolean incluirProduto(Produto novo) {
-		if (quantProdutos < MAX_PRODUTOS) {
-			produtos[quantProdutos] = novo;
-			quantProdutos++;
-			return true;
+		if (livro != null)
+			throw new UnsupportedOperationException("Pedido armazenado no livro de pedidos não pode ser alterado");
+		if (quantProdutos == produtos.length) {
+			produtos = Arrays.copyOf(produtos, produtos.length * 2);
 		}
-		return false;
+		produtos[quantProdutos] = novo;
+		quantProdutos++;
+		return true;
 	}
 	
 	/**
@@ -52,13 +81,15 @@ public class Pedido {
      * @return Valor final do pedido (double)
      */
 	public double valorFinal() {
+		long inicio = Metricas.VALOR_FINAL.iniciar();
 		double valorFinal = 0.0;
 		for (int i = 0; i < quantProdutos; i++) {
-			valorFinal += produtos[i].valorDeVenda();
+			valorFinal += produto(i).valorDeVenda();
 		}
 		if (formaDePagamento == 1) {
 			valorFinal *= (1 - DESCONTO_PG_A_VISTA);
 		}
+		Metricas.VALOR_FINAL.registrar(inicio);
 		return valorFinal;
 	}
 	
@@ -81,14 +112,25 @@ public class Pedido {
      */
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder();
-		sb.append("Data do pedido: " + dataPedido.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) + "\n");
-		sb.append("Pedido com " + quantProdutos + " produtos.\n");
-		sb.append("Produtos no pedido:\n");
+		StringBuilder sb = new StringBuilder(64 + quantProdutos * 48);
+		anexarTexto(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Anexa a representação do pedido (mesmo texto de {@link #toString()}) ao destino, escrevendo cada produto
+	 * diretamente no buffer, sem Strings intermediárias.
+	 * @param destino Onde o texto do pedido será anexado
+	 */
+	public void anexarTexto(StringBuilder destino) {
+		destino.append("Data do pedido: ");
+		Formatos.anexarData(destino, getDataPedido());
+		destino.append("\nPedido com ").append(quantProdutos).append(" produtos.\n");
+		destino.append("Produtos no pedido:\n");
 		for (int i = 0; i < quantProdutos; i++) {
-			sb.append(produtos[i].toString() + "\n");
+			produto(i).anexarTexto(destino);
+			destino.append('\n');
 		}
-		return sb.toString();
 	}
 	
 	/**
@@ -102,27 +144,143 @@ public class Pedido {
             return false;
         }
         Pedido outro = (Pedido) obj;
-        return dataPedido.equals(outro.dataPedido) && formaDePagamento == outro.formaDePagamento && quantProdutos == outro.quantProdutos && Arrays.equals(produtos, outro.produtos);
+        if (!getDataPedido().equals(outro.getDataPedido()) || formaDePagamento != outro.formaDePagamento || quantProdutos != outro.quantProdutos)
+            return false;
+        for (int i = 0; i < quantProdutos; i++) {
+            if (!produto(i).equals(outro.produto(i)))
+                return false;
+        }
+        return true;
     }
 
     public LocalDate getDataPedido() {
+        if (dataPedido == null)
+            dataPedido = livro.data(posicao);
         return dataPedido;
     }
 
+    /** @return Forma de pagamento do pedido: 1, à vista; 2, parcelado */
+    public int getFormaDePagamento() {
+        return formaDePagamento;
+    }
+
+    /** @return Quantidade de produtos no pedido */
+    public int getQuantProdutos() {
+        return quantProdutos;
+    }
+
+    /**
+     * Retorna o produto na posição informada do pedido.
+     * @param posicao Posição do produto, de 0 a getQuantProdutos()-1
+     * @return O produto na posição
+     */
+    public Produto getProduto(int posicao) {
+        if (posicao < 0 || posicao >= quantProdutos)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        return produto(posicao);
+    }
+
+    /** Produto na posição (já verificada) do pedido, lido do vetor próprio ou do livro */
+    private Produto produto(int item) {
+        return livro == null ? produtos[item] : livro.produto(posicao, item);
+    }
+
+    /**
+     * Gera uma linha de texto a partir dos dados do pedido, no mesmo formato aceito por {@link #criarDoTexto(String)}.
+     * @return Uma string no formato "dataDoPedido;formaDePagamento;descrição do produto 1;..."
+     */
+    public String gerarDadosTexto() {
+        StringBuilder linha = new StringBuilder(32 + quantProdutos * 16);
+        anexarDadosTexto(linha);
+        return linha.toString();
+    }
+
+    /**
+     * Anexa a linha de texto do pedido (mesmo formato de {@link #gerarDadosTexto()}, sem quebra de linha) ao destino.
+     * @param destino Onde a linha será anexada
+     */
+    public void anexarDadosTexto(StringBuilder destino) {
+        ConversorCampos.anexarData(destino, getDataPedido());
+        destino.append(';').append(formaDePagamento);
+        for (int i = 0; i < quantProdutos; i++) {
+            destino.append(';').append(produto(i).descricao);
+        }
+    }
+
+	/**
+	 * Cria um pedido a partir de uma linha de dados em formato texto, no formato
+	 * "dataDoPedido;formaDePagamento;descrição do produto 1;descrição do produto 2;..."
+	 * Produtos não encontrados no cadastro são ignorados.
+	 * @param linha Linha com os dados do pedido a ser criado.
+	 * @return Um pedido com os dados recebidos
+	 */
 	static Pedido criarDoTexto(String linha){
-		DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        String[] atributos = linha.split(";");
-        LocalDate dataPedido = LocalDate.parse(atributos[0], formatoData);
-        int formaDePagamento = Integer.parseInt(atributos[1]);
-        Pedido novoPedido = new Pedido(dataPedido, formaDePagamento);
-		int quantProdutos = atributos.length - 2;
-		for (int i = 0; i < quantProdutos; i++) {
-			Produto produto = App.localizarProdutoPorNome(atributos[i + 2]);
-			if (produto != null) {
-				novoPedido.incluirProduto(produto);
+		return criarDoRegistro(new RegistroCsv(linha));
+	}
+
+	/**
+	 * Cria um pedido a partir de um registro já separado em campos, no mesmo formato de {@link #criarDoTexto(String)}.
+	 * Os produtos são localizados no cadastro da aplicação (App.produtosCadastrados).
+	 * @param registro Registro com os dados do pedido a ser criado.
+	 * @return Um pedido com os dados recebidos
+	 */
+	static Pedido criarDoRegistro(RegistroCsv registro){
+		return criarDoRegistro(registro, App.produtosCadastrados);
+	}
+
+	/**
+	 * Cria um pedido a partir de um registro já separado em campos, localizando os produtos no repositório
+	 * diretamente pelos campos do registro (ver {@link RepositorioProdutos#localizar(RegistroCsv, int)}), sem criar
+	 * uma String por item.
+	 * Produtos não localizados são ignorados.
+	 * @param registro Registro com os dados do pedido a ser criado.
+	 * @param produtos Repositório onde os produtos são localizados
+	 * @return Um pedido com os dados recebidos
+	 */
+	static Pedido criarDoRegistro(RegistroCsv registro, RepositorioProdutos produtos){
+		long inicio = Metricas.CRIAR_PEDIDO.iniciar();
+		try {
+			LocalDate dataPedido = registro.data(0);
+			int formaDePagamento = registro.inteiro(1);
+			int quantProdutos = registro.quantidadeCampos() - 2;
+			Pedido novoPedido = new Pedido(dataPedido, formaDePagamento, quantProdutos);
+			for (int i = 0; i < quantProdutos; i++) {
+				long inicioLocalizacao = Metricas.LOCALIZAR_PRODUTO.iniciar();
+				Produto produto = produtos.localizar(registro, i + 2);
+				Metricas.LOCALIZAR_PRODUTO.registrar(inicioLocalizacao);
+				if (produto != null) {
+					novoPedido.incluirProduto(produto);
+				}
+			}
+			return novoPedido;
+		} finally {
+			Metricas.CRIAR_PEDIDO.registrar(inicio);
+		}
+	}
+
+	/**
+	 * Cria um pedido a partir de um registro já separado em campos, localizando os produtos pela função informada.
+	 * Produtos não localizados (função retorna null) são ignorados.
+	 * @param registro Registro com os dados do pedido a ser criado.
+	 * @param localizador Função que localiza um produto a partir de sua descrição
+	 * @return Um pedido com os dados recebidos
+	 */
+	static Pedido criarDoRegistro(RegistroCsv registro, Function<String, Produto> localizador){
+		long inicio = Metricas.CRIAR_PEDIDO.iniciar();
+		try {
+			LocalDate dataPedido = registro.data(0);
+			int formaDePagamento = registro.inteiro(1);
+			int quantProdutos = registro.quantidadeCampos() - 2;
+			Pedido novoPedido = new Pedido(dataPedido, formaDePagamento, quantProdutos);
+			for (int i = 0; i < quantProdutos; i++) {
+				Produto produto = localizador.apply(registro.texto(i + 2));
+				if (produto != null) {
+					novoPedido.incluirProduto(produto);
+				}
 			}
+			return novoPedido;
+		} finally {
+			Metricas.CRIAR_PEDIDO.registrar(inicio);
 		}
-		
-        return novoPedido;
     }
-}
\ No newline at end of file
+}
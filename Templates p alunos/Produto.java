@@ -1,6 +1,4 @@
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 /** 
  * MIT License
@@ -31,6 +29,9 @@ public abstract class Produto {
     protected String descricao;
     protected double precoCusto;
     protected double margemLucro;
+
+    /** Descrição normalizada (minúsculas), usada em equals/hashCode e como chave de catálogo */
+    private String chave;
      
     
         
@@ -48,6 +49,7 @@ public abstract class Produto {
         if(desc.length()<3 ||precoCusto<=0||margemLucro<=0)
             throw new IllegalArgumentException("Valores inválidos para o produto");
         descricao = desc;
+        chave = normalizarDescricao(desc);
         this.precoCusto = precoCusto;
         this.margemLucro = margemLucro;
     }
@@ -86,15 +88,25 @@ public abstract class Produto {
     
 
     /**
-     * Descrição em string do produto, contendo sua descrição e o valor de venda.
+     * Descrição em string do produto, contendo sua descrição e o valor de venda (ver {@link #anexarTexto(StringBuilder)}).
      *  @return String com o formato:
      * [NOME]: R$ [VALOR DE VENDA]
      */
     @Override
     public String toString(){
-        NumberFormat moeda = NumberFormat.getCurrencyInstance();
-        
-        return String.format("%s: %s", descricao, moeda.format(valorDeVenda()));
+        StringBuilder texto = new StringBuilder(descricao.length() + 48);
+        anexarTexto(texto);
+        return texto.toString();
+    }
+
+    /**
+     * Anexa a descrição do produto para exibição, no formato de {@link #toString()}, sem criar Strings
+     * intermediárias. Permite listar muitos produtos em um único buffer (ver {@link SaidaTexto}).
+     * @param destino Onde será anexado o texto "[NOME]: R$ [VALOR DE VENDA]"
+     */
+    public void anexarTexto(StringBuilder destino){
+        destino.append(descricao).append(": ");
+        Formatos.anexarMoeda(destino, valorDeVenda());
     }
 
     
@@ -106,8 +118,37 @@ public abstract class Produto {
      */
     @Override
     public boolean equals(Object obj){
+        if (!(obj instanceof Produto))
+            return false;
         Produto outro = (Produto)obj;
-        return this.descricao.toLowerCase().equals(outro.descricao.toLowerCase());
+        return this.chave.equals(outro.chave);
+    }
+
+    /**
+     * Código hash coerente com equals: calculado sobre a descrição normalizada.
+     * @return Código hash do produto
+     */
+    @Override
+    public int hashCode(){
+        return chave.hashCode();
+    }
+
+    /**
+     * Normaliza uma descrição para comparação e indexação: produtos com descrições que diferem apenas
+     * em maiúsculas/minúsculas são considerados o mesmo produto.
+     * @param descricao Descrição a ser normalizada
+     * @return A descrição em minúsculas
+     */
+    static String normalizarDescricao(String descricao){
+        return descricao.toLowerCase();
+    }
+
+    /**
+     * Retorna a descrição normalizada deste produto (ver {@link #normalizarDescricao(String)}).
+     * @return Chave do produto para indexação
+     */
+    String getChave(){
+        return chave;
     }
     
     /**
@@ -118,28 +159,67 @@ public abstract class Produto {
      * @return Um produto com os dados recebidos
      */
     static Produto criarDoTexto(String linha){
-        Produto novoProduto = null;
-        DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        String[] atributos = linha.split(";");
-        int tipo = Integer.parseInt(atributos[0]);
-        String descricao = atributos[1];
-        double precoCusto = Double.parseDouble(atributos[2]);
-        double margemLucro = Double.parseDouble(atributos[3]);
-        LocalDate dataValidade = null;
-        if (tipo == 1){
-            novoProduto = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
-        } else if (tipo == 2){
-            dataValidade = LocalDate.parse(atributos[4], formatoData);
-            novoProduto = new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataValidade);
-        } else {
-            throw new IllegalArgumentException("Tipo de produto inválido");
+        return criarDoRegistro(new RegistroCsv(linha));
+    }
+
+    /**
+     * Cria um produto a partir de um registro já separado em campos, no mesmo formato de {@link #criarDoTexto(String)}.
+     * Os valores numéricos e a data são convertidos diretamente do registro, sem Strings intermediárias.
+     * @param registro Registro com os dados do produto a ser criado.
+     * @return Um produto com os dados recebidos
+     */
+    static Produto criarDoRegistro(RegistroCsv registro){
+        return converter(registro, true);
+    }
+
+    /**
+     * Recria um produto já cadastrado a partir de um registro, no mesmo formato de {@link #criarDoRegistro(RegistroCsv)},
+     * aceitando perecíveis que venceram depois do cadastro (ver {@link ProdutoPerecivel#restaurar}).
+     * @param registro Registro com os dados de um produto previamente gravado.
+     * @return O produto recriado
+     */
+    static Produto restaurarDoRegistro(RegistroCsv registro){
+        return converter(registro, false);
+    }
+
+    private static Produto converter(RegistroCsv registro, boolean exigirValidade){
+        long inicio = Metricas.CRIAR_PRODUTO.iniciar();
+        try {
+            Produto novoProduto = null;
+            int tipo = registro.inteiro(0);
+            String descricao = registro.texto(1);
+            double precoCusto = registro.decimal(2);
+            double margemLucro = registro.decimal(3);
+            LocalDate dataValidade = null;
+            if (tipo == 1){
+                novoProduto = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
+            } else if (tipo == 2){
+                dataValidade = registro.data(4);
+                novoProduto = exigirValidade ? new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataValidade)
+                        : ProdutoPerecivel.restaurar(descricao, precoCusto, margemLucro, dataValidade);
+            } else {
+                throw new IllegalArgumentException("Tipo de produto inválido");
+            }
+            return novoProduto;
+        } finally {
+            Metricas.CRIAR_PRODUTO.registrar(inicio);
         }
-        return novoProduto;
     }
 
     /**
      * Gera uma linha de texto a partir dos dados do produto
      * @return Uma string no formato "tipo; descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
      */
-    public abstract String gerarDadosTexto();
+    public String gerarDadosTexto(){
+        StringBuilder linha = new StringBuilder(descricao.length() + 32);
+        anexarDadosTexto(linha);
+        return linha.toString();
+    }
+
+    /**
+     * Anexa a linha de texto do produto (mesmo formato de {@link #gerarDadosTexto()}, sem quebra de linha) ao destino.
+     * Permite gravar muitos produtos reaproveitando um único buffer.
+     * @param destino Onde a linha será anexada
+     */
+    public abstract void anexarDadosTexto(StringBuilder destino);
 }
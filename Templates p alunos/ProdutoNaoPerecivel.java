@@ -51,17 +51,21 @@ public class ProdutoNaoPerecivel extends Produto {
      * @return Valor de venda do produto (double, positivo)
      */
     public double valorDeVenda(){
-        return precoCusto * (1+margemLucro);
+        long inicio = Metricas.VALOR_DE_VENDA.iniciar();
+        double valor = precoCusto * (1+margemLucro);
+        Metricas.VALOR_DE_VENDA.registrar(inicio);
+        return valor;
     }
 
     /**
-     * Gera uma linha de texto a partir dos dados do produto. Preço e margem de lucro vão formatados com 2 casas decimais.
-     * @return Uma string no formato "1; descrição;preçoDeCusto;margemDeLucro"
+     * Anexa a linha de texto do produto ao destino. Preço e margem de lucro vão formatados com 2 casas decimais.
+     * @param destino Onde será anexada uma linha no formato "1; descrição;preçoDeCusto;margemDeLucro"
      */
     @Override
-    public String gerarDadosTexto() {
-        String precoFormatado = String.format("%.2f", precoCusto).replace(",", ".");
-        String margemFormatada = String.format("%.2f", margemLucro).replace(",", ".");
-        return String.format("1;%s;%s;%s", descricao, precoFormatado, margemFormatada);
+    public void anexarDadosTexto(StringBuilder destino) {
+        destino.append("1;").append(descricao).append(';');
+        ConversorCampos.anexarDuasCasas(destino, precoCusto);
+        destino.append(';');
+        ConversorCampos.anexarDuasCasas(destino, margemLucro);
     }        
 }
@@ -1,6 +1,5 @@
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 /** 
  * MIT License
@@ -28,14 +27,23 @@ import java.time.format.DateTimeFormatter;
 
 public class ProdutoPerecivel extends Produto{
     /** Desconto para proximidade de validade: 25% */
-    private static final double DESCONTO = 0.25;
+    static final double DESCONTO = 0.25;
     
     /** Prazo, em dias, para conceder o desconto por proximidade da validade */
-    private static final int PRAZO_DESCONTO = 7;
+    static final int PRAZO_DESCONTO = 7;
     
     /** Data de validade do produto. Não pode ser anterior à data da criação ou venda */
     private LocalDate dataDeValidade;
 
+    /** Primeiro dia (epoch-day) em que o desconto por proximidade da validade é concedido */
+    private long inicioDoDesconto;
+
+    /** Valor de venda sem desconto, calculado na criação do produto */
+    private double valorSemDesconto;
+
+    /** Valor de venda com o desconto por proximidade da validade, calculado na criação do produto */
+    private double valorComDesconto;
+
     /**
      * Construtor completo. 
      * Causa exceção em caso de valores inválidos
@@ -46,52 +54,83 @@ public class ProdutoPerecivel extends Produto{
      * @throws IllegalArgumentException em caso dos limites acima serem desrespeitados.
      */
     public ProdutoPerecivel(String descricao, double precoCusto, double margemLucro, LocalDate validade){
+        this(descricao, precoCusto, margemLucro, validade, true);
+    }
+
+    private ProdutoPerecivel(String descricao, double precoCusto, double margemLucro, LocalDate validade, boolean exigirValidade){
         super(descricao, precoCusto, margemLucro);
-        if(validade.isBefore(LocalDate.now()))
+        if(exigirValidade && validade.toEpochDay() < Calendario.diaAtual())
             throw new IllegalArgumentException("Validade anterior ao dia de hoje!");
         dataDeValidade = validade;
+        inicioDoDesconto = validade.toEpochDay() - PRAZO_DESCONTO;
+        valorSemDesconto = precoCusto * (1+margemLucro);
+        valorComDesconto = valorSemDesconto * (1-DESCONTO);
+    }
+
+    /**
+     * Recria um produto perecível já cadastrado a partir dos dados guardados pelo sistema (ex.: colunas ou catálogo
+     * fora do heap). A validade não precisa ser posterior à data atual: o produto pode ter vencido depois de cadastrado
+     * e continua existindo, com o desconto por proximidade da validade. Os demais limites continuam valendo.
+     * @param descricao Descrição do produto (mínimo 3 caracteres)
+     * @param precoCusto Preço de compra do produto (mínimo 0.01)
+     * @param margemLucro Margem de lucro para a venda (mínimo 0.01)
+     * @param validade Data de validade do produto
+     * @return O produto recriado
+     * @throws IllegalArgumentException caso a descrição, o preço ou a margem sejam inválidos
+     */
+    static ProdutoPerecivel restaurar(String descricao, double precoCusto, double margemLucro, LocalDate validade) {
+        return new ProdutoPerecivel(descricao, precoCusto, margemLucro, validade, false);
     }
 
     /**
      * Retorna o valor de venda do produto, considerando seu preço de custo, margem de lucro e
      * dias de validade. Se o prazo de validade estiver a menos de 7 dias, será concedido desconto de 25%.
+     * Os dois valores possíveis são calculados na criação do produto; a escolha depende apenas do dia atual
+     * (ver {@link Calendario}), sem criar objetos a cada chamada.
      * @return Valor de venda do produto (double, positivo)
      */
     @Override
     public double valorDeVenda() {
-        double desconto = 0d;
-        int diasValidade = LocalDate.now().until(dataDeValidade).getDays();
-        if(diasValidade<=PRAZO_DESCONTO)
-            desconto = DESCONTO;
-        return (precoCusto * (1+margemLucro)) * (1-desconto);
+        long inicio = Metricas.VALOR_DE_VENDA.iniciar();
+        double valor = Calendario.diaAtual() >= inicioDoDesconto ? valorComDesconto : valorSemDesconto;
+        Metricas.VALOR_DE_VENDA.registrar(inicio);
+        return valor;
+    }
+
+    /**
+     * Retorna a data de validade do produto.
+     * @return Data de validade
+     */
+    public LocalDate getDataDeValidade() {
+        return dataDeValidade;
     }
 
     /**
-     * Descrição em string do produto, contendo sua descrição, o valor de venda e data de validade.
-     *  @return String com o formato:
-     * [NOME]: R$ [VALOR DE VENDA]
-     * Válido até [DD/MM/YYYY]
+     * Anexa a descrição do produto para exibição (usada também por toString), contendo sua descrição, o valor de
+     * venda e a data de validade.
+     * @param destino Onde será anexado o texto no formato:
+     * [NOME]: R$ [VALOR DE VENDA] - Válido até [DD/MM/YYYY]
      */
     @Override
-    public String toString(){
-        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        String dados = super.toString();
-        dados += " - Válido até "+formato.format(dataDeValidade);
-        return dados;
+    public void anexarTexto(StringBuilder destino){
+        super.anexarTexto(destino);
+        destino.append(" - Válido até ");
+        Formatos.anexarData(destino, dataDeValidade);
     }
 
     /**
-     * Gera uma linha de texto a partir dos dados do produto. Preço e margem de lucro vão formatados com 2 casas decimais.
+     * Anexa a linha de texto do produto ao destino. Preço e margem de lucro vão formatados com 2 casas decimais.
      * Data de validade vai no formato dd/mm/aaaa
-     * @return Uma string no formato "2; descrição;preçoDeCusto;margemDeLucro;dataDeValidade"
+     * @param destino Onde será anexada uma linha no formato "2; descrição;preçoDeCusto;margemDeLucro;dataDeValidade"
      */
     @Override
-    public String gerarDadosTexto() {
-        String precoFormatado = String.format("%.2f", precoCusto).replace(",", ".");
-        String margemFormatada = String.format("%.2f", margemLucro).replace(",", ".");
-        String dataFormatada = dataDeValidade.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-        return String.format("2;%s;%s;%s;%s", descricao, precoFormatado, margemFormatada, dataFormatada);
+    public void anexarDadosTexto(StringBuilder destino) {
+        destino.append("2;").append(descricao).append(';');
+        ConversorCampos.anexarDuasCasas(destino, precoCusto);
+        destino.append(';');
+        ConversorCampos.anexarDuasCasas(destino, margemLucro);
+        destino.append(';');
+        ConversorCampos.anexarData(destino, dataDeValidade);
     }        
     
 }
@@ -2,9 +2,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -19,6 +22,15 @@ public class ProdutoPerecivelTest {
         produto = new ProdutoPerecivel("Perecível teste", 100, 0.1, LocalDate.now().plusDays(10));
     }
     
+    @AfterEach
+    public void restauraRelogio(){
+        Calendario.usarRelogio(Clock.systemDefaultZone());
+    }
+
+    private void fixarData(LocalDate data){
+        Calendario.usarRelogio(Clock.fixed(data.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+    }
+    
     @Test
     public void calculaPrecoSemDescontoCorretamente(){
         assertEquals(110.0, produto.valorDeVenda(), 0.01);
@@ -30,6 +42,18 @@ public class ProdutoPerecivelTest {
         assertEquals(110.0 * 0.75, produto.valorDeVenda(), 0.01);
     }
     
+    @Test
+    public void concedeDescontoAoEntrarNoPrazoDeValidade(){
+        LocalDate hoje = LocalDate.of(2030, 1, 1);
+        fixarData(hoje);
+        produto = new ProdutoPerecivel("Perecível teste", 100, 0.1, hoje.plusDays(40));
+        assertEquals(110.0, produto.valorDeVenda(), 0.01);
+        fixarData(hoje.plusDays(32));
+        assertEquals(110.0, produto.valorDeVenda(), 0.01);
+        fixarData(hoje.plusDays(33));
+        assertEquals(110.0 * 0.75, produto.valorDeVenda(), 0.01);
+    }
+    
     @Test
     public void naoCriaProdutoForaDaValidade(){
         assertThrows(IllegalArgumentException.class, () -> new ProdutoPerecivel("teste", 5, 1, LocalDate.now().minusDays(2)));
@@ -37,6 +61,7 @@ public class ProdutoPerecivelTest {
 
     @Test
     public void criarCorretamenteAPartirDeTexto(){
+        fixarData(LocalDate.of(2025, 8, 25));
         String linhaDados = "2;Produto perecível do arquivo;10.0;0.2;25/10/2025";
         produto = Produto.criarDoTexto(linhaDados);
         String desc = produto.toString();
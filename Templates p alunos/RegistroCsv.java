@@ -0,0 +1,194 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Um registro (linha) de um arquivo de dados separado por ';'. Guarda apenas as posições de início e fim de
+ * cada campo sobre o texto de origem; os valores são convertidos sob demanda, sem quebrar a linha em
+ * Strings. Um mesmo objeto é reaproveitado pelo {@link LeitorRegistros} a cada nova linha lida.
+ */
+public class RegistroCsv {
+
+    /** Separador de campos dos arquivos de dados */
+    static final char SEPARADOR = ';';
+
+    /** Texto de origem do registro */
+    private CharSequence origem;
+
+    /** Posição inicial (inclusive) de cada campo no texto de origem */
+    private int[] inicios = new int[8];
+
+    /** Posição final (exclusive) de cada campo no texto de origem */
+    private int[] fins = new int[8];
+
+    /** Quantidade de campos do registro */
+    private int quantidadeCampos;
+
+    /** Cria um registro vazio, a ser preenchido pelo leitor */
+    RegistroCsv() { }
+
+    /**
+     * Cria um registro a partir de uma linha de texto.
+     * @param linha Linha com os campos separados por ';'
+     */
+    public RegistroCsv(CharSequence linha) {
+        separar(linha, 0, linha.length());
+    }
+
+    /**
+     * Localiza os campos do trecho informado. Assim como String.split, campos vazios ao final da linha
+     * são descartados.
+     * @param origem Texto de origem
+     * @param inicio Posição inicial da linha (inclusive)
+     * @param fim Posição final da linha (exclusive)
+     */
+    void separar(CharSequence origem, int inicio, int fim) {
+        this.origem = origem;
+        quantidadeCampos = 0;
+        int inicioCampo = inicio;
+        for (int i = inicio; i < fim; i++) {
+            if (origem.charAt(i) == SEPARADOR) {
+                incluirCampo(inicioCampo, i);
+                inicioCampo = i + 1;
+            }
+        }
+        incluirCampo(inicioCampo, fim);
+        while (quantidadeCampos > 1 && inicios[quantidadeCampos - 1] == fins[quantidadeCampos - 1])
+            quantidadeCampos--;
+    }
+
+    private void incluirCampo(int inicio, int fim) {
+        if (quantidadeCampos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+            fins = Arrays.copyOf(fins, fins.length * 2);
+        }
+        inicios[quantidadeCampos] = inicio;
+        fins[quantidadeCampos] = fim;
+        quantidadeCampos++;
+    }
+
+    /**
+     * Quantidade de campos do registro.
+     * @return Quantidade de campos
+     */
+    public int quantidadeCampos() {
+        return quantidadeCampos;
+    }
+
+    /**
+     * Retorna o campo como texto.
+     * @param campo Índice do campo (a partir de 0)
+     * @return O texto do campo
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     */
+    public String texto(int campo) {
+        verificarCampo(campo);
+        return origem.subSequence(inicios[campo], fins[campo]).toString();
+    }
+
+    /**
+     * Retorna o identificador, no dicionário informado, da descrição contida no campo, sem criar a String do campo.
+     * Campos de arquivos mapeados com caracteres não ASCII são decodificados antes da consulta.
+     * @param campo Índice do campo (a partir de 0)
+     * @param dicionario Dicionário consultado (ex.: o de um {@link CatalogoProdutos})
+     * @return O identificador da descrição, ou DicionarioDescricoes.AUSENTE se ela não estiver no dicionário
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     */
+    public int idDescricao(int campo, DicionarioDescricoes dicionario) {
+        verificarCampo(campo);
+        int inicio = inicios[campo], fim = fins[campo];
+        if (origem instanceof VisaoBytes) {
+            for (int i = inicio; i < fim; i++) {
+                if (origem.charAt(i) >= 0x80)
+                    return dicionario.procurar(texto(campo));
+            }
+        }
+        return dicionario.procurar(origem, inicio, fim);
+    }
+
+    /**
+     * Retorna o hash da descrição normalizada contida no campo (ver {@link DicionarioDescricoes#hash}), sem criar a
+     * String do campo. Em campos de arquivos mapeados, os caracteres de dois e três bytes UTF-8 são decodificados
+     * durante o cálculo; os demais casos usam a String do campo.
+     * @param campo Índice do campo (a partir de 0)
+     * @return O mesmo valor de Produto.normalizarDescricao(texto(campo)).hashCode()
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     */
+    int hashDescricao(int campo) {
+        verificarCampo(campo);
+        int inicio = inicios[campo], fim = fins[campo];
+        if (!(origem instanceof VisaoBytes))
+            return DicionarioDescricoes.hash(origem, inicio, fim);
+        int hash = 0;
+        for (int i = inicio; i < fim; ) {
+            int primeiro = origem.charAt(i);
+            char caractere;
+            if (primeiro < 0x80) {
+                caractere = (char) primeiro;
+                i++;
+            } else if (primeiro >= 0xC2 && primeiro < 0xE0 && i + 1 < fim && continuacao(origem.charAt(i + 1))) {
+                caractere = (char) (((primeiro & 0x1F) << 6) | (origem.charAt(i + 1) & 0x3F));
+                i += 2;
+            } else if ((primeiro & 0xF0) == 0xE0 && i + 2 < fim && continuacao(origem.charAt(i + 1))
+                    && continuacao(origem.charAt(i + 2))) {
+                caractere = (char) (((primeiro & 0x0F) << 12) | ((origem.charAt(i + 1) & 0x3F) << 6)
+                        | (origem.charAt(i + 2) & 0x3F));
+                if (caractere < 0x800)
+                    return Produto.normalizarDescricao(texto(campo)).hashCode();
+                i += 3;
+            } else {
+                return Produto.normalizarDescricao(texto(campo)).hashCode();
+            }
+            if (!DicionarioDescricoes.CONVERSAO_SIMPLES
+                    || caractere >= 0x80 && DicionarioDescricoes.exigeNormalizacaoCompleta(caractere))
+                return Produto.normalizarDescricao(texto(campo)).hashCode();
+            hash = 31 * hash + Character.toLowerCase(caractere);
+        }
+        return hash;
+    }
+
+    /** Indica se o byte (exposto como caractere pela {@link VisaoBytes}) é de continuação UTF-8 */
+    private static boolean continuacao(char caractere) {
+        return (caractere & 0xC0) == 0x80;
+    }
+
+    /**
+     * Retorna o campo convertido em inteiro.
+     * @param campo Índice do campo (a partir de 0)
+     * @return O valor inteiro do campo
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     * @throws NumberFormatException caso o campo não seja um inteiro válido
+     */
+    public int inteiro(int campo) {
+        verificarCampo(campo);
+        return ConversorCampos.paraInteiro(origem, inicios[campo], fins[campo]);
+    }
+
+    /**
+     * Retorna o campo convertido em double.
+     * @param campo Índice do campo (a partir de 0)
+     * @return O valor do campo
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     * @throws NumberFormatException caso o campo não seja um número válido
+     */
+    public double decimal(int campo) {
+        verificarCampo(campo);
+        return ConversorCampos.paraDecimal(origem, inicios[campo], fins[campo]);
+    }
+
+    /**
+     * Retorna o campo convertido em data (formato dd/MM/yyyy).
+     * @param campo Índice do campo (a partir de 0)
+     * @return A data do campo
+     * @throws IndexOutOfBoundsException caso o registro não tenha o campo informado
+     * @throws java.time.format.DateTimeParseException caso o campo não seja uma data válida
+     */
+    public LocalDate data(int campo) {
+        verificarCampo(campo);
+        return ConversorCampos.paraData(origem, inicios[campo], fins[campo]);
+    }
+
+    private void verificarCampo(int campo) {
+        if (campo < 0 || campo >= quantidadeCampos)
+            throw new IndexOutOfBoundsException("Registro sem o campo " + campo);
+    }
+}
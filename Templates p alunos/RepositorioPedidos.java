@@ -0,0 +1,107 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Repositório de pedidos, na ordem de inclusão. Os pedidos são armazenados de forma compacta em um
+ * {@link LivroPedidos}, cujos vetores crescem conforme a necessidade (dobrando de tamanho), de forma que a inclusão
+ * custa O(1) amortizado e não há limite fixo de pedidos. Os pedidos devolvidos são visões criadas sob demanda e não
+ * modificáveis. Mantém também o índice de pedidos por data, atualizado a cada inclusão.
+ */
+public class RepositorioPedidos implements Iterable<Pedido> {
+
+    /** Capacidade inicial padrão do vetor de pedidos */
+    private static final int CAPACIDADE_PADRAO = 16;
+
+    /** Pedidos armazenados */
+    private final LivroPedidos livro;
+
+    /** Índice dos pedidos pela data */
+    private final IndicePedidosPorData indicePorData;
+
+    /** Cria um repositório vazio com a capacidade padrão */
+    public RepositorioPedidos() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um repositório vazio pré-dimensionado, por exemplo a partir da quantidade informada no
+     * cabeçalho do arquivo de dados.
+     * @param capacidadeInicial Quantidade de pedidos esperada (valores menores que 1 usam a capacidade padrão)
+     */
+    public RepositorioPedidos(int capacidadeInicial) {
+        if (capacidadeInicial < 1)
+            capacidadeInicial = CAPACIDADE_PADRAO;
+        livro = new LivroPedidos(capacidadeInicial);
+        indicePorData = new IndicePedidosPorData(livro);
+    }
+
+    /**
+     * Garante espaço para ao menos a capacidade informada, evitando realocações sucessivas.
+     * @param capacidadeMinima Capacidade mínima desejada
+     */
+    public void garantirCapacidade(int capacidadeMinima) {
+        livro.garantirCapacidade(capacidadeMinima);
+    }
+
+    /**
+     * Inclui um pedido ao final do repositório e no índice por data. Os dados do pedido são copiados:
+     * alterações posteriores no pedido informado não afetam o repositório.
+     * @param pedido Pedido a ser incluído
+     */
+    public void adicionar(Pedido pedido) {
+        indicePorData.indexar(livro.adicionar(pedido));
+    }
+
+    /**
+     * Armazenamento dos pedidos, para percorrê-los sem criar as visões (ex.: no fechamento).
+     * @return O livro de pedidos do repositório
+     */
+    LivroPedidos livro() {
+        return livro;
+    }
+
+    /**
+     * Índice dos pedidos pela data, para buscas por dia, semana, mês ou período.
+     * @return O índice por data, mantido pelo repositório
+     */
+    public IndicePedidosPorData porData() {
+        return indicePorData;
+    }
+
+    /**
+     * Retorna o pedido na posição informada (ordem de inclusão).
+     * @param posicao Posição do pedido, de 0 a quantidade()-1
+     * @return O pedido na posição
+     * @throws IndexOutOfBoundsException caso a posição seja inválida
+     */
+    public Pedido get(int posicao) {
+        return livro.pedido(posicao);
+    }
+
+    /**
+     * Quantidade de pedidos armazenados.
+     * @return Quantidade de pedidos
+     */
+    public int quantidade() {
+        return livro.quantidade();
+    }
+
+    @Override
+    public Iterator<Pedido> iterator() {
+        return new Iterator<Pedido>() {
+            private int atual = 0;
+
+            @Override
+            public boolean hasNext() {
+                return atual < livro.quantidade();
+            }
+
+            @Override
+            public Pedido next() {
+                if (atual >= livro.quantidade())
+                    throw new NoSuchElementException();
+                return livro.pedido(atual++);
+            }
+        };
+    }
+}
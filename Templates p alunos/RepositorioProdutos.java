@@ -0,0 +1,247 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Repositório de produtos cadastrados, na ordem de inclusão. O vetor interno cresce conforme a necessidade
+ * (dobrando de tamanho), de forma que a inclusão custa O(1) amortizado e não há limite fixo de produtos.
+ * Mantém também o catálogo indexado pela descrição, atualizado a cada inclusão, e o índice de busca textual,
+ * criado na primeira busca e atualizado com os produtos incluídos desde a busca anterior.
+ * <p>
+ * O repositório pode ser compartilhado por vários terminais (threads). As leituras (get, localizar, quantidade,
+ * iteração) não usam bloqueio: a quantidade é publicada por um campo volátil somente depois que o produto foi
+ * gravado no vetor, e o vetor só é trocado por uma cópia que já contém todos os produtos publicados. As inclusões
+ * são serializadas entre si por um bloqueio curto, e {@link #adicionarSeAusente(Produto)} usa a inclusão atômica do
+ * catálogo para rejeitar duplicatas (mesmo critério de Produto.equals).
+ */
+public class RepositorioProdutos implements Iterable<Produto> {
+
+    /** Capacidade inicial padrão do vetor de produtos */
+    private static final int CAPACIDADE_PADRAO = 16;
+
+    /** Vetor de produtos. Apenas as primeiras {@link #quantidade} posições estão publicadas */
+    private volatile Produto[] produtos;
+
+    /** Quantidade de produtos publicados. Lida antes do vetor, garante que as posições abaixo dela estão preenchidas */
+    private volatile int quantidade;
+
+    /** Quantidade de produtos (os primeiros, na ordem de inclusão) já gravados no arquivo de dados */
+    private volatile int quantidadeGravada;
+
+    /** Índice dos produtos pela descrição */
+    private final CatalogoProdutos catalogo;
+
+    /** Índice de busca textual pelas descrições; null até a primeira busca. Protegido por {@link #travaBusca} */
+    private IndiceBusca indiceBusca;
+    private final Object travaBusca = new Object();
+
+    /** Cria um repositório vazio com a capacidade padrão */
+    public RepositorioProdutos() {
+        this(CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria um repositório vazio pré-dimensionado, por exemplo a partir da quantidade informada no
+     * cabeçalho do arquivo de dados.
+     * @param capacidadeInicial Quantidade de produtos esperada (valores menores que 1 usam a capacidade padrão)
+     */
+    public RepositorioProdutos(int capacidadeInicial) {
+        if (capacidadeInicial < 1)
+            capacidadeInicial = CAPACIDADE_PADRAO;
+        produtos = new Produto[capacidadeInicial];
+        catalogo = new CatalogoProdutos(capacidadeInicial);
+    }
+
+    /**
+     * Garante espaço para ao menos a capacidade informada, evitando realocações sucessivas.
+     * @param capacidadeMinima Capacidade mínima desejada
+     */
+    public synchronized void garantirCapacidade(int capacidadeMinima) {
+        Produto[] atuais = produtos;
+        if (capacidadeMinima > atuais.length) {
+            int novaCapacidade = Math.max(capacidadeMinima, atuais.length * 2);
+            if (novaCapacidade < 0)
+                novaCapacidade = Integer.MAX_VALUE - 8;
+            produtos = Arrays.copyOf(atuais, novaCapacidade);
+        }
+    }
+
+    /**
+     * Inclui um produto ao final do repositório e no catálogo. Um produto igual a outro já incluído é mantido no
+     * repositório (como no arquivo de dados), mas o catálogo continua apontando para o primeiro.
+     * @param produto Produto a ser incluído
+     */
+    public void adicionar(Produto produto) {
+        catalogo.adicionar(produto);
+        publicar(produto);
+    }
+
+    /**
+     * Inclui um produto apenas se ainda não houver um produto igual (mesma descrição, sem diferenciar maiúsculas e
+     * minúsculas). Seguro para cadastros simultâneos: se dois terminais incluírem o mesmo produto ao mesmo tempo,
+     * apenas um deles é aceito. O produto fica visível em {@link #localizar(String)} um instante antes de aparecer
+     * nas posições e na iteração.
+     * @param produto Produto a ser incluído
+     * @return true se o produto foi incluído, false se já existia um produto igual
+     */
+    public boolean adicionarSeAusente(Produto produto) {
+        if (!catalogo.adicionar(produto))
+            return false;
+        publicar(produto);
+        return true;
+    }
+
+    /** Grava o produto na próxima posição e só então a publica, aumentando a quantidade */
+    private synchronized void publicar(Produto produto) {
+        int posicao = quantidade;
+        garantirCapacidade(posicao + 1);
+        produtos[posicao] = produto;
+        quantidade = posicao + 1;
+    }
+
+    /**
+     * Retorna o produto na posição informada (ordem de inclusão).
+     * @param posicao Posição do produto, de 0 a quantidade()-1
+     * @return O produto na posição
+     * @throws IndexOutOfBoundsException caso a posição seja inválida
+     */
+    public Produto get(int posicao) {
+        if (posicao < 0 || posicao >= quantidade)
+            throw new IndexOutOfBoundsException("Posição inválida: " + posicao);
+        return produtos[posicao];
+    }
+
+    /**
+     * Localiza um produto pela descrição exata, sem diferenciar maiúsculas e minúsculas. Nunca bloqueia.
+     * @param descricao Descrição do produto
+     * @return O produto com a descrição informada, ou null caso não exista
+     */
+    public Produto localizar(String descricao) {
+        return catalogo.localizar(descricao);
+    }
+
+    /**
+     * Localiza um produto pela descrição contida em um campo de registro (ex.: um item de uma linha do arquivo de
+     * pedidos), sem criar a String do campo (ver {@link CatalogoProdutos#localizar(RegistroCsv, int)}). Nunca bloqueia.
+     * @param registro Registro lido
+     * @param campo Índice do campo com a descrição
+     * @return O produto com a descrição do campo, ou null caso não exista
+     */
+    public Produto localizar(RegistroCsv registro, int campo) {
+        return catalogo.localizar(registro, campo);
+    }
+
+    /**
+     * Identificador da descrição do produto no catálogo do repositório, usado em índices por vetor (ex.: a tabela de
+     * preços do fechamento). Produtos iguais têm o mesmo identificador.
+     * @param produto Produto procurado
+     * @return O identificador, ou DicionarioDescricoes.AUSENTE se não houver produto igual no repositório
+     */
+    int idDoProduto(Produto produto) {
+        return catalogo.id(produto);
+    }
+
+    /**
+     * Busca produtos cuja descrição contém o texto informado, sem diferenciar maiúsculas, minúsculas e acentos
+     * (ver {@link IndiceBusca}). Buscas simultâneas são serializadas entre si, mas não bloqueiam inclusões nem
+     * as demais leituras.
+     * @param consulta Texto procurado
+     * @param limite Quantidade máxima de resultados
+     * @return Posições dos produtos encontrados, do mais para o menos relevante
+     */
+    public int[] buscar(String consulta, int limite) {
+        synchronized (travaBusca) {
+            if (indiceBusca == null)
+                indiceBusca = new IndiceBusca();
+            int publicados = quantidade;
+            Produto[] atuais = produtos;
+            for (int i = indiceBusca.quantidade(); i < publicados; i++) {
+                indiceBusca.adicionar(atuais[i].descricao);
+            }
+            return indiceBusca.buscar(consulta, limite);
+        }
+    }
+
+    /**
+     * Quantidade de produtos armazenados.
+     * @return Quantidade de produtos
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Quantidade de produtos já gravados no arquivo de dados. Os produtos incluídos depois dessa posição
+     * ainda não foram gravados.
+     * @return Quantidade de produtos gravados
+     */
+    public int quantidadeGravada() {
+        return quantidadeGravada;
+    }
+
+    /** Registra que todos os produtos atuais estão gravados no arquivo de dados */
+    public void marcarComoGravados() {
+        quantidadeGravada = quantidade;
+    }
+
+    /**
+     * Registra que os primeiros produtos, até a quantidade informada, estão gravados no arquivo de dados. Usado
+     * quando outros terminais podem incluir produtos durante a gravação.
+     * @param gravados Quantidade de produtos gravados
+     */
+    public void marcarComoGravados(int gravados) {
+        quantidadeGravada = gravados;
+    }
+
+    /**
+     * Produtos incluídos a partir da posição informada, na ordem de inclusão.
+     * @param inicio Posição do primeiro produto
+     * @return Os produtos de inicio até quantidade()-1 (inclusive os incluídos durante a iteração)
+     */
+    public Iterable<Produto> aPartirDe(int inicio) {
+        return () -> iterador(inicio, -1);
+    }
+
+    /**
+     * Produtos de um intervalo de posições, na ordem de inclusão.
+     * @param inicio Posição do primeiro produto
+     * @param fim Posição seguinte à do último produto (no máximo quantidade())
+     * @return Os produtos de inicio até fim-1
+     */
+    public Iterable<Produto> intervalo(int inicio, int fim) {
+        return () -> iterador(inicio, fim);
+    }
+
+    /** Iterador de inicio até fim-1 ou, se fim for negativo, até a quantidade publicada no momento de cada passo */
+    private Iterator<Produto> iterador(int inicio, int fim) {
+        return new Iterator<Produto>() {
+            private int atual = inicio;
+
+            @Override
+            public boolean hasNext() {
+                return atual < (fim < 0 ? quantidade : fim);
+            }
+
+            @Override
+            public Produto next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return get(atual++);
+            }
+        };
+    }
+
+    /**
+     * Retorna uma cópia dos produtos armazenados, na ordem de inclusão.
+     * @return Vetor com exatamente quantidade() produtos (os publicados no momento da cópia)
+     */
+    public Produto[] paraVetor() {
+        int publicados = quantidade;
+        return Arrays.copyOf(produtos, publicados);
+    }
+
+    @Override
+    public Iterator<Produto> iterator() {
+        return aPartirDe(0).iterator();
+    }
+}
@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RepositorioProdutosTest {
+
+    RepositorioProdutos repositorio;
+
+    @BeforeEach
+    public void prepare(){
+        repositorio = new RepositorioProdutos(2);
+        for (int i = 0; i < 1000; i++) {
+            repositorio.adicionar(new ProdutoNaoPerecivel("Produto " + i, 10, 0.1));
+        }
+    }
+
+    @Test
+    public void cresceAlemDaCapacidadeInicial(){
+        assertEquals(1000, repositorio.quantidade());
+    }
+
+    @Test
+    public void mantemOrdemDeInclusao(){
+        assertEquals("Produto 0", repositorio.get(0).descricao);
+        assertEquals("Produto 999", repositorio.get(999).descricao);
+    }
+
+    @Test
+    public void localizaPelaDescricao(){
+        assertSame(repositorio.get(500), repositorio.localizar("produto 500"));
+    }
+
+    @Test
+    public void naoAcessaPosicaoInvalida(){
+        assertThrows(IndexOutOfBoundsException.class, () -> repositorio.get(1000));
+    }
+
+    @Test
+    public void naoDuplicaProdutoCadastradoComOutraGrafia(){
+        assertFalse(repositorio.adicionarSeAusente(new ProdutoNaoPerecivel("PRODUTO 7", 1, 1)));
+        assertEquals(1000, repositorio.quantidade());
+    }
+
+    @Test
+    public void cadastrosSimultaneosNaoGeramDuplicatas() throws InterruptedException {
+        RepositorioProdutos compartilhado = new RepositorioProdutos(1);
+        int terminais = 8, produtosPorTerminal = 5000;
+        AtomicInteger aceitos = new AtomicInteger();
+        AtomicInteger leiturasIncompletas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < terminais; t++) {
+            Thread terminal = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < produtosPorTerminal; i++) {
+                    // todos os terminais cadastram os mesmos produtos, em ordens diferentes
+                    int n = (i * 7919 + Thread.currentThread().hashCode()) % produtosPorTerminal;
+                    if (compartilhado.adicionarSeAusente(new ProdutoNaoPerecivel("Produto " + Math.abs(n), 10, 0.1)))
+                        aceitos.incrementAndGet();
+                    int publicados = compartilhado.quantidade();
+                    if (publicados > 0 && compartilhado.get(publicados - 1) == null)
+                        leiturasIncompletas.incrementAndGet();
+                }
+            });
+            threads.add(terminal);
+            terminal.start();
+        }
+        largada.countDown();
+        for (Thread terminal : threads) {
+            terminal.join();
+        }
+
+        assertEquals(0, leiturasIncompletas.get());
+        assertEquals(aceitos.get(), compartilhado.quantidade());
+        Set<Produto> distintos = new HashSet<>();
+        for (Produto produto : compartilhado) {
+            assertNotNull(produto);
+            distintos.add(produto);
+            assertSame(produto, compartilhado.localizar(produto.descricao));
+        }
+        assertEquals(compartilhado.quantidade(), distintos.size());
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Saída de listagens em bloco: as linhas são montadas em um único buffer reaproveitado e enviadas ao destino em
+ * trechos grandes, em vez de uma chamada a System.out.println (com sua sincronização e descarga) por linha.
+ * <p>
+ * Uso:
+ * <pre>
+ * SaidaTexto saida = new SaidaTexto(System.out);
+ * for (Produto produto : produtos) {
+ *     produto.anexarTexto(saida.linha());
+ *     saida.fimDaLinha();
+ * }
+ * saida.descarregar();
+ * </pre>
+ */
+public class SaidaTexto implements Flushable {
+
+    /** Tamanho a partir do qual o buffer é enviado ao destino, em caracteres */
+    private static final int LIMITE_BUFFER = 1 << 16;
+
+    private final Appendable destino;
+    private final StringBuilder buffer = new StringBuilder(LIMITE_BUFFER + 1024);
+
+    /** @param destino Destino do texto (ex.: System.out ou um Writer) */
+    public SaidaTexto(Appendable destino) {
+        this.destino = destino;
+    }
+
+    /** @return O buffer, onde a linha atual deve ser anexada */
+    public StringBuilder linha() {
+        return buffer;
+    }
+
+    /** Encerra a linha atual; se o buffer passou do limite, envia-o ao destino */
+    public void fimDaLinha() {
+        buffer.append('\n');
+        if (buffer.length() >= LIMITE_BUFFER)
+            enviar();
+    }
+
+    /**
+     * Anexa uma linha de texto pronta.
+     * @param texto Texto da linha, sem a quebra
+     */
+    public void imprimirLinha(CharSequence texto) {
+        buffer.append(texto);
+        fimDaLinha();
+    }
+
+    /** Envia o texto pendente ao destino e o descarrega */
+    public void descarregar() {
+        enviar();
+        try {
+            if (destino instanceof Flushable)
+                ((Flushable) destino).flush();
+        } catch (IOException excecao) {
+            throw new UncheckedIOException(excecao);
+        }
+    }
+
+    @Override
+    public void flush() {
+        descarregar();
+    }
+
+    private void enviar() {
+        if (buffer.length() == 0)
+            return;
+        try {
+            destino.append(buffer);
+        } catch (IOException excecao) {
+            throw new UncheckedIOException(excecao);
+        }
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,26 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class SaidaTextoTest {
+
+    @Test
+    public void enviaLinhasEmBlocosNaOrdem() {
+        StringWriter destino = new StringWriter();
+        SaidaTexto saida = new SaidaTexto(destino);
+        StringBuilder esperado = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            saida.linha().append("Linha ").append(i);
+            saida.fimDaLinha();
+            esperado.append("Linha ").append(i).append('\n');
+        }
+        assertTrue(destino.getBuffer().length() > 0, "o buffer cheio deve ser enviado antes do fim");
+        assertTrue(destino.getBuffer().length() < esperado.length());
+        saida.imprimirLinha("fim");
+        saida.descarregar();
+        assertEquals(esperado.append("fim\n").toString(), destino.toString());
+    }
+}
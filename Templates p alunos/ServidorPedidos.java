@@ -0,0 +1,246 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Servidor TCP de recebimento de pedidos. Cada conexão envia linhas no formato do arquivo de pedidos
+ * ("dataDoPedido;formaDePagamento;descrição do produto 1;..."); para cada linha o servidor monta o pedido com
+ * {@link Pedido#criarDoRegistro(RegistroCsv, Function)}, resolvendo os produtos no catálogo em memória, e responde
+ * com uma linha:
+ * <ul>
+ * <li>{@code OK;valorFinal;itensIncluídos;itensIgnorados}, com o valor final com duas casas decimais e a quantidade de
+ * produtos encontrados e não encontrados no catálogo;</li>
+ * <li>{@code ERRO;mensagem}, se a linha não puder ser interpretada (a conexão continua aberta).</li>
+ * </ul>
+ * Uma linha vazia, "FIM" ou o fim da entrada encerram a conexão. As respostas de várias linhas enviadas de uma vez
+ * são agrupadas antes de ir para a rede.
+ * <p>
+ * Cada conexão é atendida por uma thread própria. Em JDKs com threads virtuais (21 ou superior) elas são usadas,
+ * de modo que milhares de conexões simultâneas custam pouco; no Java 17 as conexões usam um pool de threads de
+ * plataforma que cresce sob demanda. O localizador de produtos precisa ser seguro para uso concorrente, como
+ * {@link RepositorioProdutos#localizar(String)}.
+ * <p>
+ * O servidor não autentica as conexões. Por isso, por padrão, só aceita conexões do próprio computador (endereço de
+ * loopback); para atender outras máquinas, o endereço de escuta deve ser informado explicitamente no construtor (ex.:
+ * o de uma interface de rede interna, ou 0.0.0.0 para todas).
+ */
+public class ServidorPedidos implements Closeable {
+
+    /** Porta padrão do modo servidor */
+    public static final int PORTA_PADRAO = 9090;
+
+    /** Tempo máximo de espera por uma linha antes de encerrar uma conexão ociosa */
+    private static final int TEMPO_OCIOSO_MS = 60_000;
+
+    private final InetAddress enderecoSolicitado;
+    private final int portaSolicitada;
+    private final Function<String, Produto> localizador;
+    private final ExecutorService conexoes = criarExecutor();
+    /** Conexões aceitas e ainda em atendimento, fechadas em {@link #close()} para desbloquear as leituras */
+    private final Set<Socket> abertas = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pedidosAtendidos = new AtomicLong();
+    private final AtomicLong linhasRejeitadas = new AtomicLong();
+    private ServerSocket socket;
+    private Thread aceitador;
+
+    /**
+     * Cria um servidor que só aceita conexões do próprio computador (endereço de loopback).
+     * @param porta Porta TCP (0 escolhe uma porta livre; ver {@link #porta()})
+     * @param localizador Localiza um produto pela descrição (ex.: App::localizarProdutoPorNome); deve ser seguro para
+     *                    uso concorrente
+     */
+    public ServidorPedidos(int porta, Function<String, Produto> localizador) {
+        this(InetAddress.getLoopbackAddress(), porta, localizador);
+    }
+
+    /**
+     * Cria um servidor que escuta no endereço informado.
+     * @param endereco Endereço local de escuta (ex.: o de uma interface de rede; o endereço curinga 0.0.0.0 aceita
+     *                 conexões de qualquer interface)
+     * @param porta Porta TCP (0 escolhe uma porta livre; ver {@link #porta()})
+     * @param localizador Localiza um produto pela descrição; deve ser seguro para uso concorrente
+     * @throws NullPointerException caso o endereço seja nulo
+     */
+    public ServidorPedidos(InetAddress endereco, int porta, Function<String, Produto> localizador) {
+        this.enderecoSolicitado = Objects.requireNonNull(endereco, "endereco");
+        this.portaSolicitada = porta;
+        this.localizador = localizador;
+    }
+
+    /**
+     * Cria o executor das conexões: uma thread virtual por tarefa quando o JDK oferece, ou um pool de threads de
+     * plataforma (daemon) sem limite, que reaproveita threads ociosas.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException semThreadsVirtuais) {
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "conexao-pedidos");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Abre a porta e começa a aceitar conexões em segundo plano.
+     * @throws IOException caso a porta não possa ser aberta
+     */
+    public void iniciar() throws IOException {
+        socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(enderecoSolicitado, portaSolicitada), 1024);
+        aceitador = new Thread(this::aceitar, "servidor-pedidos");
+        aceitador.start();
+    }
+
+    /** @return Porta em que o servidor está escutando */
+    public int porta() {
+        return socket.getLocalPort();
+    }
+
+    /** @return Endereço para conexões a partir do mesmo computador (loopback, se o servidor escuta em todas as interfaces) */
+    public InetSocketAddress endereco() {
+        InetAddress local = socket.getInetAddress();
+        return new InetSocketAddress(local.isAnyLocalAddress() ? InetAddress.getLoopbackAddress() : local, porta());
+    }
+
+    /** @return Quantidade de pedidos calculados desde o início */
+    public long pedidosAtendidos() {
+        return pedidosAtendidos.get();
+    }
+
+    /** @return Quantidade de linhas que não puderam ser interpretadas */
+    public long linhasRejeitadas() {
+        return linhasRejeitadas.get();
+    }
+
+    /**
+     * Bloqueia até o servidor ser encerrado.
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public void aguardar() throws InterruptedException {
+        aceitador.join();
+    }
+
+    private void aceitar() {
+        while (!socket.isClosed()) {
+            try {
+                Socket conexao = socket.accept();
+                abertas.add(conexao);
+                if (socket.isClosed()) {
+                    fechar(conexao);
+                    return;
+                }
+                conexoes.execute(() -> atender(conexao));
+            } catch (RejectedExecutionException encerrando) {
+                fecharTodas();
+                return;
+            } catch (SocketException encerrado) {
+                return;
+            } catch (IOException excecao) {
+                System.out.println("Falha ao aceitar conexão: " + excecao.getMessage());
+            }
+        }
+    }
+
+    /** Atende uma conexão até o cliente encerrá-la */
+    private void atender(Socket conexao) {
+        try (conexao;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(conexao.getOutputStream(), StandardCharsets.UTF_8))) {
+            conexao.setSoTimeout(TEMPO_OCIOSO_MS);
+            conexao.setTcpNoDelay(true);
+            StringBuilder resposta = new StringBuilder(64);
+            String linha;
+            while ((linha = entrada.readLine()) != null && !linha.isEmpty() && !linha.equals("FIM")) {
+                resposta.setLength(0);
+                responder(linha, resposta);
+                saida.append(resposta).append('\n');
+                if (!entrada.ready())
+                    saida.flush();
+            }
+            saida.flush();
+        } catch (IOException conexaoEncerrada) {
+            // o cliente desconectou, ficou ocioso ou o servidor foi encerrado; nada a responder
+        } finally {
+            abertas.remove(conexao);
+        }
+    }
+
+    /** Fecha todas as conexões em atendimento */
+    private void fecharTodas() {
+        for (Socket conexao : abertas) {
+            fechar(conexao);
+        }
+    }
+
+    private void fechar(Socket conexao) {
+        abertas.remove(conexao);
+        try {
+            conexao.close();
+        } catch (IOException ignorada) {
+            // a conexão já estava encerrada
+        }
+    }
+
+    /**
+     * Calcula a resposta para uma linha de pedido.
+     * @param linha Linha no formato do arquivo de pedidos
+     * @param resposta Onde a resposta (sem quebra de linha) é anexada
+     */
+    void responder(String linha, StringBuilder resposta) {
+        Pedido pedido;
+        RegistroCsv registro;
+        try {
+            registro = new RegistroCsv(linha);
+            pedido = Pedido.criarDoRegistro(registro, localizador);
+        } catch (RuntimeException invalida) {
+            linhasRejeitadas.incrementAndGet();
+            resposta.append("ERRO;").append(String.valueOf(invalida.getMessage()).replace('\n', ' '));
+            return;
+        }
+        pedidosAtendidos.incrementAndGet();
+        int solicitados = Math.max(0, registro.quantidadeCampos() - 2);
+        resposta.append("OK;");
+        ConversorCampos.anexarDuasCasas(resposta, pedido.valorFinal());
+        resposta.append(';').append(pedido.getQuantProdutos()).append(';').append(solicitados - pedido.getQuantProdutos());
+    }
+
+    /**
+     * Para de aceitar conexões e encerra as conexões em andamento. Os sockets abertos são fechados antes de parar o
+     * executor: interromper a thread não desbloqueia uma leitura de socket em threads de plataforma, mas fechar o
+     * socket sim, e o cliente recebe o fim da conexão.
+     */
+    @Override
+    public void close() throws IOException {
+        if (socket != null)
+            socket.close();
+        fecharTodas();
+        conexoes.shutdownNow();
+        try {
+            conexoes.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException excecao) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
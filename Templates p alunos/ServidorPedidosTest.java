@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ServidorPedidosTest {
+
+    RepositorioProdutos produtos;
+    ServidorPedidos servidor;
+
+    @BeforeEach
+    public void prepare() throws IOException {
+        produtos = new RepositorioProdutos();
+        for (int i = 0; i < 30; i++) {
+            produtos.adicionar(new ProdutoNaoPerecivel("Produto " + i, 1 + i, 0.25));
+        }
+        servidor = new ServidorPedidos(0, produtos::localizar);
+        servidor.iniciar();
+    }
+
+    @AfterEach
+    public void encerra() throws IOException {
+        servidor.close();
+    }
+
+    /** Resposta esperada, calculada localmente com o mesmo catálogo */
+    String esperado(String linha, int ignorados) {
+        Pedido pedido = Pedido.criarDoRegistro(new RegistroCsv(linha), produtos::localizar);
+        StringBuilder resposta = new StringBuilder("OK;");
+        ConversorCampos.anexarDuasCasas(resposta, pedido.valorFinal());
+        return resposta.append(';').append(pedido.getQuantProdutos()).append(';').append(ignorados).toString();
+    }
+
+    /** Envia as linhas de uma só vez e lê uma resposta para cada uma */
+    List<String> enviar(List<String> linhas) throws IOException {
+        try (Socket conexao = new Socket(servidor.endereco().getAddress(), servidor.porta());
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream saida = conexao.getOutputStream();
+            saida.write((String.join("\n", linhas) + "\nFIM\n").getBytes(StandardCharsets.UTF_8));
+            saida.flush();
+            List<String> respostas = new ArrayList<>();
+            for (int i = 0; i < linhas.size(); i++) {
+                respostas.add(entrada.readLine());
+            }
+            return respostas;
+        }
+    }
+
+    @Test
+    public void respondeValorFinalDeCadaPedido() throws IOException {
+        List<String> linhas = List.of("10/03/2030;1;Produto 1;produto 2;Produto 3",
+                "11/03/2030;2;Produto 29",
+                "12/03/2030;2;Produto 4;Inexistente");
+        List<String> respostas = enviar(linhas);
+        assertEquals(esperado(linhas.get(0), 0), respostas.get(0));
+        assertEquals(esperado(linhas.get(1), 0), respostas.get(1));
+        assertEquals(esperado(linhas.get(2), 1), respostas.get(2));
+        assertEquals("OK;37.50;1;0", respostas.get(1));
+        assertEquals(3, servidor.pedidosAtendidos());
+    }
+
+    @Test
+    public void linhaInvalidaNaoEncerraConexao() throws IOException {
+        List<String> respostas = enviar(List.of("ontem;1;Produto 1", "10/03/2030;2;Produto 0"));
+        assertTrue(respostas.get(0).startsWith("ERRO;"));
+        assertEquals("OK;1.25;1;0", respostas.get(1));
+        assertEquals(1, servidor.linhasRejeitadas());
+        assertEquals(1, servidor.pedidosAtendidos());
+    }
+
+    @Test
+    public void atendeMuitasConexoesSimultaneas() throws Exception {
+        int clientes = 200, pedidosPorCliente = 20;
+        ExecutorService threads = Executors.newFixedThreadPool(64);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            resultados.add(threads.submit(() -> {
+                List<String> linhas = new ArrayList<>();
+                for (int i = 0; i < pedidosPorCliente; i++) {
+                    linhas.add("10/03/2030;" + (1 + i % 2) + ";Produto " + (cliente % 30) + ";Produto " + (i % 30));
+                }
+                List<String> respostas = enviar(linhas);
+                int corretas = 0;
+                for (int i = 0; i < pedidosPorCliente; i++) {
+                    if (esperado(linhas.get(i), 0).equals(respostas.get(i)))
+                        corretas++;
+                }
+                return corretas;
+            }));
+        }
+        int corretas = 0;
+        for (Future<Integer> resultado : resultados) {
+            corretas += resultado.get();
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(clientes * pedidosPorCliente, corretas);
+        assertEquals(clientes * pedidosPorCliente, servidor.pedidosAtendidos());
+    }
+
+    @Test
+    public void escutaApenasNoLoopbackPorPadrao() {
+        assertTrue(servidor.endereco().getAddress().isLoopbackAddress());
+    }
+
+    @Test
+    public void escutaEmOutroEnderecoApenasQuandoInformado() throws IOException {
+        servidor.close();
+        servidor = new ServidorPedidos(InetAddress.getByName("0.0.0.0"), 0, produtos::localizar);
+        servidor.iniciar();
+        assertTrue(servidor.endereco().getAddress().isLoopbackAddress());
+        assertEquals(List.of("OK;1.25;1;0"), enviar(List.of("10/03/2030;2;Produto 0")));
+    }
+
+    @Test
+    public void encerramentoFechaConexoesAbertas() throws IOException {
+        try (Socket conexao = new Socket(servidor.endereco().getAddress(), servidor.porta());
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8))) {
+            conexao.setSoTimeout(5_000);
+            conexao.getOutputStream().write("10/03/2030;2;Produto 0\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("OK;1.25;1;0", entrada.readLine());
+            long inicio = System.nanoTime();
+            servidor.close();
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1_000);
+            assertNull(entrada.readLine());
+        }
+    }
+}
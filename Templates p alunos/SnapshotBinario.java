@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot binário dos produtos e pedidos, gravado ao lado dos arquivos de dados para acelerar a carga: os valores
+ * já ficam em formato primitivo, sem conversão de texto. Formato (big-endian):
+ * <pre>
+ * cabeçalho (32 bytes): mágico "AEDS" (int), versão (short), reservado (short),
+ *                       quantidade de textos, de produtos, de pedidos e de itens de pedidos (4 ints),
+ *                       reservado (long)
+ * tabela de textos:     para cada descrição, tamanho em bytes (int) seguido dos bytes UTF-8
+ * produtos (25 bytes):  tipo (byte: 1 não perecível, 2 perecível), preço de custo (double),
+ *                       margem de lucro (double), validade em epoch-day (int, 0 se não perecível),
+ *                       índice da descrição na tabela de textos (int)
+ * pedidos:              data em epoch-day (int), forma de pagamento (byte), quantidade de itens (int),
+ *                       índice de cada produto do pedido (int)
+ * </pre>
+ */
+public class SnapshotBinario {
+
+    /** Número mágico que identifica o arquivo ("AEDS") */
+    private static final int MAGICO = 0x41454453;
+
+    /** Versão atual do formato */
+    private static final short VERSAO = 1;
+
+    /** Tamanho do cabeçalho, em bytes */
+    private static final int TAMANHO_CABECALHO = 32;
+
+    /** Tamanho do buffer de escrita, em bytes */
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    /** Tipo dos produtos não perecíveis */
+    private static final byte TIPO_NAO_PERECIVEL = 1;
+
+    /** Tipo dos produtos perecíveis */
+    private static final byte TIPO_PERECIVEL = 2;
+
+    /** Sufixo do snapshot, que substitui a extensão do arquivo de produtos */
+    static final String EXTENSAO = ".snapshot";
+
+    /** Conteúdo de um snapshot: produtos e pedidos */
+    public static class Conteudo {
+        private final RepositorioProdutos produtos;
+        private final RepositorioPedidos pedidos;
+
+        Conteudo(RepositorioProdutos produtos, RepositorioPedidos pedidos) {
+            this.produtos = produtos;
+            this.pedidos = pedidos;
+        }
+
+        /** @return Produtos do snapshot, na ordem original */
+        public RepositorioProdutos produtos() {
+            return produtos;
+        }
+
+        /** @return Pedidos do snapshot, na ordem original */
+        public RepositorioPedidos pedidos() {
+            return pedidos;
+        }
+    }
+
+    private SnapshotBinario() { }
+
+    /**
+     * Caminho do snapshot correspondente a um arquivo de produtos (ex.: dadosProdutos.csv → dadosProdutos.snapshot).
+     * @param arquivoProdutos Arquivo de produtos
+     * @return Caminho do snapshot, na mesma pasta
+     */
+    public static Path caminhoPara(Path arquivoProdutos) {
+        String nome = arquivoProdutos.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        return arquivoProdutos.resolveSibling((ponto > 0 ? nome.substring(0, ponto) : nome) + EXTENSAO);
+    }
+
+    /**
+     * Indica se o snapshot existe e é mais recente que todos os arquivos de dados informados.
+     * @param snapshot Caminho do snapshot
+     * @param arquivosDados Arquivos de texto que deram origem ao snapshot
+     * @return true se o snapshot pode ser usado no lugar dos arquivos de texto
+     * @throws IOException em caso de erro ao consultar os arquivos
+     */
+    public static boolean atualizado(Path snapshot, Path... arquivosDados) throws IOException {
+        if (!Files.exists(snapshot))
+            return false;
+        long modificacao = Files.getLastModifiedTime(snapshot).toMillis();
+        for (Path arquivo : arquivosDados) {
+            if (!Files.exists(arquivo) || Files.getLastModifiedTime(arquivo).toMillis() >= modificacao)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Grava o snapshot dos produtos e pedidos informados, substituindo-o de forma atômica ao final.
+     * Os produtos dos pedidos devem estar no repositório de produtos.
+     * @param produtos Produtos
+     * @param pedidos Pedidos
+     * @param destino Caminho do snapshot
+     * @throws IOException em caso de erro de gravação
+     * @throws IllegalArgumentException caso um pedido contenha produto ausente do repositório
+     */
+    public static void gravar(RepositorioProdutos produtos, RepositorioPedidos pedidos, Path destino) throws IOException {
+        Map<Produto, Integer> indices = new HashMap<>(Math.max(16, (int) (produtos.quantidade() / 0.75f) + 1));
+        int quantidadeItens = pedidos.livro().quantidadeItens();
+        Path temporario = GravadorProdutos.criarTemporario(destino);
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+                buffer.putInt(MAGICO).putShort(VERSAO).putShort((short) 0)
+                        .putInt(produtos.quantidade()).putInt(produtos.quantidade())
+                        .putInt(pedidos.quantidade()).putInt(quantidadeItens).putLong(0L);
+                for (Produto produto : produtos) {
+                    byte[] descricao = produto.descricao.getBytes(StandardCharsets.UTF_8);
+                    buffer = garantirEspaco(canal, buffer, Integer.BYTES + descricao.length);
+                    buffer.putInt(descricao.length).put(descricao);
+                }
+                int indice = 0;
+                for (Produto produto : produtos) {
+                    indices.putIfAbsent(produto, indice);
+                    buffer = garantirEspaco(canal, buffer, 25);
+                    if (produto instanceof ProdutoPerecivel) {
+                        buffer.put(TIPO_PERECIVEL).putDouble(produto.precoCusto).putDouble(produto.margemLucro)
+                                .putInt((int) ((ProdutoPerecivel) produto).getDataDeValidade().toEpochDay());
+                    } else {
+                        buffer.put(TIPO_NAO_PERECIVEL).putDouble(produto.precoCusto).putDouble(produto.margemLucro)
+                                .putInt(0);
+                    }
+                    buffer.putInt(indice++);
+                }
+                for (Pedido pedido : pedidos) {
+                    int itens = pedido.getQuantProdutos();
+                    buffer = garantirEspaco(canal, buffer, 9 + itens * Integer.BYTES);
+                    buffer.putInt((int) pedido.getDataPedido().toEpochDay()).put((byte) pedido.getFormaDePagamento())
+                            .putInt(itens);
+                    for (int i = 0; i < itens; i++) {
+                        Integer indiceProduto = indices.get(pedido.getProduto(i));
+                        if (indiceProduto == null)
+                            throw new IllegalArgumentException("Pedido com produto fora do cadastro: " + pedido.getProduto(i).descricao);
+                        buffer.putInt(indiceProduto);
+                    }
+                }
+                descarregar(canal, buffer);
+                canal.force(true);
+            }
+            GravadorProdutos.substituir(temporario, destino);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /** Esvazia o buffer no canal caso não haja espaço para mais bytes; aumenta-o se o registro não couber */
+    private static ByteBuffer garantirEspaco(FileChannel canal, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return buffer;
+        descarregar(canal, buffer);
+        if (buffer.capacity() < bytes)
+            return ByteBuffer.allocateDirect(bytes);
+        return buffer;
+    }
+
+    private static void descarregar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Lê um snapshot, mapeando-o em memória (buffer direto) e criando os produtos e pedidos a partir dos valores
+     * primitivos gravados. Perecíveis vencidos depois da gravação são recriados normalmente
+     * (ver {@link ProdutoPerecivel#restaurar}).
+     * @param origem Caminho do snapshot
+     * @return Produtos e pedidos do snapshot. Os produtos ficam marcados como já gravados no arquivo de texto
+     * @throws IOException em caso de erro de leitura ou de arquivo em formato inválido, truncado ou com dados
+     *         inconsistentes
+     */
+    public static Conteudo ler(Path origem) throws IOException {
+        ByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(origem, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot maior que 2 GB não suportado: " + origem);
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (dados.remaining() < TAMANHO_CABECALHO || dados.getInt() != MAGICO)
+            throw new IOException("Arquivo não é um snapshot válido: " + origem);
+        try {
+            return decodificar(dados);
+        } catch (BufferUnderflowException excecao) {
+            throw new IOException("Snapshot truncado: " + origem, excecao);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException
+                | DateTimeException excecao) {
+            throw new IOException("Snapshot com dados inválidos: " + origem + " (" + excecao.getMessage() + ")", excecao);
+        }
+    }
+
+    /**
+     * Decodifica o conteúdo de um snapshot a partir da versão do cabeçalho (o número mágico já foi conferido).
+     * Erros de dados truncados ou inconsistentes aparecem como exceções de tempo de execução, tratadas em
+     * {@link #ler(Path)}.
+     */
+    private static Conteudo decodificar(ByteBuffer dados) throws IOException {
+        short versao = dados.getShort();
+        if (versao != VERSAO)
+            throw new IOException("Versão de snapshot não suportada: " + versao);
+        dados.getShort();
+        int quantidadeTextos = dados.getInt();
+        int quantidadeProdutos = dados.getInt();
+        int quantidadePedidos = dados.getInt();
+        dados.getInt();
+        dados.getLong();
+        if (quantidadeTextos < 0 || quantidadeProdutos < 0 || quantidadePedidos < 0
+                || Math.max(quantidadeTextos, Math.max(quantidadeProdutos, quantidadePedidos)) > dados.remaining())
+            throw new IllegalArgumentException("quantidades incompatíveis com o tamanho do arquivo");
+
+        String[] textos = new String[quantidadeTextos];
+        byte[] bytesTexto = new byte[64];
+        for (int i = 0; i < quantidadeTextos; i++) {
+            int tamanho = dados.getInt();
+            if (tamanho < 0 || tamanho > dados.remaining())
+                throw new BufferUnderflowException();
+            if (tamanho > bytesTexto.length)
+                bytesTexto = new byte[Math.max(tamanho, bytesTexto.length * 2)];
+            dados.get(bytesTexto, 0, tamanho);
+            textos[i] = new String(bytesTexto, 0, tamanho, StandardCharsets.UTF_8);
+        }
+
+        RepositorioProdutos produtos = new RepositorioProdutos(quantidadeProdutos);
+        Produto[] porIndice = new Produto[quantidadeProdutos];
+        for (int i = 0; i < quantidadeProdutos; i++) {
+            byte tipo = dados.get();
+            double precoCusto = dados.getDouble();
+            double margemLucro = dados.getDouble();
+            int validade = dados.getInt();
+            String descricao = textos[dados.getInt()];
+            if (tipo == TIPO_NAO_PERECIVEL)
+                porIndice[i] = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
+            else if (tipo == TIPO_PERECIVEL)
+                porIndice[i] = ProdutoPerecivel.restaurar(descricao, precoCusto, margemLucro, LocalDate.ofEpochDay(validade));
+            else
+                throw new IOException("Tipo de produto inválido no snapshot: " + tipo);
+            produtos.adicionar(porIndice[i]);
+        }
+        produtos.marcarComoGravados();
+
+        RepositorioPedidos pedidos = new RepositorioPedidos(quantidadePedidos);
+        for (int i = 0; i < quantidadePedidos; i++) {
+            LocalDate data = LocalDate.ofEpochDay(dados.getInt());
+            int formaDePagamento = dados.get();
+            int itens = dados.getInt();
+            Pedido pedido = new Pedido(data, formaDePagamento, itens);
+            for (int j = 0; j < itens; j++) {
+                pedido.incluirProduto(porIndice[dados.getInt()]);
+            }
+            pedidos.adicionar(pedido);
+        }
+        return new Conteudo(produtos, pedidos);
+    }
+
+    /**
+     * Converte os arquivos de texto (formatos de Produto.criarDoTexto e Pedido.criarDoTexto) em um snapshot.
+     * Os produtos dos pedidos são localizados entre os produtos do próprio arquivo.
+     * @param arquivoProdutos Arquivo de texto de produtos
+     * @param arquivoPedidos Arquivo de texto de pedidos
+     * @param destino Caminho do snapshot
+     * @return Os produtos e pedidos lidos dos arquivos de texto
+     * @throws IOException em caso de erro de leitura ou gravação
+     */
+    public static Conteudo converterDeTexto(Path arquivoProdutos, Path arquivoPedidos, Path destino) throws IOException {
+        RepositorioProdutos produtos;
+        try (FonteRegistros fonte = FonteRegistros.abrir(arquivoProdutos.toString())) {
+            int quantidade = fonte.proximo().inteiro(0);
+            produtos = new RepositorioProdutos(quantidade);
+            RegistroCsv registro;
+            for (int i = 0; i < quantidade && (registro = fonte.proximo()) != null; i++) {
+                produtos.adicionar(Produto.criarDoRegistro(registro));
+            }
+            produtos.marcarComoGravados();
+        }
+        RepositorioPedidos pedidos;
+        try (FonteRegistros fonte = FonteRegistros.abrir(arquivoPedidos.toString())) {
+            int quantidade = fonte.proximo().inteiro(0);
+            pedidos = new RepositorioPedidos(quantidade);
+            RegistroCsv registro;
+            for (int i = 0; i < quantidade && (registro = fonte.proximo()) != null; i++) {
+                pedidos.adicionar(Pedido.criarDoRegistro(registro, produtos::localizar));
+            }
+        }
+        gravar(produtos, pedidos, destino);
+        return new Conteudo(produtos, pedidos);
+    }
+
+    /**
+     * Converte um snapshot de volta aos arquivos de texto de produtos e pedidos.
+     * @param origem Caminho do snapshot
+     * @param arquivoProdutos Arquivo de texto de produtos a ser gravado
+     * @param arquivoPedidos Arquivo de texto de pedidos a ser gravado
+     * @throws IOException em caso de erro de leitura ou gravação
+     */
+    public static void converterParaTexto(Path origem, Path arquivoProdutos, Path arquivoPedidos) throws IOException {
+        Conteudo conteudo = ler(origem);
+        GravadorProdutos.gravar(conteudo.produtos(), conteudo.produtos().quantidade(), arquivoProdutos);
+        GravadorProdutos.gravarLinhas(conteudo.pedidos(), conteudo.pedidos().quantidade(), arquivoPedidos,
+                Pedido::anexarDadosTexto);
+    }
+}
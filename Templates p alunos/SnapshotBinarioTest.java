@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SnapshotBinarioTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void converteTextoEmSnapshotEDeVolta() throws IOException {
+        String validade = ConversorCampos.FORMATO_DATA.format(LocalDate.now().plusDays(30));
+        Path produtos = pasta.resolve("dadosProdutos.csv");
+        Path pedidos = pasta.resolve("dadosPedidos.csv");
+        List<String> linhasProdutos = List.of("3", "1;Lapis;1.30;0.50", "2;Pão de queijo;1.50;0.40;" + validade, "1;Frigideira;18.00;0.30");
+        List<String> linhasPedidos = List.of("2", "22/08/2025;1;Lapis;Pão de queijo", "24/08/2025;2;Frigideira");
+        Files.write(produtos, linhasProdutos, StandardCharsets.UTF_8);
+        Files.write(pedidos, linhasPedidos, StandardCharsets.UTF_8);
+        Path snapshot = SnapshotBinario.caminhoPara(produtos);
+
+        SnapshotBinario.converterDeTexto(produtos, pedidos, snapshot);
+        SnapshotBinario.Conteudo conteudo = SnapshotBinario.ler(snapshot);
+        assertEquals(3, conteudo.produtos().quantidade());
+        assertEquals(2, conteudo.pedidos().quantidade());
+        assertSame(conteudo.produtos().get(1), conteudo.pedidos().get(0).getProduto(1));
+        assertEquals(LocalDate.of(2025, 8, 24), conteudo.pedidos().get(1).getDataPedido());
+
+        Path produtosExportados = pasta.resolve("produtos2.csv");
+        Path pedidosExportados = pasta.resolve("pedidos2.csv");
+        SnapshotBinario.converterParaTexto(snapshot, produtosExportados, pedidosExportados);
+        assertEquals(linhasProdutos, Files.readAllLines(produtosExportados, StandardCharsets.UTF_8));
+        assertEquals(linhasPedidos, Files.readAllLines(pedidosExportados, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void snapshotTruncadoVoltaParaOsArquivosDeTexto() throws IOException {
+        Path produtos = pasta.resolve("dadosProdutos.csv");
+        Path pedidos = pasta.resolve("dadosPedidos.csv");
+        Files.write(produtos, List.of("2", "1;Lapis;1.30;0.50", "1;Frigideira;18.00;0.30"), StandardCharsets.UTF_8);
+        Files.write(pedidos, List.of("1", "22/08/2025;1;Lapis;Frigideira"), StandardCharsets.UTF_8);
+        Path snapshot = SnapshotBinario.caminhoPara(produtos);
+        SnapshotBinario.converterDeTexto(produtos, pedidos, snapshot);
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 6);
+        }
+        Files.setLastModifiedTime(snapshot, FileTime.fromMillis(Files.getLastModifiedTime(pedidos).toMillis() + 10_000));
+
+        assertThrows(IOException.class, () -> SnapshotBinario.ler(snapshot));
+        App.carregarDados(produtos.toString(), pedidos.toString());
+        assertEquals(2, App.produtosCadastrados.quantidade());
+        assertEquals(1, App.pedidosCadastrados.quantidade());
+        assertEquals(2, SnapshotBinario.ler(snapshot).produtos().quantidade());
+    }
+
+    @Test
+    public void lePereciveisVencidosDepoisDaGravacao() throws IOException {
+        LocalDate hoje = LocalDate.now();
+        Path snapshot = pasta.resolve("dados.snapshot");
+        try {
+            Calendario.usarRelogio(Clock.fixed(hoje.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            RepositorioProdutos produtos = new RepositorioProdutos();
+            produtos.adicionar(new ProdutoPerecivel("Leite", 4.0, 0.5, hoje.plusDays(1)));
+            SnapshotBinario.gravar(produtos, new RepositorioPedidos(), snapshot);
+            Calendario.usarRelogio(Clock.fixed(hoje.plusDays(3).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+            assertNotNull(SnapshotBinario.ler(snapshot).produtos().localizar("Leite"));
+        } finally {
+            Calendario.usarRelogio(Clock.systemDefaultZone());
+        }
+    }
+}
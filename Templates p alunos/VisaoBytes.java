@@ -0,0 +1,56 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Visão de um trecho de bytes UTF-8 como CharSequence, sem copiá-los. Cada byte é exposto como um caractere,
+ * o que é exato para os separadores, dígitos e barras dos arquivos de dados (todos ASCII) e permite
+ * reaproveitar {@link RegistroCsv} e {@link ConversorCampos} sobre um arquivo mapeado. Apenas
+ * {@link #toString()} decodifica o trecho em UTF-8, gerando a String final (por exemplo, a descrição).
+ */
+class VisaoBytes implements CharSequence {
+
+    /** Bytes de origem (acesso apenas por posição absoluta) */
+    private final ByteBuffer bytes;
+
+    /** Posição inicial do trecho nos bytes de origem */
+    private final int inicio;
+
+    /** Posição final (exclusive) do trecho nos bytes de origem */
+    private final int fim;
+
+    /**
+     * Cria uma visão sobre todo o conteúdo (até o limite) do buffer.
+     * @param bytes Bytes de origem
+     */
+    VisaoBytes(ByteBuffer bytes) {
+        this(bytes, 0, bytes.limit());
+    }
+
+    private VisaoBytes(ByteBuffer bytes, int inicio, int fim) {
+        this.bytes = bytes;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    @Override
+    public int length() {
+        return fim - inicio;
+    }
+
+    @Override
+    public char charAt(int indice) {
+        return (char) (bytes.get(inicio + indice) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int inicioTrecho, int fimTrecho) {
+        return new VisaoBytes(bytes, inicio + inicioTrecho, inicio + fimTrecho);
+    }
+
+    @Override
+    public String toString() {
+        byte[] trecho = new byte[fim - inicio];
+        bytes.get(inicio, trecho);
+        return new String(trecho, StandardCharsets.UTF_8);
+    }
+}
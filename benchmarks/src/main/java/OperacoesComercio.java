@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import benchmarks.Operacoes;
+
+/**
+ * Implementação de {@link Operacoes} no pacote padrão, com acesso direto às classes da aplicação.
+ * Cada método apenas repassa a chamada, para que o custo medido seja o da própria aplicação.
+ */
+public class OperacoesComercio implements Operacoes {
+
+    @Override
+    public Object criarProduto(String linha) {
+        return Produto.criarDoTexto(linha);
+    }
+
+    @Override
+    public Object criarPedido(String linha) {
+        return Pedido.criarDoTexto(linha);
+    }
+
+    @Override
+    public String gerarDadosTexto(Object produto) {
+        return ((Produto) produto).gerarDadosTexto();
+    }
+
+    @Override
+    public double valorDeVenda(Object produto) {
+        return ((Produto) produto).valorDeVenda();
+    }
+
+    @Override
+    public double valorFinal(Object pedido) {
+        return ((Pedido) pedido).valorFinal();
+    }
+
+    @Override
+    public void carregarCatalogo(String[] linhas) {
+        RepositorioProdutos produtos = new RepositorioProdutos(linhas.length);
+        for (String linha : linhas) {
+            produtos.adicionar(Produto.criarDoTexto(linha));
+        }
+        App.produtosCadastrados = produtos;
+    }
+
+    @Override
+    public Object colunasDoCatalogo() {
+        return ColunasProdutos.de(App.produtosCadastrados, App.produtosCadastrados.quantidade());
+    }
+
+    @Override
+    public double totalDeVenda(Object colunas) {
+        return ((ColunasProdutos) colunas).totalDeVenda();
+    }
+
+    @Override
+    public Object localizarProdutoPorNome(String nome) {
+        return App.localizarProdutoPorNome(nome);
+    }
+
+    @Override
+    public int lerProdutos(String arquivo) {
+        RepositorioProdutos produtos = App.lerProdutos(arquivo);
+        if (produtos == null)
+            throw new IllegalStateException("Não foi possível ler " + arquivo);
+        App.produtosCadastrados = produtos;
+        return produtos.quantidade();
+    }
+
+    @Override
+    public void salvarProdutos(String arquivo) throws IOException {
+        GravadorProdutos.gravar(App.produtosCadastrados, App.produtosCadastrados.quantidade(), Paths.get(arquivo));
+    }
+}
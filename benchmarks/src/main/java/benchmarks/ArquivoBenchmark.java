@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Leitura e gravação completas do arquivo de produtos (App.lerProdutos e GravadorProdutos.gravar),
+ * de mil a dez milhões de linhas. Acima de CarregadorParalelo.LIMITE_PARALELO a leitura segue o caminho paralelo,
+ * exatamente como na aplicação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ArquivoBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int linhas;
+
+    private Operacoes operacoes;
+    private Path diretorio;
+    private String origem;
+    private String destino;
+
+    @Setup
+    public void preparar() throws IOException {
+        operacoes = Operacoes.doComercio();
+        diretorio = Files.createTempDirectory("benchmark-arquivo");
+        Path arquivo = diretorio.resolve("produtos.csv");
+        DadosSinteticos.gravar(DadosSinteticos.produtos(linhas), arquivo);
+        origem = arquivo.toString();
+        destino = diretorio.resolve("gravado.csv").toString();
+        operacoes.lerProdutos(origem);
+    }
+
+    @TearDown
+    public void limpar() throws IOException {
+        Files.deleteIfExists(Path.of(destino));
+        Files.deleteIfExists(Path.of(origem));
+        Files.deleteIfExists(diretorio);
+    }
+
+    @Benchmark
+    public int lerProdutos() {
+        return operacoes.lerProdutos(origem);
+    }
+
+    @Benchmark
+    public void salvarProdutos() throws IOException {
+        operacoes.salvarProdutos(destino);
+    }
+}
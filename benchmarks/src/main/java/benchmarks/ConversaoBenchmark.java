@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversão de linhas de texto em objetos (Produto.criarDoTexto, Pedido.criarDoTexto) e de volta
+ * (Produto.gerarDadosTexto). As linhas são percorridas em ciclo para que o JIT não especialize uma única entrada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConversaoBenchmark {
+
+    private static final int AMOSTRAS = 1024;
+    private static final int CATALOGO = 10_000;
+
+    private Operacoes operacoes;
+    private String[] naoPereciveis;
+    private String[] pereciveis;
+    private String[] pedidos;
+    private Object[] produtos;
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        operacoes = Operacoes.doComercio();
+        String[] linhas = DadosSinteticos.produtos(CATALOGO);
+        operacoes.carregarCatalogo(linhas);
+        naoPereciveis = new String[AMOSTRAS];
+        pereciveis = new String[AMOSTRAS];
+        produtos = new Object[AMOSTRAS];
+        for (int i = 0; i < AMOSTRAS; i++) {
+            naoPereciveis[i] = linhas[2 * i];
+            pereciveis[i] = linhas[2 * i + 1];
+            produtos[i] = operacoes.localizarProdutoPorNome(DadosSinteticos.descricao(i));
+        }
+        pedidos = DadosSinteticos.pedidos(AMOSTRAS, CATALOGO, 5);
+    }
+
+    private int indice() {
+        return proximo++ & (AMOSTRAS - 1);
+    }
+
+    @Benchmark
+    public Object criarProdutoNaoPerecivel() {
+        return operacoes.criarProduto(naoPereciveis[indice()]);
+    }
+
+    @Benchmark
+    public Object criarProdutoPerecivel() {
+        return operacoes.criarProduto(pereciveis[indice()]);
+    }
+
+    @Benchmark
+    public Object criarPedido() {
+        return operacoes.criarPedido(pedidos[indice()]);
+    }
+
+    @Benchmark
+    public String gerarDadosTexto() {
+        return operacoes.gerarDadosTexto(produtos[indice()]);
+    }
+}
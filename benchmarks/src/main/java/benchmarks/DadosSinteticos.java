@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Linhas de produtos e pedidos geradas deterministicamente (semente fixa) para os benchmarks.
+ * Metade dos produtos é perecível; as validades ficam entre hoje e um ano à frente, de modo que parte deles
+ * está dentro do prazo de desconto.
+ */
+final class DadosSinteticos {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final long SEMENTE = 20251025L;
+
+    private DadosSinteticos() {
+    }
+
+    /** @return Descrição do i-ésimo produto sintético */
+    static String descricao(int i) {
+        return "Produto sintético " + i;
+    }
+
+    /**
+     * Gera as linhas de produtos, sem o cabeçalho de quantidade.
+     * @param quantidade Quantidade de produtos
+     * @return Linhas no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
+     */
+    static String[] produtos(int quantidade) {
+        Random sorteio = new Random(SEMENTE);
+        LocalDate hoje = LocalDate.now();
+        String[] linhas = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            String base = String.format(Locale.ROOT, "%s;%.2f;%.2f",
+                    descricao(i), 1 + sorteio.nextInt(50_000) / 100.0, 0.05 + sorteio.nextInt(60) / 100.0);
+            if (i % 2 == 0) {
+                linhas[i] = "1;" + base;
+            } else {
+                linhas[i] = "2;" + base + ";" + hoje.plusDays(sorteio.nextInt(365)).format(FORMATO_DATA);
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Gera linhas de pedidos com produtos sorteados entre os {@code quantidadeProdutos} primeiros.
+     * @param quantidade Quantidade de pedidos
+     * @param quantidadeProdutos Quantidade de produtos do catálogo
+     * @param itensPorPedido Quantidade de itens de cada pedido
+     * @return Linhas no formato "dataDoPedido;formaDePagamento;descrição 1;..."
+     */
+    static String[] pedidos(int quantidade, int quantidadeProdutos, int itensPorPedido) {
+        Random sorteio = new Random(SEMENTE + 1);
+        LocalDate inicio = LocalDate.now().minusYears(1);
+        String[] linhas = new String[quantidade];
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            linha.setLength(0);
+            linha.append(inicio.plusDays(sorteio.nextInt(365)).format(FORMATO_DATA))
+                 .append(';').append(1 + sorteio.nextInt(2));
+            for (int j = 0; j < itensPorPedido; j++) {
+                linha.append(';').append(descricao(sorteio.nextInt(quantidadeProdutos)));
+            }
+            linhas[i] = linha.toString();
+        }
+        return linhas;
+    }
+
+    /**
+     * Grava um arquivo de produtos completo (cabeçalho e linhas).
+     * @param linhas Linhas de produtos
+     * @param destino Arquivo a ser gravado
+     */
+    static void gravar(String[] linhas, Path destino) throws IOException {
+        try (BufferedWriter saida = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            saida.write(Integer.toString(linhas.length));
+            saida.newLine();
+            for (String linha : linhas) {
+                saida.write(linha);
+                saida.newLine();
+            }
+        }
+    }
+}
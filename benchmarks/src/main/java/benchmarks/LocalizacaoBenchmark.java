@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Localização de produtos por nome (App.localizarProdutoPorNome), com nomes existentes e inexistentes,
+ * em catálogos de tamanhos variados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class LocalizacaoBenchmark {
+
+    private static final int AMOSTRAS = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    public int tamanhoCatalogo;
+
+    private Operacoes operacoes;
+    private String[] existentes;
+    private String[] inexistentes;
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        operacoes = Operacoes.doComercio();
+        operacoes.carregarCatalogo(DadosSinteticos.produtos(tamanhoCatalogo));
+        existentes = new String[AMOSTRAS];
+        inexistentes = new String[AMOSTRAS];
+        for (int i = 0; i < AMOSTRAS; i++) {
+            // Nomes em maiúsculas: a busca não diferencia caso e a normalização faz parte do custo
+            existentes[i] = DadosSinteticos.descricao((int) ((i * 2654435761L) % tamanhoCatalogo)).toUpperCase();
+            inexistentes[i] = DadosSinteticos.descricao(tamanhoCatalogo + i);
+        }
+    }
+
+    private int indice() {
+        return proximo++ & (AMOSTRAS - 1);
+    }
+
+    @Benchmark
+    public Object localizarExistente() {
+        return operacoes.localizarProdutoPorNome(existentes[indice()]);
+    }
+
+    @Benchmark
+    public Object localizarInexistente() {
+        return operacoes.localizarProdutoPorNome(inexistentes[indice()]);
+    }
+}
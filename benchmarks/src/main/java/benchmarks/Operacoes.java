@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * Operações da aplicação medidas pelos benchmarks.
+ * As classes da aplicação ficam no pacote padrão, que não pode ser importado por um pacote nomeado e que o JMH
+ * não aceita para classes de benchmark. Por isso os benchmarks ficam neste pacote e chamam a aplicação por meio
+ * desta interface, implementada no pacote padrão por {@code OperacoesComercio}. Os objetos da aplicação circulam
+ * como Object e são convertidos de volta na implementação.
+ */
+public interface Operacoes {
+
+    /** Nome da implementação, no pacote padrão */
+    String IMPLEMENTACAO = "OperacoesComercio";
+
+    /** @return Produto criado a partir de uma linha "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]" */
+    Object criarProduto(String linha);
+
+    /** @return Pedido criado a partir de uma linha "dataDoPedido;formaDePagamento;descrição 1;...", usando o catálogo carregado */
+    Object criarPedido(String linha);
+
+    /** @return Linha de texto do produto, no formato de gravação */
+    String gerarDadosTexto(Object produto);
+
+    /** @return Valor de venda do produto */
+    double valorDeVenda(Object produto);
+
+    /** @return Valor final do pedido */
+    double valorFinal(Object pedido);
+
+    /**
+     * Substitui o catálogo de produtos da aplicação pelos produtos das linhas informadas.
+     * @param linhas Linhas de produtos, sem o cabeçalho de quantidade
+     */
+    void carregarCatalogo(String[] linhas);
+
+    /** @return Cópia colunar (ColunasProdutos) do catálogo carregado */
+    Object colunasDoCatalogo();
+
+    /** @return Soma dos valores de venda de uma cópia colunar do catálogo */
+    double totalDeVenda(Object colunas);
+
+    /** @return Produto do catálogo com a descrição informada, ou null */
+    Object localizarProdutoPorNome(String nome);
+
+    /**
+     * Lê o arquivo de produtos pelo mesmo caminho usado pela aplicação e o torna o catálogo atual.
+     * @return Quantidade de produtos lidos
+     */
+    int lerProdutos(String arquivo);
+
+    /** Regrava por completo o catálogo atual no arquivo informado */
+    void salvarProdutos(String arquivo) throws IOException;
+
+    /**
+     * Carrega a implementação do pacote padrão.
+     * @return As operações da aplicação
+     */
+    static Operacoes doComercio() {
+        try {
+            return (Operacoes) Class.forName(IMPLEMENTACAO).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Implementação " + IMPLEMENTACAO + " não encontrada", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cálculo de preços: valorDeVenda sobre um catálogo com perecíveis e não perecíveis intercalados
+ * (chamada bimórfica, como na aplicação), o mesmo total sobre a cópia colunar (ColunasProdutos) e valorFinal de pedidos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PrecificacaoBenchmark {
+
+    private static final int PRODUTOS = 10_000;
+    private static final int PEDIDOS = 1_000;
+
+    private Operacoes operacoes;
+    private Object[] produtos;
+    private Object[] pedidos;
+    private Object colunas;
+
+    @Setup
+    public void preparar() {
+        operacoes = Operacoes.doComercio();
+        operacoes.carregarCatalogo(DadosSinteticos.produtos(PRODUTOS));
+        produtos = new Object[PRODUTOS];
+        for (int i = 0; i < PRODUTOS; i++) {
+            produtos[i] = operacoes.localizarProdutoPorNome(DadosSinteticos.descricao(i));
+        }
+        colunas = operacoes.colunasDoCatalogo();
+        String[] linhas = DadosSinteticos.pedidos(PEDIDOS, PRODUTOS, 5);
+        pedidos = new Object[PEDIDOS];
+        for (int i = 0; i < PEDIDOS; i++) {
+            pedidos[i] = operacoes.criarPedido(linhas[i]);
+        }
+    }
+
+    /** Soma do valor de venda de todo o catálogo */
+    @Benchmark
+    public double valorDeVenda() {
+        double total = 0;
+        for (Object produto : produtos) {
+            total += operacoes.valorDeVenda(produto);
+        }
+        return total;
+    }
+
+    /** Soma do valor de venda de todo o catálogo, em colunas primitivas */
+    @Benchmark
+    public double valorDeVendaColunas() {
+        return operacoes.totalDeVenda(colunas);
+    }
+
+    /** Soma do valor final de todos os pedidos */
+    @Benchmark
+    public double valorFinal() {
+        double total = 0;
+        for (Object pedido : pedidos) {
+            total += operacoes.valorFinal(pedido);
+        }
+        return total;
+    }
+}
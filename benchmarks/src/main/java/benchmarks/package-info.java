@@ -0,0 +1,13 @@
+/**
+ * Benchmarks JMH dos caminhos críticos da aplicação: conversão de linhas, cálculo de preços, localização de
+ * produtos e leitura/gravação do arquivo de produtos.
+ * <p>
+ * Para gerar e executar, a partir da raiz do repositório:
+ * <pre>
+ * mvn -B package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar                         (todos)
+ * java -jar benchmarks/target/benchmarks.jar Localizacao -p tamanhoCatalogo=1000000
+ * </pre>
+ * A aplicação é acessada por {@link benchmarks.Operacoes}, pois suas classes estão no pacote padrão.
+ */
+package benchmarks;